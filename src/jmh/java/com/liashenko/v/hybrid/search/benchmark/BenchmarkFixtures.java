@@ -0,0 +1,119 @@
+package com.liashenko.v.hybrid.search.benchmark;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.liashenko.v.hybrid.search.config.AppConfig;
+import com.liashenko.v.hybrid.search.config.property.DataLoadingProperties;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.service.EmbeddingService;
+import com.liashenko.v.hybrid.search.service.embedding.EmbeddingBatchPartitioner;
+import com.liashenko.v.hybrid.search.service.embedding.GemmaEmbeddingService;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingScheduler;
+import com.liashenko.v.hybrid.search.service.search.DefaultSearchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.HttpHost;
+import org.elasticsearch.client.RestClient;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Deterministic data and wiring shared by the benchmarks.
+ */
+public final class BenchmarkFixtures {
+    public static final int DIMENSIONS = 768;
+    public static final String INDEX_NAME = "conferences_benchmark";
+    public static final String INDEX_CONFIG_PATH = "classpath:es/conference_index_settings.json";
+
+    private static final String[] COUNTRIES = {"United States", "Germany", "United Kingdom", "France", "Japan", "Canada"};
+    private static final String[] SECTORS = {"Healthcare", "Information Technology", "Financial Services", "Energy", "Education"};
+
+    private BenchmarkFixtures() {
+    }
+
+    public static List<Conference> conferences(int count, boolean withEmbedding) {
+        Random random = new Random(42);
+        List<Conference> conferences = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String country = COUNTRIES[i % COUNTRIES.length];
+            String sector = SECTORS[i % SECTORS.length];
+            LocalDate startDate = LocalDate.of(2025, 1, 1).plusDays(random.nextInt(365));
+            conferences.add(Conference.builder()
+                    .id(String.valueOf(10_000 + i))
+                    .groupId(i / 3)
+                    .name("%s Innovation Summit %d".formatted(sector, 2025 + i % 2))
+                    .description(("%s Innovation Summit is an event hosted for professionals focused on %s. The event brings "
+                            + "together leaders, innovators, and visionaries to foster collaboration and drive advancements "
+                            + "in the industry, allowing attendees to engage in thought-provoking discussions.").formatted(sector, sector))
+                    .startDate(startDate)
+                    .endDate(startDate.plusDays(2))
+                    .formattedLocation("City %d, %s".formatted(i % 50, country))
+                    .countryDescription(country)
+                    .attendeesCount(random.nextInt(5000))
+                    .companyAttendeesCount(random.nextInt(500))
+                    .investorAttendeesCount(random.nextInt(100))
+                    .attendeeNamesConcatString(attendees(random, 40))
+                    .industrySectorsConcatString(sector)
+                    .industryGroupsConcatString(sector + " Services")
+                    .industryCodesConcatString(sector + " Other")
+                    .embedding(withEmbedding ? embedding(random) : null)
+                    .build());
+        }
+        return conferences;
+    }
+
+    public static float[] embedding(Random random) {
+        float[] embedding = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            embedding[i] = random.nextFloat() * 2 - 1;
+        }
+        return embedding;
+    }
+
+    private static String attendees(Random random, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(", ");
+            }
+            builder.append("Company ").append(random.nextInt(10_000));
+        }
+        return builder.toString();
+    }
+
+    public static ElasticsearchClient elasticsearchClient(StandInServer server) {
+        RestClient restClient = RestClient.builder(HttpHost.create(server.baseUrl())).build();
+        return new ElasticsearchClient(new RestClientTransport(restClient, AppConfig.elasticJsonpMapper()));
+    }
+
+    public static EmbeddingService embeddingService(StandInServer server) {
+        org.springframework.web.client.RestClient restClient = org.springframework.web.client.RestClient.builder()
+                .baseUrl(server.baseUrl())
+                .defaultHeader("Content-Type", "application/json")
+                .build();
+        return new GemmaEmbeddingService(restClient, new EmbeddingBatchPartitioner(32, 16384));
+    }
+
+    /**
+     * Search service talking to the stand-in server for both Elasticsearch and the embedding endpoint.
+     */
+    public static DefaultSearchService searchService(StandInServer server, SearchProperties searchProperties,
+                                                     ExecutorService searchExecutor) {
+        ElasticsearchClient client = elasticsearchClient(server);
+        EmbeddingService embeddingService = embeddingService(server);
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        IndexingScheduler scheduler = new IndexingScheduler(client, embeddingService, Runnable::run, Runnable::run,
+                new DataLoadingProperties(), meterRegistry);
+        IndexAdmin indexAdmin = new IndexAdmin(client, new DefaultResourceLoader(), INDEX_CONFIG_PATH, INDEX_NAME,
+                new DataLoadingProperties().getVectorIndex());
+        return new DefaultSearchService(client, INDEX_NAME, embeddingService, indexAdmin, 64, scheduler,
+                searchProperties, searchExecutor, meterRegistry);
+    }
+}
@@ -0,0 +1,112 @@
+package com.liashenko.v.hybrid.search.benchmark;
+
+import co.elastic.clients.json.JsonpMapper;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.liashenko.v.hybrid.search.config.AppConfig;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.json.stream.JsonGenerator;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+
+/**
+ * In-process HTTP server standing in for Elasticsearch ({@code _search}) and the TEI {@code /embed} endpoint,
+ * so benchmarks measure the client-side hot path over a real HTTP stack without external services.
+ */
+public class StandInServer implements AutoCloseable {
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final HttpServer server;
+    private final byte[] searchResponse;
+    private final String embeddingJson;
+
+    public StandInServer(int hits) throws IOException {
+        this.searchResponse = searchResponse(BenchmarkFixtures.conferences(hits, false));
+        this.embeddingJson = OBJECT_MAPPER.writeValueAsString(BenchmarkFixtures.embedding(new Random(7)));
+
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/embed", this::embed);
+        server.createContext("/", this::elasticsearch);
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    public byte[] searchResponse() {
+        return searchResponse;
+    }
+
+    private void embed(HttpExchange exchange) throws IOException {
+        JsonNode inputs = OBJECT_MAPPER.readTree(exchange.getRequestBody()).get("inputs");
+        int count = inputs.isArray() ? inputs.size() : 1;
+        StringBuilder body = new StringBuilder(count * embeddingJson.length() + 2).append('[');
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                body.append(',');
+            }
+            body.append(embeddingJson);
+        }
+        respond(exchange, body.append(']').toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    private void elasticsearch(HttpExchange exchange) throws IOException {
+        exchange.getRequestBody().transferTo(OutputStream.nullOutputStream());
+        respond(exchange, searchResponse);
+    }
+
+    private static void respond(HttpExchange exchange, byte[] body) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        // the Elasticsearch client rejects responses without the product header
+        exchange.getResponseHeaders().add("X-Elastic-Product", "Elasticsearch");
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static byte[] searchResponse(List<Conference> conferences) {
+        JsonpMapper mapper = AppConfig.elasticJsonpMapper();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (JsonGenerator generator = mapper.jsonProvider().createGenerator(out)) {
+            generator.writeStartObject()
+                    .write("took", 3)
+                    .write("timed_out", false)
+                    .writeStartObject("_shards")
+                    .write("total", 1).write("successful", 1).write("skipped", 0).write("failed", 0)
+                    .writeEnd()
+                    .writeStartObject("hits")
+                    .writeStartObject("total").write("value", conferences.size()).write("relation", "eq").writeEnd()
+                    .write("max_score", 10.0)
+                    .writeStartArray("hits");
+            for (int i = 0; i < conferences.size(); i++) {
+                Conference conference = conferences.get(i);
+                generator.writeStartObject()
+                        .write("_index", BenchmarkFixtures.INDEX_NAME)
+                        .write("_id", conference.getId())
+                        .write("_score", 10.0 - i * 0.1);
+                generator.writeKey("_source");
+                mapper.serialize(conference, generator);
+                generator.writeEnd();
+            }
+            generator.writeEnd().writeEnd().writeEnd();
+        }
+        return out.toByteArray();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+}
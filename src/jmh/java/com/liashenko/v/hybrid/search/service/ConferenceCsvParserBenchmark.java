@@ -0,0 +1,56 @@
+package com.liashenko.v.hybrid.search.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parses the bundled dataset from memory, comparing the eager list with the streaming iterator.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ConferenceCsvParserBenchmark {
+
+    private final ConferenceCsvParser parser = new ConferenceCsvParser();
+    private byte[] csv;
+
+    @Setup
+    public void setUp() throws IOException {
+        try (InputStream in = new ClassPathResource("data/conferences_100.csv").getInputStream()) {
+            csv = in.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public void parseConferences(Blackhole blackhole) {
+        blackhole.consume(parser.parseConferences(reader()));
+    }
+
+    @Benchmark
+    public void iterateConferences(Blackhole blackhole) {
+        Iterator<?> conferences = parser.iterateConferences(reader());
+        while (conferences.hasNext()) {
+            blackhole.consume(conferences.next());
+        }
+    }
+
+    private Reader reader() {
+        return new InputStreamReader(new ByteArrayInputStream(csv), StandardCharsets.UTF_8);
+    }
+}
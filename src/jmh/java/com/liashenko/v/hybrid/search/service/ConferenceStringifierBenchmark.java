@@ -0,0 +1,45 @@
+package com.liashenko.v.hybrid.search.service;
+
+import com.liashenko.v.hybrid.search.benchmark.BenchmarkFixtures;
+import com.liashenko.v.hybrid.search.model.Conference;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building embedding model inputs, paid once per indexed document.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ConferenceStringifierBenchmark {
+
+    private List<Conference> conferences;
+
+    @Setup
+    public void setUp() {
+        conferences = BenchmarkFixtures.conferences(64, false);
+    }
+
+    @Benchmark
+    public void getInput(Blackhole blackhole) {
+        for (Conference conference : conferences) {
+            blackhole.consume(ConferenceStringifier.getInput(conference));
+        }
+    }
+
+    @Benchmark
+    public void getShortInput(Blackhole blackhole) {
+        for (Conference conference : conferences) {
+            blackhole.consume(ConferenceStringifier.getShortInput(conference));
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.json.JsonpMapper;
+import co.elastic.clients.util.BinaryData;
+import com.liashenko.v.hybrid.search.benchmark.BenchmarkFixtures;
+import com.liashenko.v.hybrid.search.benchmark.StandInServer;
+import com.liashenko.v.hybrid.search.config.AppConfig;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+import jakarta.json.stream.JsonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Builds and serializes one bulk batch of embedded documents, i.e. the client-side work per bulk request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BulkOperationsBenchmark {
+
+    @Param({"64"})
+    private int batchSize;
+
+    private StandInServer server;
+    private ExecutorService executor;
+    private DefaultSearchService searchService;
+    private JsonpMapper mapper;
+    private List<Conference> conferences;
+    private final ByteArrayOutputStream buffer = new ByteArrayOutputStream(1 << 20);
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StandInServer(0);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        searchService = BenchmarkFixtures.searchService(server, new SearchProperties(), executor);
+        mapper = AppConfig.elasticJsonpMapper();
+        conferences = BenchmarkFixtures.conferences(batchSize, true);
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+        server.close();
+    }
+
+    @Benchmark
+    public List<BulkOperation> toBulkOperations() {
+        return searchService.toBulkOperations(conferences);
+    }
+
+    @Benchmark
+    public int serializeBulkBody() throws IOException {
+        buffer.reset();
+        for (BulkOperation operation : searchService.toBulkOperations(conferences)) {
+            try (JsonGenerator generator = mapper.jsonProvider().createGenerator(buffer)) {
+                mapper.serialize(operation, generator);
+            }
+            buffer.write('\n');
+            ((BinaryData) operation.index().document()).writeTo(buffer);
+            buffer.write('\n');
+        }
+        return buffer.size();
+    }
+}
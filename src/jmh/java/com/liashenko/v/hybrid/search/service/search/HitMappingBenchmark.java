@@ -0,0 +1,80 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.json.JsonpDeserializer;
+import co.elastic.clients.json.JsonpMapper;
+import com.liashenko.v.hybrid.search.benchmark.BenchmarkFixtures;
+import com.liashenko.v.hybrid.search.benchmark.StandInServer;
+import com.liashenko.v.hybrid.search.config.AppConfig;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.controller.DefaultSearchMapper;
+import com.liashenko.v.hybrid.search.controller.SearchMapper;
+import com.liashenko.v.hybrid.search.controller.dto.ConferenceDto;
+import com.liashenko.v.hybrid.search.model.Conference;
+import jakarta.json.stream.JsonParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response side of a search: JSON deserialization of the hits, hit to {@link Conference} and DTO mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class HitMappingBenchmark {
+
+    @Param({"10", "100"})
+    private int hits;
+
+    private StandInServer server;
+    private ExecutorService executor;
+    private DefaultSearchService searchService;
+    private final SearchMapper searchMapper = new DefaultSearchMapper();
+    private final JsonpMapper mapper = AppConfig.elasticJsonpMapper();
+    private final JsonpDeserializer<SearchResponse<Conference>> deserializer =
+            SearchResponse.createSearchResponseDeserializer(JsonpDeserializer.of(Conference.class));
+    private byte[] responseBody;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StandInServer(hits);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        searchService = BenchmarkFixtures.searchService(server, new SearchProperties(), executor);
+        responseBody = server.searchResponse();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+        server.close();
+    }
+
+    @Benchmark
+    public SearchResponse<Conference> deserialize() {
+        try (JsonParser parser = mapper.jsonProvider().createParser(new ByteArrayInputStream(responseBody))) {
+            return deserializer.deserialize(parser, mapper);
+        }
+    }
+
+    @Benchmark
+    public List<ConferenceDto> deserializeAndMap() {
+        List<Conference> conferences = deserialize().hits().hits().stream()
+                .map(searchService::toConference)
+                .toList();
+        return searchMapper.map(conferences);
+    }
+}
@@ -0,0 +1,241 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.google.common.primitives.Floats;
+import com.liashenko.v.hybrid.search.benchmark.BenchmarkFixtures;
+import com.liashenko.v.hybrid.search.config.AppConfig;
+import com.liashenko.v.hybrid.search.config.property.DataLoadingProperties;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import jakarta.json.JsonObject;
+import jakarta.json.JsonValue;
+import org.apache.http.HttpHost;
+import org.apache.http.auth.AuthScope;
+import org.apache.http.auth.UsernamePasswordCredentials;
+import org.apache.http.impl.client.BasicCredentialsProvider;
+import org.elasticsearch.client.RestClient;
+import org.elasticsearch.client.RestClientBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * kNN latency per {@code index_options} type against a real Elasticsearch, with recall@k and vector memory
+ * printed once per trial. Recall is measured against exact cosine neighbours computed in the benchmark.
+ * <p>
+ * Needs a running cluster, so it is excluded from the default run:
+ * {@code ES_URL=http://localhost:9200 ./gradlew jmh -PjmhInclude='KnnIndexOptionsBenchmark'}
+ * (credentials via {@code ES_USERNAME} / {@code ES_PASSWORD}, like the vertex profile).
+ * <p>
+ * Vectors are drawn around a fixed set of centroids, which is closer to real embeddings than uniform noise.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class KnnIndexOptionsBenchmark {
+    private static final int CENTROIDS = 64;
+    private static final int QUERIES = 100;
+    private static final int BULK_SIZE = 500;
+
+    @Param({"hnsw", "int8_hnsw", "int4_hnsw", "bbq_hnsw"})
+    private String indexOptions;
+
+    @Param({"20000"})
+    private int documents;
+
+    @Param({"10"})
+    private int k;
+
+    @Param({"100"})
+    private int numCandidates;
+
+    private RestClient restClient;
+    private ElasticsearchClient client;
+    private IndexAdmin indexAdmin;
+    private float[][] queries;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        restClient = restClient();
+        client = new ElasticsearchClient(new RestClientTransport(restClient, AppConfig.elasticJsonpMapper()));
+
+        DataLoadingProperties.VectorIndexProperties vectorIndex = new DataLoadingProperties.VectorIndexProperties();
+        vectorIndex.setType(indexOptions);
+        indexAdmin = new IndexAdmin(client, new DefaultResourceLoader(), BenchmarkFixtures.INDEX_CONFIG_PATH,
+                "knn_benchmark_" + indexOptions, vectorIndex);
+        indexAdmin.deleteAll();
+        indexAdmin.createIfNeeded();
+
+        Random random = new Random(42);
+        float[][] centroids = new float[CENTROIDS][];
+        for (int i = 0; i < CENTROIDS; i++) {
+            centroids[i] = normalize(BenchmarkFixtures.embedding(random));
+        }
+        float[][] vectors = new float[documents][];
+        for (int i = 0; i < documents; i++) {
+            vectors[i] = around(centroids[random.nextInt(CENTROIDS)], random);
+        }
+        queries = new float[QUERIES][];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = around(centroids[random.nextInt(CENTROIDS)], random);
+        }
+
+        index(vectors);
+        indexAdmin.finishBulkLoad(indexAdmin.alias(), 1);
+
+        double recall = 0;
+        for (float[] query : queries) {
+            recall += recall(exactNeighbours(vectors, query), knn(query));
+        }
+        long vectorBytes = knnVectorBytes();
+        System.out.printf("%n[%s] documents=%d recall@%d=%.3f knn_vectors_on_disk=%.1fMB estimated_off_heap=%.1fMB%n",
+                indexOptions, documents, k, recall / QUERIES, vectorBytes / 1_048_576.0,
+                estimatedOffHeapBytes(indexOptions, documents, BenchmarkFixtures.DIMENSIONS) / 1_048_576.0);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        indexAdmin.deleteAll();
+        restClient.close();
+    }
+
+    @Benchmark
+    public List<String> knnSearch() throws IOException {
+        float[] query = queries[next++ % QUERIES];
+        return knn(query);
+    }
+
+    private List<String> knn(float[] query) throws IOException {
+        SearchResponse<Void> response = client.search(s -> s
+                        .index(indexAdmin.alias())
+                        .source(src -> src.fetch(false))
+                        .size(k)
+                        .knn(knn -> knn
+                                .field("embedding")
+                                .queryVector(Floats.asList(query))
+                                .k(k)
+                                .numCandidates(numCandidates)),
+                Void.class);
+        return response.hits().hits().stream().map(Hit::id).toList();
+    }
+
+    private void index(float[][] vectors) throws IOException {
+        for (int from = 0; from < vectors.length; from += BULK_SIZE) {
+            BulkRequest.Builder bulk = new BulkRequest.Builder().index(indexAdmin.alias());
+            for (int i = from; i < Math.min(from + BULK_SIZE, vectors.length); i++) {
+                String id = String.valueOf(i);
+                Map<String, Object> document = Map.of("id", id, "embedding", vectors[i]);
+                bulk.operations(op -> op.index(idx -> idx.id(id).document(document)));
+            }
+            BulkResponse response = client.bulk(bulk.build());
+            if (response.errors()) {
+                throw new IllegalStateException("Bulk indexing failed for index_options " + indexOptions);
+            }
+        }
+    }
+
+    private Set<String> exactNeighbours(float[][] vectors, float[] query) {
+        Integer[] ids = new Integer[vectors.length];
+        double[] scores = new double[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            ids[i] = i;
+            scores[i] = dot(vectors[i], query);
+        }
+        Arrays.sort(ids, (a, b) -> Double.compare(scores[b], scores[a]));
+        Set<String> neighbours = new HashSet<>();
+        for (int i = 0; i < k; i++) {
+            neighbours.add(String.valueOf(ids[i]));
+        }
+        return neighbours;
+    }
+
+    private double recall(Set<String> exact, List<String> approximate) {
+        return approximate.stream().filter(exact::contains).count() / (double) exact.size();
+    }
+
+    private long knnVectorBytes() throws IOException {
+        JsonObject usage = client.indices()
+                .diskUsage(d -> d.index(indexAdmin.alias()).runExpensiveTasks(true))
+                .valueBody().toJson().asJsonObject();
+        return usage.entrySet().stream()
+                .filter(entry -> !entry.getKey().startsWith("_"))
+                .map(Map.Entry::getValue)
+                .map(JsonValue::asJsonObject)
+                .mapToLong(index -> index.getJsonObject("fields").getJsonObject("embedding")
+                        .getJsonNumber("knn_vectors_in_bytes").longValue())
+                .sum();
+    }
+
+    /**
+     * Page cache needed to keep the vectors kNN scores against in memory, following the sizing guide of
+     * Elasticsearch (HNSW graph excluded).
+     */
+    private static long estimatedOffHeapBytes(String type, long vectors, int dims) {
+        return switch (type) {
+            case "hnsw", "flat" -> vectors * 4 * dims;
+            case "int8_hnsw", "int8_flat" -> vectors * (dims + 4);
+            case "int4_hnsw", "int4_flat" -> vectors * (dims / 2 + 4);
+            case "bbq_hnsw", "bbq_flat" -> vectors * (dims / 8 + 14);
+            default -> throw new IllegalArgumentException("Unknown index_options type: " + type);
+        };
+    }
+
+    private static float[] around(float[] centroid, Random random) {
+        float[] vector = new float[centroid.length];
+        for (int i = 0; i < centroid.length; i++) {
+            vector[i] = centroid[i] + (float) random.nextGaussian() * 0.05f;
+        }
+        return normalize(vector);
+    }
+
+    private static float[] normalize(float[] vector) {
+        float norm = (float) Math.sqrt(dot(vector, vector));
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] /= norm;
+        }
+        return vector;
+    }
+
+    private static double dot(float[] a, float[] b) {
+        double sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static RestClient restClient() {
+        String url = System.getenv("ES_URL");
+        RestClientBuilder builder = RestClient.builder(HttpHost.create(url != null ? url : "http://localhost:9200"));
+        String username = System.getenv("ES_USERNAME");
+        if (username != null) {
+            BasicCredentialsProvider credentials = new BasicCredentialsProvider();
+            credentials.setCredentials(AuthScope.ANY, new UsernamePasswordCredentials(username,
+                    Objects.requireNonNullElse(System.getenv("ES_PASSWORD"), "")));
+            builder.setHttpClientConfigCallback(http -> http.setDefaultCredentialsProvider(credentials));
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,75 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import com.liashenko.v.hybrid.search.benchmark.BenchmarkFixtures;
+import com.liashenko.v.hybrid.search.benchmark.StandInServer;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.model.SearchQuery;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Query path per search type: request building alone, and a full round trip against the in-process
+ * Elasticsearch and embedding stand-ins (HTTP, JSON mapping, fusion), excluding real server work.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+
+    @Param({"KEYWORD", "VECTOR", "HYBRID", "HYBRID_RRF"})
+    private String type;
+
+    @Param({"false", "true"})
+    private boolean pipelined;
+
+    private StandInServer server;
+    private ExecutorService executor;
+    private DefaultSearchService searchService;
+    private SearchQuery query;
+
+    @Setup
+    public void setUp() throws IOException {
+        server = new StandInServer(50);
+        executor = Executors.newVirtualThreadPerTaskExecutor();
+        SearchProperties searchProperties = new SearchProperties();
+        searchProperties.getHybrid().setPipelined(pipelined);
+        searchService = BenchmarkFixtures.searchService(server, searchProperties, executor);
+        query = SearchQuery.builder()
+                .queryText("healthcare innovation summit in germany")
+                .type(type)
+                .offset(0)
+                .limit(10)
+                .build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.close();
+        server.close();
+    }
+
+    @Benchmark
+    public SearchRequest buildSearchRequest() throws IOException, InterruptedException {
+        return searchService.buildSearchRequest(query);
+    }
+
+    @Benchmark
+    public List<Conference> search() throws IOException, InterruptedException {
+        return searchService.search(query);
+    }
+}
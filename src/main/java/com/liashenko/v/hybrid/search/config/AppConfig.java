@@ -5,42 +5,76 @@ import co.elastic.clients.json.JsonpMapper;
 import co.elastic.clients.json.jackson.JacksonJsonpMapper;
 import co.elastic.clients.transport.ElasticsearchTransport;
 import co.elastic.clients.transport.rest_client.RestClientTransport;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.StreamWriteFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
 import com.liashenko.v.hybrid.search.config.property.DataLoadingProperties;
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
 import com.liashenko.v.hybrid.search.controller.DefaultSearchMapper;
 import com.liashenko.v.hybrid.search.controller.SearchMapper;
 import com.liashenko.v.hybrid.search.service.ConferenceCsvParser;
 import com.liashenko.v.hybrid.search.service.CsvDataLoaderService;
+import com.liashenko.v.hybrid.search.service.EmbeddingService;
+import com.liashenko.v.hybrid.search.service.ReindexService;
 import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.embedding.CachingEmbeddingService;
+import com.liashenko.v.hybrid.search.service.embedding.CoalescingEmbeddingService;
+import com.liashenko.v.hybrid.search.service.embedding.EmbeddingStore;
+import com.liashenko.v.hybrid.search.service.embedding.LimitingEmbeddingService;
+import com.liashenko.v.hybrid.search.service.embedding.StoredEmbeddingService;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import com.liashenko.v.hybrid.search.service.indexing.IndexGeneration;
+import com.liashenko.v.hybrid.search.service.indexing.IndexManifest;
+import com.liashenko.v.hybrid.search.service.indexing.IndexWriteLock;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingScheduler;
+import com.liashenko.v.hybrid.search.service.search.CachingSearchService;
+import com.liashenko.v.hybrid.search.service.search.DegradingSearchService;
+import com.liashenko.v.hybrid.search.service.search.SuggestService;
+import io.micrometer.core.instrument.MeterRegistry;
 import org.elasticsearch.client.RestClient;
 import org.elasticsearch.client.RestClientBuilder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationListener;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.nio.file.Path;
 import java.text.SimpleDateFormat;
 import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Configuration
 @EnableConfigurationProperties
 public class AppConfig {
 
+    /**
+     * Pool size, active threads and queue depth of both indexing pools are exported as {@code executor.*}
+     * meters tagged {@code name=indexing} and {@code name=bulk} by the Spring Boot task executor metrics.
+     */
     @Bean(name = "indexingTaskExecutor")
     public Executor indexingTaskExecutor(DataLoadingProperties dataLoadingProperties) {
-        DataLoadingProperties.ThreadPoolProperties threadPool = dataLoadingProperties.getThreadPool();
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(threadPool.getCorePoolSize());
-        executor.setMaxPoolSize(threadPool.getMaxPoolSize());
-        executor.setQueueCapacity(threadPool.getQueueCapacity());
-        executor.setThreadNamePrefix(threadPool.getThreadNamePrefix());
-        executor.initialize();
-        return executor;
+        return threadPoolTaskExecutor(dataLoadingProperties.getThreadPool());
+    }
+
+    @Bean(name = "bulkTaskExecutor")
+    public Executor bulkTaskExecutor(DataLoadingProperties dataLoadingProperties) {
+        return threadPoolTaskExecutor(dataLoadingProperties.getBulkThreadPool());
+    }
+
+    @Bean(name = "searchTaskExecutor")
+    public ExecutorService searchTaskExecutor() {
+        return Executors.newVirtualThreadPerTaskExecutor();
     }
 
     @Bean
@@ -52,31 +86,157 @@ public class AppConfig {
     ElasticsearchClient elasticClient(
             RestClient elasticRestClient
     ) {
-        ObjectMapper objectMapper = new ObjectMapper()
+        ElasticsearchTransport transport = new RestClientTransport(elasticRestClient, elasticJsonpMapper());
+        return new ElasticsearchClient(transport);
+    }
+
+    /**
+     * JSON mapper used for documents exchanged with Elasticsearch.
+     * <p>
+     * Embeddings are primitive {@code float[]}, written with the fast (Schubfach) float writer.
+     *
+     * @return mapper writing dates as {@code yyyy-MM-dd}
+     */
+    public static JsonpMapper elasticJsonpMapper() {
+        JsonFactory jsonFactory = JsonFactory.builder()
+                .enable(StreamWriteFeature.USE_FAST_DOUBLE_WRITER)
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper(jsonFactory)
                 .registerModule(new ParameterNamesModule())
                 .registerModule(new Jdk8Module())
                 .registerModule(new JavaTimeModule())
                 .setDateFormat(new SimpleDateFormat("yyyy-MM-dd"))
                 .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-        JsonpMapper mapper = new JacksonJsonpMapper(objectMapper);
-        ElasticsearchTransport transport = new RestClientTransport(elasticRestClient, mapper);
-        return new ElasticsearchClient(transport);
+        return new JacksonJsonpMapper(objectMapper);
+    }
+
+    /**
+     * Decorator chain shared by all embedding profiles, outermost first: cache, durable store, coalescing of
+     * concurrent query embeddings, concurrency limiter with circuit breaker.
+     *
+     * @param embeddingService client of the profile's embedding backend
+     * @param embeddingStore   durable embedding store, {@code null} when disabled
+     * @return decorated embedding service
+     */
+    public static EmbeddingService decorateEmbeddingService(EmbeddingService embeddingService,
+                                                            EmbeddingProperties embeddingProperties,
+                                                            EmbeddingStore embeddingStore,
+                                                            MeterRegistry meterRegistry) {
+        EmbeddingService limitingEmbeddingService = LimitingEmbeddingService.decorate(embeddingService,
+                embeddingProperties.getLimiter(), meterRegistry);
+        EmbeddingService coalescingEmbeddingService = CoalescingEmbeddingService.decorate(limitingEmbeddingService,
+                embeddingProperties.getCoalescing(), meterRegistry);
+        EmbeddingService storedEmbeddingService = StoredEmbeddingService.decorate(coalescingEmbeddingService,
+                embeddingStore, meterRegistry);
+        return CachingEmbeddingService.decorate(storedEmbeddingService, embeddingProperties, meterRegistry);
+    }
+
+    /**
+     * Decorator chain shared by all search profiles: keyword fallback in front of the result cache.
+     *
+     * @param searchService    search service of the profile
+     * @param embeddingService decorated embedding service whose availability decides on the keyword fallback
+     * @return decorated search service
+     */
+    public static SearchService decorateSearchService(SearchService searchService,
+                                                      SearchProperties searchProperties,
+                                                      IndexGeneration indexGeneration,
+                                                      EmbeddingService embeddingService,
+                                                      MeterRegistry meterRegistry) {
+        SearchService cachingSearchService = CachingSearchService.decorate(searchService, searchProperties.getResultCache(),
+                indexGeneration, meterRegistry);
+        return DegradingSearchService.decorate(cachingSearchService, embeddingService, meterRegistry);
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "embedding.store", name = "enabled", havingValue = "true", matchIfMissing = true)
+    EmbeddingStore embeddingStore(EmbeddingProperties embeddingProperties) {
+        return new EmbeddingStore(embeddingProperties.getStore());
+    }
+
+    @Bean
+    IndexingScheduler indexingScheduler(ElasticsearchClient elasticClient,
+                                        EmbeddingService embeddingService,
+                                        DataLoadingProperties dataLoadingProperties,
+                                        Executor indexingTaskExecutor,
+                                        Executor bulkTaskExecutor,
+                                        MeterRegistry meterRegistry) {
+        return new IndexingScheduler(elasticClient,
+                embeddingService,
+                indexingTaskExecutor,
+                bulkTaskExecutor,
+                dataLoadingProperties,
+                meterRegistry);
     }
 
     @Bean
     CsvDataLoaderService csvDataLoaderService(
             DataLoadingProperties properties,
             ResourceLoader resourceLoader,
-            SearchService searchService
+            SearchService searchService,
+            IndexAdmin indexAdmin
     ) {
         return new CsvDataLoaderService(properties,
                 resourceLoader,
                 new ConferenceCsvParser(),
-                searchService);
+                searchService,
+                new IndexManifest(Path.of(properties.getManifestFilePath())),
+                indexAdmin);
+    }
+
+    @Bean
+    IndexAdmin indexAdmin(ElasticsearchClient elasticClient,
+                          ResourceLoader resourceLoader,
+                          DataLoadingProperties properties,
+                          @Value("${elasticsearch.index}") String index) {
+        return new IndexAdmin(elasticClient, resourceLoader, properties.getIndexConfigFilePath(), index, properties.getVectorIndex());
+    }
+
+    @Bean
+    ReindexService reindexService(IndexAdmin indexAdmin,
+                                  CsvDataLoaderService csvDataLoaderService,
+                                  DataLoadingProperties properties,
+                                  IndexGeneration indexGeneration,
+                                  IndexWriteLock indexWriteLock) {
+        return new ReindexService(indexAdmin, csvDataLoaderService, properties.getReindex(), indexGeneration, indexWriteLock);
+    }
+
+    @Bean
+    IndexWriteLock indexWriteLock() {
+        return new IndexWriteLock();
+    }
+
+    @Bean
+    IndexGeneration indexGeneration() {
+        return new IndexGeneration();
+    }
+
+    @Bean
+    SuggestService suggestService(ElasticsearchClient elasticClient,
+                                  SearchProperties searchProperties,
+                                  IndexGeneration indexGeneration,
+                                  MeterRegistry meterRegistry,
+                                  @Value("${elasticsearch.index}") String index) {
+        return new SuggestService(elasticClient, index, searchProperties.getSuggest(), indexGeneration, meterRegistry);
+    }
+
+    @Bean
+    ApplicationListener<ApplicationReadyEvent> searchWarmUp(SearchService searchService, ExecutorService searchTaskExecutor) {
+        return event -> searchTaskExecutor.execute(searchService::warmUp);
     }
 
     @Bean
     SearchMapper searchMapper() {
         return new DefaultSearchMapper();
     }
-}
\ No newline at end of file
+
+    private static ThreadPoolTaskExecutor threadPoolTaskExecutor(DataLoadingProperties.ThreadPoolProperties threadPool) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threadPool.getCorePoolSize());
+        executor.setMaxPoolSize(threadPool.getMaxPoolSize());
+        executor.setQueueCapacity(threadPool.getQueueCapacity());
+        executor.setThreadNamePrefix(threadPool.getThreadNamePrefix());
+        executor.initialize();
+        return executor;
+    }
+}
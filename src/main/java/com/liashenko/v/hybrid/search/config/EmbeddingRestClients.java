@@ -0,0 +1,118 @@
+package com.liashenko.v.hybrid.search.config;
+
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.http.HttpClient;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * {@link RestClient} of the TEI embedding endpoint on a tuned JDK {@link HttpClient}.
+ * <p>
+ * The JDK client keeps idle connections alive and reuses them but opens a new one for every concurrent HTTP/1.1
+ * request, so concurrency is bounded by {@code max-connections} permits; a request waiting longer than
+ * {@code connection-request-timeout} for one fails instead of piling up behind a saturated TEI. A permit is held
+ * until the response is closed, as its body is streamed from the connection after the request returned.
+ * With {@code http2} all requests are multiplexed over a single connection.
+ * <p>
+ * The JDK client is kept over a pooling client because interrupting the calling thread aborts its requests,
+ * which is how cancelled query embeddings are cut short.
+ */
+final class EmbeddingRestClients {
+
+    private EmbeddingRestClients() {
+    }
+
+    static RestClient create(String endpoint, EmbeddingProperties.HttpProperties properties) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(properties.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(properties.getConnectTimeout())
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(properties.getReadTimeout());
+
+        return RestClient.builder()
+                .baseUrl(endpoint)
+                .requestFactory(requestFactory)
+                .requestInterceptor(connectionLimit(properties))
+                .defaultHeader("Content-Type", "application/json")
+                .build();
+    }
+
+    private static ClientHttpRequestInterceptor connectionLimit(EmbeddingProperties.HttpProperties properties) {
+        Semaphore connections = new Semaphore(properties.getMaxConnections());
+        long timeoutNanos = properties.getConnectionRequestTimeout().toNanos();
+        return (request, body, execution) -> {
+            try {
+                if (!connections.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw new IOException("No embedding connection free within %s, %d in use"
+                            .formatted(properties.getConnectionRequestTimeout(), properties.getMaxConnections()));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for an embedding connection");
+            }
+            try {
+                return new PermitReleasingResponse(execution.execute(request, body), connections);
+            } catch (IOException | RuntimeException e) {
+                connections.release();
+                throw e;
+            }
+        };
+    }
+
+    /**
+     * Gives the connection permit back once the response, and so its body stream, is closed.
+     */
+    private static final class PermitReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Semaphore connections;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        PermitReleasingResponse(ClientHttpResponse delegate, Semaphore connections) {
+            this.delegate = delegate;
+            this.connections = connections;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) {
+                    connections.release();
+                }
+            }
+        }
+    }
+}
@@ -2,15 +2,23 @@ package com.liashenko.v.hybrid.search.config;
 
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import com.liashenko.v.hybrid.search.config.property.DataLoadingProperties;
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
 import com.liashenko.v.hybrid.search.service.EmbeddingService;
 import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import com.liashenko.v.hybrid.search.service.indexing.IndexGeneration;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingScheduler;
+import com.liashenko.v.hybrid.search.service.embedding.EmbeddingBatchPartitioner;
+import com.liashenko.v.hybrid.search.service.embedding.EmbeddingStore;
 import com.liashenko.v.hybrid.search.service.embedding.GemmaEmbeddingService;
 import com.liashenko.v.hybrid.search.service.search.InferenceSearchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.core.io.ResourceLoader;
 import org.springframework.web.client.RestClient;
 
 import java.util.concurrent.Executor;
@@ -20,34 +28,46 @@ import java.util.concurrent.Executor;
 public class InferenceConfig {
 
     @Bean
-    public RestClient embeddingRestClient(@Value("${embedding-gemma.endpoint}") String endpoint) {
-        RestClient.Builder builder = RestClient.builder()
-                .baseUrl(endpoint)
-                .defaultHeader("Content-Type", "application/json");
-        return builder.build();
+    public RestClient embeddingRestClient(@Value("${embedding-gemma.endpoint}") String endpoint,
+                                          EmbeddingProperties embeddingProperties) {
+        return EmbeddingRestClients.create(endpoint, embeddingProperties.getHttp());
     }
 
     @Bean
-    EmbeddingService embeddingService(RestClient embeddingRestClient) {
-        return new GemmaEmbeddingService(embeddingRestClient);
+    EmbeddingService embeddingService(RestClient embeddingRestClient,
+                                      EmbeddingProperties embeddingProperties,
+                                      MeterRegistry meterRegistry,
+                                      ObjectProvider<EmbeddingStore> embeddingStore) {
+        EmbeddingService gemmaEmbeddingService = new GemmaEmbeddingService(embeddingRestClient,
+                new EmbeddingBatchPartitioner(embeddingProperties.getBatch()));
+        return AppConfig.decorateEmbeddingService(gemmaEmbeddingService, embeddingProperties, embeddingStore.getIfAvailable(),
+                meterRegistry);
     }
 
     @Bean
     SearchService searchService(ElasticsearchClient elasticsearchClient,
                                 @Value("${elasticsearch.index}") String index,
                                 EmbeddingService embeddingService,
-                                ResourceLoader resourceLoader,
+                                IndexAdmin indexAdmin,
                                 DataLoadingProperties dataLoadingProperties,
-                                Executor indexingTaskExecutor) {
+                                SearchProperties searchProperties,
+                                IndexingScheduler indexingScheduler,
+                                Executor searchTaskExecutor,
+                                IndexGeneration indexGeneration,
+                                MeterRegistry meterRegistry) {
 
-        return new InferenceSearchService(
+        SearchService searchService = new InferenceSearchService(
                 elasticsearchClient,
                 index,
                 embeddingService,
-                resourceLoader,
-                dataLoadingProperties.getIndexConfigFilePath(),
+                indexAdmin,
                 dataLoadingProperties.getBatchSize(),
-                indexingTaskExecutor);
+                indexingScheduler,
+                searchProperties,
+                searchTaskExecutor,
+                meterRegistry);
+        return AppConfig.decorateSearchService(searchService, searchProperties, indexGeneration, embeddingService,
+                meterRegistry);
     }
 
 }
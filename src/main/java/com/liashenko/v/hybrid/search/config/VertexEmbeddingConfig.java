@@ -4,15 +4,23 @@ import co.elastic.clients.elasticsearch.ElasticsearchClient;
 import com.google.cloud.aiplatform.v1.PredictionServiceClient;
 import com.google.cloud.aiplatform.v1.PredictionServiceSettings;
 import com.liashenko.v.hybrid.search.config.property.DataLoadingProperties;
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
 import com.liashenko.v.hybrid.search.service.EmbeddingService;
 import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import com.liashenko.v.hybrid.search.service.indexing.IndexGeneration;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingScheduler;
+import com.liashenko.v.hybrid.search.service.embedding.EmbeddingBatchPartitioner;
+import com.liashenko.v.hybrid.search.service.embedding.EmbeddingStore;
 import com.liashenko.v.hybrid.search.service.embedding.VertexEmbeddingService;
 import com.liashenko.v.hybrid.search.service.search.DefaultSearchService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.core.io.ResourceLoader;
 
 import java.io.IOException;
 import java.util.concurrent.Executor;
@@ -24,7 +32,10 @@ public class VertexEmbeddingConfig {
     @Bean
     EmbeddingService embeddingService(@Value("${vertex.region}") String region,
                                       @Value("${vertex.model}") String modelName,
-                                      @Value("${vertex.project-id}") String projectId) throws IOException {
+                                      @Value("${vertex.project-id}") String projectId,
+                                      EmbeddingProperties embeddingProperties,
+                                      MeterRegistry meterRegistry,
+                                      ObjectProvider<EmbeddingStore> embeddingStore) throws IOException {
         String endpointPath = String.format(
                 "projects/%s/locations/%s/publishers/google/models/%s",
                 projectId, region, modelName
@@ -34,24 +45,35 @@ public class VertexEmbeddingConfig {
                 .setEndpoint(region + "-aiplatform.googleapis.com:443")
                 .build();
         PredictionServiceClient client = PredictionServiceClient.create(settings);
-        return new VertexEmbeddingService(client, endpointPath);
+        EmbeddingService vertexEmbeddingService = new VertexEmbeddingService(client, endpointPath,
+                new EmbeddingBatchPartitioner(embeddingProperties.getBatch()));
+        return AppConfig.decorateEmbeddingService(vertexEmbeddingService, embeddingProperties, embeddingStore.getIfAvailable(),
+                meterRegistry);
     }
 
     @Bean
     SearchService searchService(ElasticsearchClient elasticsearchClient,
                                 @Value("${elasticsearch.index}") String index,
                                 EmbeddingService embeddingService,
-                                ResourceLoader resourceLoader,
+                                IndexAdmin indexAdmin,
                                 DataLoadingProperties dataLoadingProperties,
-                                Executor indexingTaskExecutor) {
+                                SearchProperties searchProperties,
+                                IndexingScheduler indexingScheduler,
+                                Executor searchTaskExecutor,
+                                IndexGeneration indexGeneration,
+                                MeterRegistry meterRegistry) {
 
-        return new DefaultSearchService(
+        SearchService searchService = new DefaultSearchService(
                 elasticsearchClient,
                 index,
                 embeddingService,
-                resourceLoader,
-                dataLoadingProperties.getIndexConfigFilePath(),
+                indexAdmin,
                 dataLoadingProperties.getBatchSize(),
-                indexingTaskExecutor);
+                indexingScheduler,
+                searchProperties,
+                searchTaskExecutor,
+                meterRegistry);
+        return AppConfig.decorateSearchService(searchService, searchProperties, indexGeneration, embeddingService,
+                meterRegistry);
     }
 }
@@ -4,6 +4,9 @@ import lombok.Getter;
 import lombok.Setter;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
 
 @Component
 @ConfigurationProperties(prefix = "data-loading")
@@ -14,7 +17,16 @@ public class DataLoadingProperties {
     private int batchSize;
     private String datasetFilePath;
     private String indexConfigFilePath;
+    private String manifestFilePath = "index-manifest/conferences.tsv";
+    private boolean streaming;
+    private int chunkSize = 1000;
+    private int maxInFlightBatches = 16;
     private ThreadPoolProperties threadPool = new ThreadPoolProperties();
+    private ThreadPoolProperties bulkThreadPool = new ThreadPoolProperties();
+    private BulkProperties bulk = new BulkProperties();
+    private RetryProperties retry = new RetryProperties();
+    private ReindexProperties reindex = new ReindexProperties();
+    private VectorIndexProperties vectorIndex = new VectorIndexProperties();
 
     @Getter
     @Setter
@@ -24,4 +36,64 @@ public class DataLoadingProperties {
         private int queueCapacity = 100;
         private String threadNamePrefix = "index-";
     }
+
+    @Getter
+    @Setter
+    public static class BulkProperties {
+        private DataSize maxRequestSize = DataSize.ofMegabytes(10);
+        private int maxOperations = 5000;
+        private int maxInFlightRequests = 4;
+        /**
+         * Disables refresh and replicas for the duration of a full load into an empty index, restored and
+         * refreshed at its end. A reindex always bulk-loads its new version this way.
+         */
+        private boolean tuneIndexSettings = false;
+    }
+
+    @Getter
+    @Setter
+    public static class RetryProperties {
+        private int maxAttempts = 5;
+        private Duration initialBackoff = Duration.ofMillis(200);
+        private Duration maxBackoff = Duration.ofSeconds(10);
+    }
+
+    @Getter
+    @Setter
+    public static class ReindexProperties {
+        /**
+         * Previous index versions kept after an alias swap, for rollback.
+         */
+        private int retainedVersions = 1;
+        private int maxNumSegments = 1;
+        /**
+         * The new version is discarded instead of swapped in when more documents failed.
+         */
+        private long maxFailedDocuments = 0;
+    }
+
+    /**
+     * {@code index_options} of the embedding field, applied to newly created indices only.
+     */
+    @Getter
+    @Setter
+    public static class VectorIndexProperties {
+        /**
+         * {@code hnsw}, {@code int8_hnsw}, {@code int4_hnsw}, {@code bbq_hnsw} or one of the {@code *_flat} types,
+         * the mapping file is left as is when not set.
+         */
+        private String type;
+        /**
+         * HNSW graph degree, Elasticsearch default when not set.
+         */
+        private Integer m;
+        /**
+         * HNSW candidates considered while building the graph, Elasticsearch default when not set.
+         */
+        private Integer efConstruction;
+        /**
+         * Quantile used by {@code int8}/{@code int4} quantization, Elasticsearch default when not set.
+         */
+        private Float confidenceInterval;
+    }
 }
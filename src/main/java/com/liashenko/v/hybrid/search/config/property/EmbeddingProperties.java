@@ -0,0 +1,134 @@
+package com.liashenko.v.hybrid.search.config.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "embedding")
+@Getter
+@Setter
+public class EmbeddingProperties {
+
+    private BatchProperties batch = new BatchProperties();
+    private CacheProperties cache = new CacheProperties();
+    private StoreProperties store = new StoreProperties();
+    private HttpProperties http = new HttpProperties();
+    private CoalescingProperties coalescing = new CoalescingProperties();
+    private LimiterProperties limiter = new LimiterProperties();
+
+    @Getter
+    @Setter
+    public static class BatchProperties {
+        private int maxSize = 32;
+        private int maxTokens = 16384;
+    }
+
+    @Getter
+    @Setter
+    public static class CacheProperties {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        private Duration ttl = Duration.ofHours(1);
+        /**
+         * Snapshot of the cached query embeddings written on shutdown and loaded on startup, discarded when
+         * {@code store.model-id} changed or it is older than the TTL; null disables snapshots.
+         */
+        private Path snapshotFile = Path.of("snapshots", "query-embeddings.snap");
+    }
+
+    @Getter
+    @Setter
+    public static class StoreProperties {
+        private boolean enabled = true;
+        private Path directory = Path.of("embedding-store");
+        /**
+         * Part of every stored vector key, change it whenever the model or its parameters change.
+         */
+        private String modelId;
+    }
+
+    /**
+     * HTTP transport of the TEI embedding endpoint.
+     */
+    @Getter
+    @Setter
+    public static class HttpProperties {
+        /**
+         * Concurrent requests, and so pooled HTTP/1.1 connections, to the endpoint.
+         */
+        private int maxConnections = 32;
+        /**
+         * Wait for a free connection before a request fails.
+         */
+        private Duration connectionRequestTimeout = Duration.ofSeconds(1);
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        private Duration readTimeout = Duration.ofSeconds(10);
+        /**
+         * Multiplexes all requests over one HTTP/2 connection, cleartext endpoints must support h2c.
+         */
+        private boolean http2;
+    }
+
+    /**
+     * Single-flight and micro-batching of concurrent query embeddings.
+     */
+    @Getter
+    @Setter
+    public static class CoalescingProperties {
+        private boolean enabled = true;
+        /**
+         * How long the first query of a batch waits for others to join it.
+         */
+        private Duration window = Duration.ofMillis(2);
+        private int maxBatchSize = 32;
+    }
+
+    /**
+     * Adaptive concurrency limit and circuit breaker in front of the embedding backend.
+     */
+    @Getter
+    @Setter
+    public static class LimiterProperties {
+        private boolean enabled = true;
+        private int initialLimit = 8;
+        private int minLimit = 1;
+        private int maxLimit = 32;
+        /**
+         * Factor the limit is multiplied by after a failed or slow call.
+         */
+        private double backoffRatio = 0.9;
+        /**
+         * Part of the limit that bulk (indexing) embeddings may hold.
+         */
+        private double bulkShare = 0.5;
+        /**
+         * Query embeddings waiting longer for a permit fail, the search falls back to keyword search.
+         */
+        private Duration queueTimeout = Duration.ofMillis(200);
+        /**
+         * Query embeddings slower than this count as congestion and as circuit breaker failures.
+         */
+        private Duration slowCallThreshold = Duration.ofSeconds(1);
+        private CircuitBreakerProperties circuitBreaker = new CircuitBreakerProperties();
+    }
+
+    @Getter
+    @Setter
+    public static class CircuitBreakerProperties {
+        /**
+         * Outcomes of the last calls the failure rate is computed over.
+         */
+        private int windowSize = 20;
+        private int minimumCalls = 10;
+        private double failureRateThreshold = 0.5;
+        /**
+         * How long calls fail fast before a probe call is let through.
+         */
+        private Duration openDuration = Duration.ofSeconds(30);
+    }
+}
@@ -0,0 +1,155 @@
+package com.liashenko.v.hybrid.search.config.property;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+@Component
+@ConfigurationProperties(prefix = "search")
+@Getter
+@Setter
+public class SearchProperties {
+
+    private RrfProperties rrf = new RrfProperties();
+    private HybridProperties hybrid = new HybridProperties();
+    private CursorProperties cursor = new CursorProperties();
+    private KnnProperties knn = new KnnProperties();
+    private BatchProperties batch = new BatchProperties();
+    private SuggestProperties suggest = new SuggestProperties();
+    private ResultCacheProperties resultCache = new ResultCacheProperties();
+    private AsyncProperties async = new AsyncProperties();
+    private LocalVectorProperties localVector = new LocalVectorProperties();
+
+    @Getter
+    @Setter
+    public static class RrfProperties {
+        private int rankConstant = 60;
+        private double keywordWeight = 1.0;
+        private double vectorWeight = 1.0;
+        private int keywordWindowSize = 50;
+        private int vectorWindowSize = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class HybridProperties {
+        private boolean pipelined;
+        private int keywordWindowSize = 50;
+    }
+
+    @Getter
+    @Setter
+    public static class CursorProperties {
+        private String keepAlive = "1m";
+        private int knnWindowSize = 100;
+    }
+
+    /**
+     * Defaults for requests that do not set {@code k} / {@code num_candidates} themselves.
+     */
+    @Getter
+    @Setter
+    public static class KnnProperties {
+        /**
+         * {@code k} of VECTOR searches, raised to {@code offset + limit}; only {@code offset + limit} when set to null.
+         */
+        private Integer vectorK = 10;
+        /**
+         * {@code k} of the kNN leg of HYBRID searches, raised to {@code offset + limit}; only {@code offset + limit} when set to null.
+         */
+        private Integer hybridK = 5;
+        /**
+         * {@code num_candidates} is {@code k} times this factor, bounded by the min and max below.
+         */
+        private double numCandidatesFactor = 10;
+        private int minNumCandidates = 100;
+        private int maxNumCandidates = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class BatchProperties {
+        /**
+         * Queries accepted by one batch search request.
+         */
+        private int maxQueries = 20;
+    }
+
+    @Getter
+    @Setter
+    public static class SuggestProperties {
+        private int defaultLimit = 10;
+        private int maxLimit = 20;
+        /**
+         * Shorter input returns no suggestions.
+         */
+        private int minPrefixLength = 1;
+        /**
+         * Result cache TTL, zero disables the cache. Kept short so new and changed conferences show up quickly.
+         */
+        private Duration cacheTtl = Duration.ofSeconds(30);
+        private long cacheMaximumSize = 10_000;
+    }
+
+    @Getter
+    @Setter
+    public static class ResultCacheProperties {
+        private boolean enabled = true;
+        private long maximumSize = 10_000;
+        /**
+         * Upper bound on staleness for changes that do not advance the index generation.
+         */
+        private Duration ttl = Duration.ofMinutes(10);
+    }
+
+    @Getter
+    @Setter
+    public static class AsyncProperties {
+        /**
+         * Deadline of a whole asynchronous search, outstanding calls are cancelled when it passes.
+         */
+        private Duration deadline = Duration.ofSeconds(2);
+        /**
+         * Deadline of the query embedding, never longer than the search deadline.
+         */
+        private Duration embeddingDeadline = Duration.ofMillis(300);
+        /**
+         * VECTOR and HYBRID searches fall back to the keyword results when the embedding misses its deadline.
+         */
+        private boolean keywordFallback = true;
+    }
+
+    /**
+     * In-process vector index answering the kNN legs, Elasticsearch then only fetches the hits by id.
+     */
+    @Getter
+    @Setter
+    public static class LocalVectorProperties {
+        private boolean enabled;
+        /**
+         * {@code hnsw} for the approximate graph search, {@code exact} for a brute-force scan of all vectors.
+         */
+        private String algorithm = "hnsw";
+        private int m = 16;
+        private int efConstruction = 100;
+        /**
+         * Share of tombstoned vectors, left by deletes and re-indexed documents, above which the index is compacted.
+         */
+        private double maxTombstoneRatio = 0.2;
+        /**
+         * Loads the embeddings of the indexed documents from Elasticsearch at startup; until then kNN legs go to
+         * Elasticsearch. Without it the index only holds documents indexed since startup.
+         */
+        private boolean warmUp = true;
+        private int warmUpPageSize = 1000;
+        /**
+         * Snapshot of the index written after the warm-up and on shutdown and restored by the next warm-up if it
+         * still matches the Elasticsearch index; null disables snapshots.
+         */
+        private Path snapshotFile = Path.of("snapshots", "local-vectors.snap");
+    }
+}
@@ -0,0 +1,24 @@
+package com.liashenko.v.hybrid.search.controller;
+
+import com.liashenko.v.hybrid.search.model.InvalidSearchRequestException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/**
+ * Maps request errors detected past bean validation, e.g. a malformed or foreign search cursor, an unsupported
+ * paging mode or an oversized batch, to {@code 400 Bad Request} instead of a server error. Only
+ * {@link InvalidSearchRequestException} is mapped, any other illegal argument stays a server fault.
+ */
+@Slf4j
+@RestControllerAdvice
+public class ApiExceptionHandler {
+
+    @ExceptionHandler(InvalidSearchRequestException.class)
+    public ProblemDetail badRequest(InvalidSearchRequestException e) {
+        log.info("Rejected request: {}", e.getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+    }
+}
@@ -2,7 +2,13 @@ package com.liashenko.v.hybrid.search.controller;
 
 import com.google.common.base.Stopwatch;
 import com.liashenko.v.hybrid.search.service.CsvDataLoaderService;
+import com.liashenko.v.hybrid.search.service.ReindexService;
 import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.indexing.DeltaReport;
+import com.liashenko.v.hybrid.search.service.indexing.IndexGeneration;
+import com.liashenko.v.hybrid.search.service.indexing.IndexWriteLock;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingReport;
+import com.liashenko.v.hybrid.search.service.indexing.ReindexReport;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpStatus;
@@ -25,27 +31,78 @@ public class DataLoadController {
 
     private final SearchService searchService;
     private final CsvDataLoaderService csvDataLoaderService;
+    private final ReindexService reindexService;
+    private final IndexGeneration indexGeneration;
+    private final IndexWriteLock indexWriteLock;
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("/load/data")
-    public void loadData() {
+    public IndexingReport loadData() {
+        return indexWriteLock.runExclusively("data load", () -> {
+            try {
+                Stopwatch stopwatch = Stopwatch.createStarted();
+                searchService.createIndexIfNeeded();
+                IndexingReport report = csvDataLoaderService.loadToIndex();
+                log.info("Data loaded successfully. Took: {}", stopwatch);
+                return report;
+            } catch (Exception e) {
+                throw new RuntimeException("Unexpected error during loading data: " + e.getMessage(), e);
+            } finally {
+                // documents become searchable with the refresh at the end of the load, not with each bulk request
+                indexGeneration.advance();
+            }
+        });
+    }
+
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/load/delta")
+    public DeltaReport loadDelta() {
+        return indexWriteLock.runExclusively("delta load", () -> {
+            try {
+                Stopwatch stopwatch = Stopwatch.createStarted();
+                if (searchService.createIndexIfNeeded()) {
+                    // a fresh index holds none of the rows recorded by the last load
+                    csvDataLoaderService.resetManifest();
+                }
+                DeltaReport report = csvDataLoaderService.loadDelta();
+                log.info("Delta loaded successfully. Took: {}", stopwatch);
+                return report;
+            } catch (Exception e) {
+                throw new RuntimeException("Unexpected error during delta loading data: " + e.getMessage(), e);
+            } finally {
+                indexGeneration.advance();
+            }
+        });
+    }
+
+    /**
+     * Rebuilds the index into a new version and swaps the read alias once it is complete,
+     * searches keep being served from the current version meanwhile.
+     */
+    @ResponseStatus(HttpStatus.CREATED)
+    @PostMapping("/reindex")
+    public ReindexReport reindex() {
         try {
-            Stopwatch stopwatch = Stopwatch.createStarted();
-            searchService.createIndexIfNeeded();
-            csvDataLoaderService.loadToIndex();
-            log.info("Data loaded successfully. Took: {}", stopwatch);
+            return reindexService.reindex();
         } catch (Exception e) {
-            throw new RuntimeException("Unexpected error during loading data: " + e.getMessage(), e);
+            throw new RuntimeException("Unexpected error during reindex: " + e.getMessage(), e);
         }
     }
 
     @ResponseStatus(HttpStatus.CREATED)
     @PostMapping("/delete/data")
     public void deleteData() {
-        try {
-            searchService.deleteData();
-        } catch (Exception e) {
-            throw new RuntimeException("Unexpected error during loading data: " + e.getMessage(), e);
-        }
+        indexWriteLock.runExclusively("data delete", () -> {
+            try {
+                searchService.deleteData();
+                csvDataLoaderService.resetManifest();
+                return null;
+            } catch (Exception e) {
+                throw new RuntimeException("Unexpected error during loading data: " + e.getMessage(), e);
+            } finally {
+                // drops cached suggestions as well, also when the result cache is disabled
+                indexGeneration.advance();
+            }
+        });
     }
 }
@@ -1,21 +1,36 @@
 package com.liashenko.v.hybrid.search.controller;
 
+import com.liashenko.v.hybrid.search.controller.dto.BatchSearchRequest;
+import com.liashenko.v.hybrid.search.controller.dto.BatchSearchResponse;
+import com.liashenko.v.hybrid.search.controller.dto.CursorSearchRequest;
+import com.liashenko.v.hybrid.search.controller.dto.CursorSearchResponse;
 import com.liashenko.v.hybrid.search.controller.dto.SearchRequest;
 import com.liashenko.v.hybrid.search.controller.dto.SearchResponse;
+import com.liashenko.v.hybrid.search.controller.dto.SuggestResponse;
+import com.liashenko.v.hybrid.search.model.BatchSearchResult;
 import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.model.SearchCursor;
+import com.liashenko.v.hybrid.search.model.SearchFilters;
+import com.liashenko.v.hybrid.search.model.SearchPage;
+import com.liashenko.v.hybrid.search.model.SearchQuery;
 import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.search.SuggestService;
 import jakarta.validation.Valid;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.time.Duration;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import static org.springframework.http.HttpStatus.OK;
 
@@ -27,18 +42,88 @@ import static org.springframework.http.HttpStatus.OK;
 public class SearchController {
 
     private final SearchService searchService;
+    private final SuggestService suggestService;
     private final SearchMapper mapper;
 
     @ResponseStatus(OK)
     @PostMapping("/search")
     public SearchResponse match(@Valid @RequestBody SearchRequest searchRequest) throws IOException, InterruptedException {
-        List<Conference> documents = searchService.search(
-                searchRequest.getQueryText(),
-                searchRequest.searchType.name(),
-                searchRequest.getOffset(),
-                searchRequest.getLimit());
+        List<Conference> documents = searchService.search(toQuery(searchRequest));
         return new SearchResponse(mapper.map(documents));
     }
+
+    /**
+     * Same search without blocking a servlet thread. Bounded by {@code timeoutMillis}, a hybrid or vector search
+     * whose query embedding is late answers with keyword results instead.
+     */
+    @ResponseStatus(OK)
+    @PostMapping("/search/async")
+    public CompletableFuture<SearchResponse> matchAsync(@Valid @RequestBody SearchRequest searchRequest) {
+        return searchService.searchAsync(toQuery(searchRequest))
+                .thenApply(documents -> new SearchResponse(mapper.map(documents)));
+    }
+
+    @ResponseStatus(OK)
+    @PostMapping("/search/batch")
+    public BatchSearchResponse matchBatch(@Valid @RequestBody BatchSearchRequest batchRequest) throws IOException, InterruptedException {
+        BatchSearchResult result = searchService.searchBatch(batchRequest.getQueries().stream()
+                .map(SearchController::toQuery)
+                .toList());
+        List<BatchSearchResponse.Result> results = result.items().stream()
+                .map(item -> new BatchSearchResponse.Result(mapper.map(item.conferences()), item.tookMillis(), item.error()))
+                .toList();
+        return new BatchSearchResponse(results, result.embeddingMillis(), result.searchMillis());
+    }
+
+    @ResponseStatus(OK)
+    @PostMapping("/search/cursor")
+    public CursorSearchResponse matchPage(@Valid @RequestBody CursorSearchRequest searchRequest) throws IOException, InterruptedException {
+        SearchQuery query = SearchQuery.builder()
+                .queryText(searchRequest.getQueryText())
+                .type(searchRequest.searchType.name())
+                .limit(searchRequest.getLimit())
+                .filters(filtersOf(searchRequest.getFilters()))
+                .k(searchRequest.getK())
+                .numCandidates(searchRequest.getNumCandidates())
+                .fieldSet(searchRequest.getFieldSet())
+                .explain(searchRequest.isDebug())
+                .build();
+        String queryHash = SearchCursor.queryHash(query);
+        SearchPage page = searchService.searchPage(searchRequest.getCursor() == null
+                ? query
+                : query.withCursor(SearchCursor.decode(searchRequest.getCursor(), queryHash)));
+        String nextCursor = page.next() == null ? null : page.next().withQueryHash(queryHash).encode();
+        return new CursorSearchResponse(mapper.map(page.conferences()), nextCursor);
+    }
+
+    /**
+     * Autocomplete on the words typed so far, without embeddings and with a short-lived result cache.
+     */
+    @ResponseStatus(OK)
+    @GetMapping("/suggest")
+    public SuggestResponse suggest(@RequestParam String prefix,
+                                   @RequestParam(required = false) Integer limit) {
+        return new SuggestResponse(suggestService.suggest(prefix, limit));
+    }
+
+    private static SearchQuery toQuery(SearchRequest searchRequest) {
+        return SearchQuery.builder()
+                .queryText(searchRequest.getQueryText())
+                .type(searchRequest.searchType.name())
+                .offset(searchRequest.getOffset())
+                .limit(searchRequest.getLimit())
+                .filters(filtersOf(searchRequest.getFilters()))
+                .k(searchRequest.getK())
+                .numCandidates(searchRequest.getNumCandidates())
+                .fieldSet(searchRequest.getFieldSet())
+                .explain(searchRequest.isDebug())
+                .deadline(searchRequest.getTimeoutMillis() == null ? null : Duration.ofMillis(searchRequest.getTimeoutMillis()))
+                .build();
+    }
+
+    private static SearchFilters filtersOf(SearchFilters filters) {
+        return filters == null ? SearchFilters.NONE : filters;
+    }
 }
 
 
@@ -0,0 +1,19 @@
+package com.liashenko.v.hybrid.search.controller.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+public class BatchSearchRequest {
+
+    /**
+     * Searches to run together, each with its own type, paging, filters and field set.
+     */
+    @NotNull
+    private List<@Valid SearchRequest> queries = List.of();
+}
@@ -0,0 +1,36 @@
+package com.liashenko.v.hybrid.search.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchSearchResponse {
+
+    /**
+     * One result per query, in request order.
+     */
+    List<Result> results;
+    long embeddingMillis;
+    long searchMillis;
+
+    @Getter
+    @Setter
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class Result {
+
+        List<ConferenceDto> conferences;
+        long tookMillis;
+        /**
+         * Failure reason of this query, {@code null} on success.
+         */
+        String error;
+    }
+}
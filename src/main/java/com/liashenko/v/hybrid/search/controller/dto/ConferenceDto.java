@@ -1,5 +1,7 @@
 package com.liashenko.v.hybrid.search.controller.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonRawValue;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -27,4 +29,7 @@ public class ConferenceDto {
     private String industryGroupsConcatString;
     private String industryCodesConcatString;
     private Double score;
+    @JsonRawValue
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String explanation;
 }
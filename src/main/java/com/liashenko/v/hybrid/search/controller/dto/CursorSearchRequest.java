@@ -0,0 +1,46 @@
+package com.liashenko.v.hybrid.search.controller.dto;
+
+import com.liashenko.v.hybrid.search.model.FieldSet;
+import com.liashenko.v.hybrid.search.model.SearchFilters;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+import lombok.Getter;
+import lombok.Setter;
+
+@Getter
+@Setter
+public class CursorSearchRequest {
+
+    public String queryText;
+    public SearchRequest.SearchType searchType = SearchRequest.SearchType.HYBRID;
+    @NotNull
+    @Min(1)
+    @Max(SearchRequest.MAX_LIMIT)
+    private Integer limit = 20;
+    /**
+     * Opaque token from the previous page, absent for the first page.
+     */
+    private String cursor;
+    /**
+     * Optional structured filters, applied inside Elasticsearch before ranking.
+     */
+    private SearchFilters filters;
+    /**
+     * Optional kNN tuning, derived from the page and the profile defaults when absent.
+     */
+    @Min(1)
+    @Max(SearchRequest.MAX_KNN_CANDIDATES)
+    private Integer k;
+    @Min(1)
+    @Max(SearchRequest.MAX_KNN_CANDIDATES)
+    private Integer numCandidates;
+    /**
+     * Fields returned per hit.
+     */
+    private FieldSet fieldSet = FieldSet.FULL;
+    /**
+     * Adds the score explanation to every hit, expensive and meant for debugging only.
+     */
+    private boolean debug;
+}
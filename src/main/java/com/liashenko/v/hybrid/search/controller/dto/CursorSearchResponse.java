@@ -0,0 +1,21 @@
+package com.liashenko.v.hybrid.search.controller.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class CursorSearchResponse {
+
+    List<ConferenceDto> conferences;
+    /**
+     * Token of the next page, {@code null} when there are no more results.
+     */
+    String cursor;
+}
@@ -1,19 +1,65 @@
 package com.liashenko.v.hybrid.search.controller.dto;
 
+import com.liashenko.v.hybrid.search.model.FieldSet;
+import com.liashenko.v.hybrid.search.model.SearchFilters;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
 import lombok.Getter;
 import lombok.Setter;
 
 @Getter
 @Setter
 public class SearchRequest {
+    public static final int MAX_LIMIT = 100;
+    /**
+     * {@code offset + limit} stays within the default {@code index.max_result_window} of Elasticsearch.
+     */
+    public static final int MAX_OFFSET = 10_000 - MAX_LIMIT;
+    /**
+     * Upper bound of {@code k} and {@code num_candidates} accepted by Elasticsearch.
+     */
+    public static final int MAX_KNN_CANDIDATES = 10_000;
 
     public String queryText;
     public SearchType searchType = SearchType.HYBRID;
+    @NotNull
+    @Min(1)
+    @Max(MAX_LIMIT)
     private Integer limit = 20;
+    @NotNull
+    @Min(0)
+    @Max(MAX_OFFSET)
     private Integer offset = 0;
+    /**
+     * Optional structured filters, applied inside Elasticsearch before ranking.
+     */
+    private SearchFilters filters;
+    /**
+     * Optional kNN tuning, derived from the page and the profile defaults when absent.
+     */
+    @Min(1)
+    @Max(MAX_KNN_CANDIDATES)
+    private Integer k;
+    @Min(1)
+    @Max(MAX_KNN_CANDIDATES)
+    private Integer numCandidates;
+    /**
+     * Fields returned per hit.
+     */
+    private FieldSet fieldSet = FieldSet.FULL;
+    /**
+     * Adds the score explanation to every hit, expensive and meant for debugging only.
+     */
+    private boolean debug;
+    /**
+     * Deadline of an asynchronous search in milliseconds, the configured default when absent.
+     */
+    private Long timeoutMillis;
 
     public enum SearchType {
         HYBRID,
+        HYBRID_RRF,
         VECTOR,
         KEYWORD
     }
@@ -0,0 +1,18 @@
+package com.liashenko.v.hybrid.search.controller.dto;
+
+import com.liashenko.v.hybrid.search.model.Suggestion;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class SuggestResponse {
+
+    List<Suggestion> suggestions;
+}
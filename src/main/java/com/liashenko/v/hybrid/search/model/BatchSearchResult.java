@@ -0,0 +1,21 @@
+package com.liashenko.v.hybrid.search.model;
+
+import java.util.List;
+
+/**
+ * Outcome of a batch of searches sent as one embedding call and one {@code _msearch}.
+ *
+ * @param items           results in the order of the queries
+ * @param embeddingMillis time spent embedding all query texts
+ * @param searchMillis    round trip of the {@code _msearch} request
+ */
+public record BatchSearchResult(List<Item> items, long embeddingMillis, long searchMillis) {
+
+    /**
+     * @param conferences hits of the query, empty when it failed
+     * @param tookMillis  Elasticsearch time of the slowest request the query was sent as
+     * @param error       failure reason, {@code null} on success
+     */
+    public record Item(List<Conference> conferences, long tookMillis, String error) {
+    }
+}
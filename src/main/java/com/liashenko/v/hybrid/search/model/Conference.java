@@ -1,5 +1,6 @@
 package com.liashenko.v.hybrid.search.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -34,6 +35,7 @@ public class Conference {
     public static final String INVESTOR_ATTENDEES_COUNT_FIELD = "investorAttendeesCount";
     public static final String ATTENDEES_CONCAT_STRING_FIELD = "attendeeNamesConcatString";
     public static final String INDUSTRY_SECTORS_CONCAT_STRING_FIELD = "industrySectorsConcatString";
+    public static final String INDUSTRY_SECTORS_FIELD = "industrySectors";
     public static final String INDUSTRY_GROUPS_CONCAT_STRING_FIELD = "industryGroupsConcatString";
     public static final String INDUSTRY_CODES_CONCAT_STRING_FIELD = "industryCodesConcatString";
 
@@ -41,8 +43,12 @@ public class Conference {
     private String id;
     @JsonProperty(NAME_FIELD)
     private String name;
+    /**
+     * Kept as a primitive array: no boxed Float per dimension, and Jackson writes it element by element
+     * with its primitive array serializer.
+     */
     @JsonProperty(EMBEDDING_FIELD)
-    private List<Float> embedding;
+    private float[] embedding;
     @JsonProperty(GROUP_ID_FIELD)
     private Integer groupId;
     @JsonProperty(DESCRIPTION_FIELD)
@@ -65,9 +71,20 @@ public class Conference {
     private String attendeeNamesConcatString;
     @JsonProperty(INDUSTRY_SECTORS_CONCAT_STRING_FIELD)
     private String industrySectorsConcatString;
+    /**
+     * {@code industrySectorsConcatString} split into single sectors at ingest, indexed as a multi-valued keyword
+     * for exact filtering. Not fetched with search results.
+     */
+    @JsonProperty(INDUSTRY_SECTORS_FIELD)
+    private List<String> industrySectors;
     @JsonProperty(INDUSTRY_GROUPS_CONCAT_STRING_FIELD)
     private String industryGroupsConcatString;
     @JsonProperty(INDUSTRY_CODES_CONCAT_STRING_FIELD)
     private String industryCodesConcatString;
     private Double score;
+    /**
+     * Score explanation as JSON, only present for searches with explain on. Never indexed.
+     */
+    @JsonIgnore
+    private String explanation;
 }
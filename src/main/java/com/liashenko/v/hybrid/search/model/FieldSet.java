@@ -0,0 +1,15 @@
+package com.liashenko.v.hybrid.search.model;
+
+/**
+ * Fields a search returns per hit.
+ * <ul>
+ *     <li>{@code IDS} - id and score only, nothing is fetched per hit</li>
+ *     <li>{@code SUMMARY} - keyword, number and date fields, read from doc values without loading {@code _source}</li>
+ *     <li>{@code FULL} - every field except the embedding, read from {@code _source}</li>
+ * </ul>
+ */
+public enum FieldSet {
+    IDS,
+    SUMMARY,
+    FULL
+}
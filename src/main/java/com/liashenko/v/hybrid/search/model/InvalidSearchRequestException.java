@@ -0,0 +1,17 @@
+package com.liashenko.v.hybrid.search.model;
+
+/**
+ * The search request cannot be served as sent, e.g. a malformed or foreign cursor, an unsupported paging mode or
+ * an oversized batch. Answered with {@code 400 Bad Request}, unlike other illegal arguments, which are server
+ * faults.
+ */
+public class InvalidSearchRequestException extends IllegalArgumentException {
+
+    public InvalidSearchRequestException(String message) {
+        super(message);
+    }
+
+    public InvalidSearchRequestException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
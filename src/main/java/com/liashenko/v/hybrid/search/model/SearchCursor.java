@@ -0,0 +1,86 @@
+package com.liashenko.v.hybrid.search.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.hash.Hashing;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * Position in a point-in-time search. The sort is {@code _score desc, id asc}, so the position
+ * is the score and id of the last returned hit; both are {@code null} before the first page.
+ * A cursor handed out to clients carries the hash of the query it pages, so it cannot resume another query.
+ *
+ * @param pitId     point-in-time id returned by Elasticsearch
+ * @param score     score of the last returned hit
+ * @param id        id of the last returned hit, the tiebreaker for equal scores
+ * @param queryHash {@link #queryHash(SearchQuery)} of the paged query, {@code null} inside the service
+ */
+public record SearchCursor(String pitId, Double score, String id, String queryHash) {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public SearchCursor(String pitId, Double score, String id) {
+        this(pitId, score, id, null);
+    }
+
+    public static SearchCursor start(String pitId) {
+        return new SearchCursor(pitId, null, null);
+    }
+
+    public SearchCursor withQueryHash(String queryHash) {
+        return new SearchCursor(pitId, score, id, queryHash);
+    }
+
+    /**
+     * @return hash of everything that decides the order of the paged hits: text, type, filters and kNN settings
+     */
+    public static String queryHash(SearchQuery query) {
+        String key = String.join("\u0000",
+                Objects.toString(query.getQueryText()),
+                Objects.toString(query.getType()),
+                Objects.toString(query.getFilters()),
+                Objects.toString(query.getK()),
+                Objects.toString(query.getNumCandidates()));
+        return Hashing.murmur3_128().hashString(key, StandardCharsets.UTF_8).toString();
+    }
+
+    public boolean hasPosition() {
+        return score != null && id != null;
+    }
+
+    /**
+     * @return opaque URL-safe token handed to API clients
+     */
+    public String encode() {
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(MAPPER.writeValueAsBytes(this));
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode search cursor", e);
+        }
+    }
+
+    /**
+     * @param token     token previously produced by {@link #encode()}
+     * @param queryHash {@link #queryHash(SearchQuery)} of the query the cursor is sent with
+     * @return decoded cursor
+     * @throws InvalidSearchRequestException if the token is malformed or belongs to another query
+     */
+    public static SearchCursor decode(String token, String queryHash) {
+        SearchCursor cursor;
+        try {
+            byte[] json = Base64.getUrlDecoder().decode(token.getBytes(StandardCharsets.US_ASCII));
+            cursor = MAPPER.readValue(json, SearchCursor.class);
+        } catch (IOException | IllegalArgumentException e) {
+            throw new InvalidSearchRequestException("Invalid search cursor", e);
+        }
+        if (cursor.pitId() == null) {
+            throw new InvalidSearchRequestException("Invalid search cursor: no point-in-time id");
+        }
+        if (!Objects.equals(cursor.queryHash(), queryHash)) {
+            throw new InvalidSearchRequestException("Search cursor belongs to another query, send the same query text, type and filters as for the first page");
+        }
+        return cursor;
+    }
+}
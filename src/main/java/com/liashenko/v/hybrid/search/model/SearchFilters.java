@@ -0,0 +1,34 @@
+package com.liashenko.v.hybrid.search.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Structured filters applied inside Elasticsearch to every leg of a search, for kNN as a pre-filter of the
+ * HNSW candidates. All criteria are optional and combined with AND; list criteria match any of their values.
+ *
+ * @param dateFrom        conferences still running on or after this day
+ * @param dateTo          conferences starting on or before this day
+ * @param countries       exact {@code countryDescription} values
+ * @param minAttendees    inclusive lower bound of {@code attendeesCount}
+ * @param maxAttendees    inclusive upper bound of {@code attendeesCount}
+ * @param industrySectors exact {@code industrySectors} values, i.e. whole sectors of {@code industrySectorsConcatString}
+ */
+public record SearchFilters(LocalDate dateFrom,
+                            LocalDate dateTo,
+                            List<String> countries,
+                            Integer minAttendees,
+                            Integer maxAttendees,
+                            List<String> industrySectors) {
+
+    public static final SearchFilters NONE = new SearchFilters(null, null, null, null, null, null);
+
+    public boolean isEmpty() {
+        return dateFrom == null
+                && dateTo == null
+                && (countries == null || countries.isEmpty())
+                && minAttendees == null
+                && maxAttendees == null
+                && (industrySectors == null || industrySectors.isEmpty());
+    }
+}
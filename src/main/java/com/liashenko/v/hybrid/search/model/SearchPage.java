@@ -0,0 +1,12 @@
+package com.liashenko.v.hybrid.search.model;
+
+import java.util.List;
+
+/**
+ * One page of a cursor-paged search.
+ *
+ * @param conferences hits of the page
+ * @param next        cursor of the following page, {@code null} when the result set is exhausted
+ */
+public record SearchPage(List<Conference> conferences, SearchCursor next) {
+}
@@ -0,0 +1,44 @@
+package com.liashenko.v.hybrid.search.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.With;
+
+import java.time.Duration;
+
+/**
+ * Search parameters shared by every search type and paging mode.
+ * When {@code cursor} is set, the query is paged with point-in-time + search_after and {@code offset} is ignored.
+ * {@code filters} restrict every leg of the search, they never contribute to the score.
+ * {@code fieldSet} controls what is fetched per hit, {@code explain} adds the Elasticsearch score explanation.
+ * {@code queryVector} carries an embedding computed ahead of time, e.g. for a whole batch, and is computed on
+ * demand when absent. {@code deadline} bounds asynchronous searches, {@code null} for the configured default.
+ */
+@With
+@Getter
+@Builder(toBuilder = true)
+@AllArgsConstructor
+public class SearchQuery {
+
+    private final String queryText;
+    private final String type;
+    private final int offset;
+    private final int limit;
+    private final SearchCursor cursor;
+    @Builder.Default
+    private final SearchFilters filters = SearchFilters.NONE;
+    /**
+     * kNN neighbours to return, {@code null} for the profile default or {@code offset + limit}.
+     */
+    private final Integer k;
+    /**
+     * HNSW candidates per shard, {@code null} to derive it from {@code k}.
+     */
+    private final Integer numCandidates;
+    @Builder.Default
+    private final FieldSet fieldSet = FieldSet.FULL;
+    private final boolean explain;
+    private final float[] queryVector;
+    private final Duration deadline;
+}
@@ -0,0 +1,10 @@
+package com.liashenko.v.hybrid.search.model;
+
+/**
+ * Autocomplete entry.
+ *
+ * @param id   conference id
+ * @param name conference name
+ */
+public record Suggestion(String id, String name) {
+}
@@ -1,8 +1,10 @@
 package com.liashenko.v.hybrid.search.service;
 
+import com.google.common.base.Splitter;
 import com.liashenko.v.hybrid.search.model.Conference;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
+import org.mapstruct.Named;
 
 import java.time.LocalDate;
 import java.util.List;
@@ -12,6 +14,8 @@ public interface ConferenceConverter {
 
     @Mapping(target = "score", ignore = true)
     @Mapping(target = "embedding", ignore = true)
+    @Mapping(target = "explanation", ignore = true)
+    @Mapping(target = "industrySectors", source = "industrySectorsConcatString", qualifiedByName = "splitConcatString")
     Conference convertToConference(ConferenceCsvParser.ConferenceCsvBean csvBean);
 
     List<Conference> convertToConferences(List<ConferenceCsvParser.ConferenceCsvBean> csvBeans);
@@ -19,4 +23,16 @@ public interface ConferenceConverter {
     default LocalDate toLocalDate(String dateString) {
         return LocalDate.parse(dateString);
     }
+
+    /**
+     * @param concatString comma separated values, e.g. {@code "Energy, Healthcare"}
+     * @return the single values, {@code null} for a missing column
+     */
+    @Named("splitConcatString")
+    default List<String> splitConcatString(String concatString) {
+        if (concatString == null) {
+            return null;
+        }
+        return Splitter.on(',').trimResults().omitEmptyStrings().splitToList(concatString);
+    }
 }
@@ -1,13 +1,16 @@
 package com.liashenko.v.hybrid.search.service;
 
+import com.google.common.collect.Iterators;
 import com.liashenko.v.hybrid.search.model.Conference;
 import com.opencsv.bean.CsvBindByPosition;
+import com.opencsv.bean.CsvToBean;
 import com.opencsv.bean.CsvToBeanBuilder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.Reader;
+import java.util.Iterator;
 import java.util.List;
 
 @Slf4j
@@ -16,15 +19,29 @@ public class ConferenceCsvParser {
     private final ConferenceConverter conferenceConverter = new DefaultConferenceConverter();
 
     public List<Conference> parseConferences(Reader reader) {
-        List<ConferenceCsvBean> csvBeans = new CsvToBeanBuilder<ConferenceCsvBean>(reader)
+        List<ConferenceCsvBean> csvBeans = csvToBean(reader).parse();
+
+        return conferenceConverter.convertToConferences(csvBeans);
+    }
+
+    /**
+     * Lazily reads conferences row by row, so only the rows being consumed are held in memory.
+     *
+     * @param reader CSV source, must stay open while the iterator is consumed
+     * @return iterator converting each CSV row on demand
+     */
+    public Iterator<Conference> iterateConferences(Reader reader) {
+        Iterator<ConferenceCsvBean> csvBeans = csvToBean(reader).iterator();
+        return Iterators.transform(csvBeans, conferenceConverter::convertToConference);
+    }
+
+    private CsvToBean<ConferenceCsvBean> csvToBean(Reader reader) {
+        return new CsvToBeanBuilder<ConferenceCsvBean>(reader)
                 .withType(ConferenceCsvBean.class)
                 .withIgnoreLeadingWhiteSpace(true)
                 .withIgnoreEmptyLine(true)
                 .withSkipLines(1) // Skip header line
-                .build()
-                .parse();
-
-        return conferenceConverter.convertToConferences(csvBeans);
+                .build();
     }
 
     @Data
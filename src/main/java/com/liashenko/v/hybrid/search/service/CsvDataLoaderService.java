@@ -1,8 +1,16 @@
 package com.liashenko.v.hybrid.search.service;
 
 import com.google.common.base.Stopwatch;
+import com.google.common.collect.Iterators;
+import com.google.common.collect.UnmodifiableIterator;
+import com.google.common.hash.HashCode;
 import com.liashenko.v.hybrid.search.config.property.DataLoadingProperties;
 import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.service.indexing.DatasetLoad;
+import com.liashenko.v.hybrid.search.service.indexing.DeltaReport;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import com.liashenko.v.hybrid.search.service.indexing.IndexManifest;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingReport;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.io.Resource;
@@ -10,7 +18,13 @@ import org.springframework.core.io.ResourceLoader;
 
 import java.io.BufferedReader;
 import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 
 @Slf4j
@@ -21,12 +35,54 @@ public class CsvDataLoaderService {
     private final ResourceLoader resourceLoader;
     private final ConferenceCsvParser conferenceCsvParser;
     private final SearchService searchService;
+    private final IndexManifest indexManifest;
+    private final IndexAdmin indexAdmin;
 
-    public void loadToIndex() {
+    /**
+     * Loads the full dataset through the alias. With {@code data-loading.bulk.tune-index-settings} refresh and
+     * replicas are off during the load, then restored and refreshed once at the end, but only while the alias is
+     * still empty: an index that serves searches keeps its settings, rebuild it with {@link ReindexService} to
+     * bulk-load it with the tuning. The manifest is saved once the load is complete.
+     */
+    public IndexingReport loadToIndex() {
+        DatasetLoad load;
+        if (!properties.getBulk().isTuneIndexSettings()) {
+            load = load(searchService::index);
+        } else if (!indexAdmin.isEmpty()) {
+            log.info("Index '{}' already serves searches, loading without tuning its settings", indexAdmin.alias());
+            load = load(searchService::index);
+        } else {
+            indexAdmin.applyBulkLoadSettings(indexAdmin.alias());
+            try {
+                load = load(searchService::index);
+            } finally {
+                indexAdmin.finishBulkLoad(indexAdmin.alias(), 0);
+            }
+        }
+        indexManifest.save(load.fingerprints());
+        return load.report();
+    }
+
+    /**
+     * Loads the full dataset into a concrete index rather than the read alias. The manifest is left alone, the
+     * caller saves the returned fingerprints with {@link #saveManifest(Map)} once the index serves searches.
+     *
+     * @param targetIndex index to write to
+     * @return indexing outcome and fingerprints of the written conferences
+     */
+    public DatasetLoad loadToIndex(String targetIndex) {
+        return load(docs -> searchService.index(targetIndex, docs));
+    }
+
+    private DatasetLoad load(Function<List<Conference>, IndexingReport> writer) {
         log.info("Starting data loading from: {}", properties.getDatasetFilePath());
 
         Resource resource = resourceLoader.getResource(properties.getDatasetFilePath());
         try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream()))) {
+            if (properties.isStreaming()) {
+                return streamToIndex(reader, writer);
+            }
+
             Stopwatch stopwatch = Stopwatch.createStarted();
             List<Conference> conferences = conferenceCsvParser.parseConferences(reader);
             log.info("Parsed {} conferences from CSV in {}", conferences.size(), stopwatch.stop());
@@ -35,9 +91,125 @@ public class CsvDataLoaderService {
                 throw new IllegalArgumentException("Conferences CSV file is empty or contains no valid data");
             }
 
-            searchService.index(conferences);
+            IndexingReport report = writer.apply(conferences);
+            Map<String, HashCode> fingerprints = new HashMap<>();
+            record(fingerprints, Map.of(), conferences, report);
+            return new DatasetLoad(report, fingerprints);
         } catch (Exception e) {
             throw new RuntimeException("Error loading Conferences from CSV", e);
         }
     }
+
+    /**
+     * Indexes only the rows that are new or changed since the last load and deletes the rows that disappeared
+     * from the dataset. Rows are compared by the fingerprints recorded in the {@link IndexManifest}.
+     */
+    public DeltaReport loadDelta() {
+        log.info("Starting delta loading from: {}", properties.getDatasetFilePath());
+
+        Resource resource = resourceLoader.getResource(properties.getDatasetFilePath());
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream()))) {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            Map<String, HashCode> previous = indexManifest.load();
+            Map<String, HashCode> current = new HashMap<>(previous.size());
+            Set<String> seen = new HashSet<>(previous.size());
+            UnmodifiableIterator<List<Conference>> chunks = Iterators.partition(
+                    conferenceCsvParser.iterateConferences(reader), properties.getChunkSize());
+
+            IndexingReport indexed = IndexingReport.empty();
+            long unchanged = 0;
+            while (chunks.hasNext()) {
+                List<Conference> changed = new ArrayList<>();
+                for (Conference conference : chunks.next()) {
+                    seen.add(conference.getId());
+                    HashCode fingerprint = IndexManifest.fingerprint(conference);
+                    if (fingerprint.equals(previous.get(conference.getId()))) {
+                        current.put(conference.getId(), fingerprint);
+                        unchanged++;
+                    } else {
+                        changed.add(conference);
+                    }
+                }
+                if (!changed.isEmpty()) {
+                    IndexingReport report = searchService.index(changed);
+                    record(current, previous, changed, report);
+                    indexed = indexed.merge(report);
+                }
+            }
+
+            List<String> removed = previous.keySet().stream()
+                    .filter(id -> !seen.contains(id))
+                    .toList();
+            IndexingReport deleted = searchService.delete(removed);
+            // failed deletes stay in the manifest and are retried by the next delta load
+            deleted.failures().keySet().forEach(id -> current.put(id, previous.get(id)));
+            indexManifest.save(current);
+
+            log.info("Delta loaded {} conferences in {}: {} unchanged, {} indexed, {} deleted",
+                    seen.size(), stopwatch.stop(), unchanged, indexed.succeeded(), deleted.succeeded());
+            return new DeltaReport(seen.size(), unchanged, indexed, deleted);
+        } catch (Exception e) {
+            throw new RuntimeException("Error delta loading Conferences from CSV", e);
+        }
+    }
+
+    /**
+     * Records a full load, e.g. once a reindexed version is behind the alias.
+     *
+     * @param fingerprints fingerprints returned by {@link #loadToIndex(String)}
+     */
+    public void saveManifest(Map<String, HashCode> fingerprints) {
+        indexManifest.save(fingerprints);
+    }
+
+    /**
+     * Forgets the last load, e.g. after the index has been dropped.
+     */
+    public void resetManifest() {
+        indexManifest.clear();
+    }
+
+    /**
+     * Reads, embeds and indexes the dataset chunk by chunk. The next chunk is read only after the
+     * previous one is indexed, so peak heap is bounded by the chunk size rather than the file size.
+     */
+    private DatasetLoad streamToIndex(BufferedReader reader, Function<List<Conference>, IndexingReport> writer) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        UnmodifiableIterator<List<Conference>> chunks = Iterators.partition(
+                conferenceCsvParser.iterateConferences(reader), properties.getChunkSize());
+
+        IndexingReport report = IndexingReport.empty();
+        Map<String, HashCode> fingerprints = new HashMap<>();
+        while (chunks.hasNext()) {
+            List<Conference> chunk = chunks.next();
+            IndexingReport chunkReport = writer.apply(chunk);
+            record(fingerprints, Map.of(), chunk, chunkReport);
+            report = report.merge(chunkReport);
+            log.info("Streamed {} conferences so far in {}", report.documents(), stopwatch);
+        }
+
+        if (report.documents() == 0) {
+            throw new IllegalArgumentException("Conferences CSV file is empty or contains no valid data");
+        }
+        log.info("Streamed {} conferences from CSV in {}, {} failed", report.documents(), stopwatch.stop(), report.failures().size());
+        return new DatasetLoad(report, fingerprints);
+    }
+
+    /**
+     * Records fingerprints of the written conferences. A failed conference keeps its previous fingerprint,
+     * if any, so the next delta load sees it as changed and retries it.
+     */
+    private static void record(Map<String, HashCode> fingerprints,
+                               Map<String, HashCode> previous,
+                               List<Conference> conferences,
+                               IndexingReport report) {
+        for (Conference conference : conferences) {
+            String id = conference.getId();
+            if (!report.failures().containsKey(id)) {
+                fingerprints.put(id, IndexManifest.fingerprint(conference));
+            } else if (previous.containsKey(id)) {
+                fingerprints.put(id, previous.get(id));
+            }
+        }
+    }
 }
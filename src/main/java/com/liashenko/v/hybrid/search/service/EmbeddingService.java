@@ -2,11 +2,94 @@ package com.liashenko.v.hybrid.search.service;
 
 import com.liashenko.v.hybrid.search.model.Conference;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface EmbeddingService {
 
-    List<Conference> embed(List<Conference> conferences);
+    /**
+     * Embeds conferences using as few backend round trips as the batch limits allow.
+     *
+     * @param conferences list of conferences to embed
+     * @return list of conferences with embeddings populated, in the same order
+     */
+    default List<Conference> embed(List<Conference> conferences) {
+        List<String> inputs = conferences.stream()
+                .map(this::toInput)
+                .toList();
+        List<float[]> embeddings = embedBatch(inputs);
 
-    List<Float> embed(String text);
+        List<Conference> conferencesWithEmbeddings = new ArrayList<>(conferences.size());
+        for (int i = 0; i < conferences.size(); i++) {
+            conferencesWithEmbeddings.add(conferences.get(i).withEmbedding(embeddings.get(i)));
+        }
+        return conferencesWithEmbeddings;
+    }
+
+    float[] embed(String text);
+
+    /**
+     * Embeds a query text without holding the calling thread. Completing the returned future before the embedding
+     * is done, by {@link CompletableFuture#cancel(boolean)} or {@link CompletableFuture#orTimeout}, cancels the call.
+     * <p>
+     * The default runs {@link #embed(String)} on a virtual thread and interrupts it on cancellation, which aborts
+     * a blocked socket read; backends with an asynchronous client override it.
+     *
+     * @param text query text to embed
+     * @return future embedding
+     */
+    default CompletableFuture<float[]> embedAsync(String text) {
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        Thread thread = Thread.ofVirtual().name("embed-async").start(() -> {
+            try {
+                future.complete(embed(text));
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        future.whenComplete((vector, error) -> {
+            if (error != null) {
+                thread.interrupt();
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Embeds texts in batched requests, splitting oversized batches according to the backend limits.
+     *
+     * @param texts texts to embed
+     * @return embeddings in the same order as {@code texts}
+     */
+    List<float[]> embedBatch(List<String> texts);
+
+    /**
+     * Embeds search query texts in as few backend calls as possible. Unlike {@link #embedBatch(List)} the texts
+     * are queries, not documents, so decorators treat them like {@link #embed(String)}.
+     *
+     * @param texts query texts to embed
+     * @return embeddings in the same order as {@code texts}
+     */
+    default List<float[]> embedQueries(List<String> texts) {
+        return embedBatch(texts);
+    }
+
+    /**
+     * @return {@code false} while the backend is known to be unhealthy and calls fail fast, searches then fall back
+     * to keyword search instead of waiting for an embedding
+     */
+    default boolean isAvailable() {
+        return true;
+    }
+
+    /**
+     * Builds the text that represents a conference for the embedding model.
+     *
+     * @param conference conference to stringify
+     * @return embedding model input
+     */
+    default String toInput(Conference conference) {
+        return ConferenceStringifier.getInput(conference);
+    }
 }
@@ -0,0 +1,61 @@
+package com.liashenko.v.hybrid.search.service;
+
+import com.google.common.base.Stopwatch;
+import com.liashenko.v.hybrid.search.config.property.DataLoadingProperties;
+import com.liashenko.v.hybrid.search.service.indexing.DatasetLoad;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import com.liashenko.v.hybrid.search.service.indexing.IndexGeneration;
+import com.liashenko.v.hybrid.search.service.indexing.IndexWriteLock;
+import com.liashenko.v.hybrid.search.service.indexing.ReindexReport;
+import lombok.AllArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Rebuilds the index without downtime: the dataset is loaded into a new index version while searches keep
+ * hitting the current one through the alias, which is switched only once the new version is complete. The index
+ * manifest is replaced only after the swap, so a failed reindex leaves delta loads working against the current
+ * version.
+ */
+@Slf4j
+@AllArgsConstructor
+public class ReindexService {
+
+    private final IndexAdmin indexAdmin;
+    private final CsvDataLoaderService csvDataLoaderService;
+    private final DataLoadingProperties.ReindexProperties properties;
+    private final IndexGeneration indexGeneration;
+    private final IndexWriteLock indexWriteLock;
+
+    public ReindexReport reindex() {
+        return indexWriteLock.runExclusively("reindex of '%s'".formatted(indexAdmin.alias()), this::rebuild);
+    }
+
+    private ReindexReport rebuild() {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        String index = indexAdmin.createNextVersion(true);
+        DatasetLoad load;
+        try {
+            load = csvDataLoaderService.loadToIndex(index);
+            if (load.report().failures().size() > properties.getMaxFailedDocuments()) {
+                throw new IllegalStateException("%d of %d documents failed to index into '%s'"
+                        .formatted(load.report().failures().size(), load.report().documents(), index));
+            }
+            indexAdmin.finishBulkLoad(index, properties.getMaxNumSegments());
+        } catch (RuntimeException e) {
+            log.warn("Discarding index '{}', the alias keeps pointing to the current version", index);
+            indexAdmin.delete(index);
+            throw e;
+        }
+
+        Set<String> previous = indexAdmin.swapAlias(index);
+        csvDataLoaderService.saveManifest(load.fingerprints());
+        indexGeneration.advance();
+        List<String> deleted = indexAdmin.deleteOldVersions(properties.getRetainedVersions());
+        log.info("Reindexed '{}' into '{}' in {}, deleted old versions {}", indexAdmin.alias(), index, stopwatch, deleted);
+        return new ReindexReport(index, previous, deleted, load.report(), stopwatch.elapsed(TimeUnit.MILLISECONDS));
+    }
+}
@@ -1,16 +1,88 @@
 package com.liashenko.v.hybrid.search.service;
 
+import com.liashenko.v.hybrid.search.model.BatchSearchResult;
 import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.model.SearchPage;
+import com.liashenko.v.hybrid.search.model.SearchQuery;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingReport;
 
 import java.io.IOException;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-public interface SearchService {
-    void index(List<Conference> docs);
+public interface SearchService extends AutoCloseable {
+    IndexingReport index(List<Conference> docs);
 
-    List<Conference> search(String queryText, String type, int offset, int limit) throws IOException, InterruptedException;
+    /**
+     * Indexes into a concrete index instead of the read alias, e.g. a new version being built.
+     *
+     * @param targetIndex index to write to
+     * @param docs        documents to index
+     * @return per-document outcome
+     */
+    IndexingReport index(String targetIndex, List<Conference> docs);
+
+    /**
+     * Removes documents by id, missing ids are not an error.
+     *
+     * @param ids ids of the documents to delete
+     * @return per-document outcome
+     */
+    IndexingReport delete(List<String> ids);
+
+    default List<Conference> search(String queryText, String type, int offset, int limit) throws IOException, InterruptedException {
+        return search(SearchQuery.builder()
+                .queryText(queryText)
+                .type(type)
+                .offset(offset)
+                .limit(limit)
+                .build());
+    }
+
+    List<Conference> search(SearchQuery query) throws IOException, InterruptedException;
+
+    /**
+     * Non-blocking search bounded by the query deadline. Elasticsearch and embedding calls still outstanding when
+     * the deadline passes are cancelled and the future fails with a {@link java.util.concurrent.TimeoutException}.
+     *
+     * @param query offset-paged search parameters
+     * @return future hits
+     */
+    CompletableFuture<List<Conference>> searchAsync(SearchQuery query);
+
+    /**
+     * Runs several searches with one embedding call and one Elasticsearch round trip.
+     *
+     * @param queries searches to run, offset paged
+     * @return per-query results and timings, in the order of {@code queries}
+     */
+    BatchSearchResult searchBatch(List<SearchQuery> queries) throws IOException, InterruptedException;
+
+    /**
+     * Cursor-based paging over a point in time, the cost of a page does not grow with its depth.
+     *
+     * @param query search parameters, {@code cursor} is {@code null} for the first page
+     * @return page of hits and the cursor of the next page
+     */
+    SearchPage searchPage(SearchQuery query) throws IOException, InterruptedException;
 
     void deleteData();
 
-    void createIndexIfNeeded();
+    /**
+     * Loads local search state after startup, run in the background once the application is ready.
+     */
+    default void warmUp() {
+    }
+
+    /**
+     * Persists local search state for the next startup, called by the container on shutdown.
+     */
+    @Override
+    default void close() {
+    }
+
+    /**
+     * @return {@code true} when the index did not exist and has been created
+     */
+    boolean createIndexIfNeeded();
 }
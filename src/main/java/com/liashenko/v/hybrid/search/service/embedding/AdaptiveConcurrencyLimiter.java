@@ -0,0 +1,121 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Concurrency limit of the embedding backend adjusted by AIMD, like TCP congestion control: every call that
+ * completes in time while the limit is in use adds {@code 1 / limit}, so roughly one per round of calls, and a
+ * failed or slow call multiplies it by {@code backoff-ratio}.
+ * <p>
+ * Interactive calls are admitted up to the limit and always ahead of bulk calls. Bulk calls only get a permit
+ * while no interactive call is waiting and hold at most {@code bulk-share} of the limit, so ingest cannot occupy
+ * the backend; they wait as long as it takes, while interactive calls give up after {@code queue-timeout}.
+ */
+final class AdaptiveConcurrencyLimiter {
+
+    enum Priority {
+        INTERACTIVE, BULK
+    }
+
+    private final double minLimit;
+    private final double maxLimit;
+    private final double backoffRatio;
+    private final double bulkShare;
+    private final long queueTimeoutNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition released = lock.newCondition();
+    private double limit;
+    private int inFlight;
+    private int bulkInFlight;
+    private int interactiveWaiting;
+
+    AdaptiveConcurrencyLimiter(EmbeddingProperties.LimiterProperties properties) {
+        this.minLimit = properties.getMinLimit();
+        this.maxLimit = properties.getMaxLimit();
+        this.backoffRatio = properties.getBackoffRatio();
+        this.bulkShare = properties.getBulkShare();
+        this.queueTimeoutNanos = properties.getQueueTimeout().toNanos();
+        this.limit = properties.getInitialLimit();
+    }
+
+    /**
+     * @throws EmbeddingUnavailableException if an interactive call got no permit within the queue timeout
+     */
+    void acquire(Priority priority) throws InterruptedException {
+        lock.lock();
+        try {
+            if (priority == Priority.INTERACTIVE) {
+                interactiveWaiting++;
+                try {
+                    long remaining = queueTimeoutNanos;
+                    while (inFlight >= (int) limit) {
+                        if (remaining <= 0) {
+                            throw new EmbeddingUnavailableException("No embedding permit within %d ms, %d calls in flight"
+                                    .formatted(TimeUnit.NANOSECONDS.toMillis(queueTimeoutNanos), inFlight));
+                        }
+                        remaining = released.awaitNanos(remaining);
+                    }
+                } finally {
+                    if (--interactiveWaiting == 0) {
+                        released.signalAll();
+                    }
+                }
+            } else {
+                while (interactiveWaiting > 0 || inFlight >= (int) limit || bulkInFlight >= bulkLimit()) {
+                    released.await();
+                }
+                bulkInFlight++;
+            }
+            inFlight++;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @param dropped the call failed or was too slow, the backend is congested
+     */
+    void release(Priority priority, boolean dropped) {
+        lock.lock();
+        try {
+            if (dropped) {
+                limit = Math.max(minLimit, limit * backoffRatio);
+            } else if (inFlight * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1 / limit);
+            }
+            inFlight--;
+            if (priority == Priority.BULK) {
+                bulkInFlight--;
+            }
+            released.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    double limit() {
+        lock.lock();
+        try {
+            return limit;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    int inFlight() {
+        lock.lock();
+        try {
+            return inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int bulkLimit() {
+        return Math.max(1, (int) (limit * bulkShare));
+    }
+}
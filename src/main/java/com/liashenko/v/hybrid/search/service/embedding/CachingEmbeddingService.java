@@ -0,0 +1,229 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.google.common.cache.Cache;
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.CacheBuilder;
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.service.EmbeddingService;
+import com.liashenko.v.hybrid.search.service.snapshot.SnapshotFile;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+
+/**
+ * Caches query embeddings in front of another {@link EmbeddingService}.
+ * Entries are keyed by the normalized query text, bounded in size and expire after a TTL; the model still gets
+ * the text as the caller wrote it, like document inputs, so case and spacing carry the same meaning for both.
+ * Document embeddings used for indexing are passed through untouched.
+ * Cached vectors are shared between callers and must not be modified.
+ * <p>
+ * The cache is written to a snapshot on shutdown and loaded back on startup, so a restarted instance does not
+ * send every popular query to the model again. Loaded entries start a new TTL, a snapshot older than the TTL or
+ * taken with another model is ignored.
+ */
+@Slf4j
+public class CachingEmbeddingService implements EmbeddingService, AutoCloseable {
+    static final String CACHE_NAME = "embedding.query";
+    private static final String SNAPSHOT = "query-embeddings";
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final EmbeddingService delegate;
+    private final Cache<String, float[]> cache;
+    private final Duration ttl;
+    private final Path snapshotFile;
+    private final String modelId;
+
+    public CachingEmbeddingService(EmbeddingService delegate,
+                                   EmbeddingProperties properties,
+                                   MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.ttl = properties.getCache().getTtl();
+        this.snapshotFile = properties.getCache().getSnapshotFile();
+        this.modelId = Objects.toString(properties.getStore().getModelId(), "");
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(properties.getCache().getMaximumSize())
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        restore();
+    }
+
+    /**
+     * Wraps the service with a query embedding cache when caching is enabled.
+     *
+     * @param delegate      service performing the actual embedding
+     * @param properties    cache settings and the model id snapshots are checked against
+     * @param meterRegistry registry the cache statistics are exported to
+     * @return caching decorator, or {@code delegate} itself when caching is disabled
+     */
+    public static EmbeddingService decorate(EmbeddingService delegate,
+                                            EmbeddingProperties properties,
+                                            MeterRegistry meterRegistry) {
+        if (!properties.getCache().isEnabled()) {
+            return delegate;
+        }
+        return new CachingEmbeddingService(delegate, properties, meterRegistry);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        String key = normalize(text);
+        try {
+            return cache.get(key, () -> delegate.embed(text));
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to embed query text", e.getCause());
+        }
+    }
+
+    /**
+     * Completes immediately on a cache hit, a miss is cached once the delegate completes.
+     */
+    @Override
+    public CompletableFuture<float[]> embedAsync(String text) {
+        String key = normalize(text);
+        float[] cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        CompletableFuture<float[]> future = delegate.embedAsync(text);
+        future.thenAccept(vector -> cache.put(key, vector));
+        return future;
+    }
+
+    /**
+     * Serves cached queries from the cache and embeds the rest in one batch, the first text of every missing key
+     * as the caller wrote it.
+     */
+    @Override
+    public List<float[]> embedQueries(List<String> texts) {
+        List<String> keys = texts.stream()
+                .map(CachingEmbeddingService::normalize)
+                .toList();
+        Map<String, float[]> vectors = new HashMap<>(cache.getAllPresent(keys));
+        Map<String, String> missingTexts = new LinkedHashMap<>();
+        for (int i = 0; i < keys.size(); i++) {
+            if (!vectors.containsKey(keys.get(i))) {
+                missingTexts.putIfAbsent(keys.get(i), texts.get(i));
+            }
+        }
+        if (!missingTexts.isEmpty()) {
+            List<String> missing = List.copyOf(missingTexts.keySet());
+            List<float[]> computed = delegate.embedQueries(List.copyOf(missingTexts.values()));
+            for (int i = 0; i < missing.size(); i++) {
+                cache.put(missing.get(i), computed.get(i));
+                vectors.put(missing.get(i), computed.get(i));
+            }
+        }
+        return keys.stream()
+                .map(vectors::get)
+                .toList();
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        return delegate.embedBatch(texts);
+    }
+
+    @Override
+    public List<Conference> embed(List<Conference> conferences) {
+        return delegate.embed(conferences);
+    }
+
+    @Override
+    public String toInput(Conference conference) {
+        return delegate.toInput(conference);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    /**
+     * Writes the cached query embeddings to the snapshot file.
+     */
+    @Override
+    public void close() {
+        if (snapshotFile == null) {
+            return;
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        Map<String, float[]> entries = Map.copyOf(cache.asMap());
+        try {
+            SnapshotFile.write(snapshotFile, SNAPSHOT, SNAPSHOT_VERSION, out -> {
+                SnapshotFile.writeString(out, modelId);
+                out.writeInt(entries.size());
+                for (Map.Entry<String, float[]> entry : entries.entrySet()) {
+                    SnapshotFile.writeString(out, entry.getKey());
+                    out.writeInt(entry.getValue().length);
+                    for (float component : entry.getValue()) {
+                        out.writeFloat(component);
+                    }
+                }
+            });
+            log.info("Wrote {} query embeddings to {} in {}", entries.size(), snapshotFile, stopwatch);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write query embedding snapshot {}: {}", snapshotFile, e.toString());
+        }
+    }
+
+    private void restore() {
+        if (snapshotFile == null) {
+            return;
+        }
+        Optional<SnapshotFile.Snapshot> snapshot = SnapshotFile.read(snapshotFile, SNAPSHOT, SNAPSHOT_VERSION);
+        if (snapshot.isEmpty()) {
+            return;
+        }
+        if (Instant.ofEpochMilli(snapshot.get().createdAt()).plus(ttl).isBefore(Instant.now())) {
+            log.info("Ignoring query embedding snapshot {}, it is older than the cache TTL", snapshotFile);
+            return;
+        }
+        try {
+            ByteBuffer payload = snapshot.get().payload();
+            String snapshotModelId = SnapshotFile.readString(payload);
+            if (!modelId.equals(snapshotModelId)) {
+                log.info("Ignoring query embedding snapshot {} of model '{}'", snapshotFile, snapshotModelId);
+                return;
+            }
+            int count = payload.getInt();
+            Map<String, float[]> entries = new HashMap<>(count);
+            for (int i = 0; i < count; i++) {
+                String key = SnapshotFile.readString(payload);
+                float[] vector = new float[payload.getInt()];
+                payload.asFloatBuffer().get(vector);
+                payload.position(payload.position() + vector.length * Float.BYTES);
+                entries.put(key, vector);
+            }
+            cache.putAll(entries);
+            log.info("Loaded {} query embeddings from {}", entries.size(), snapshotFile);
+        } catch (RuntimeException e) {
+            log.warn("Failed to load query embedding snapshot {}: {}", snapshotFile, e.toString());
+        }
+    }
+
+    static String normalize(String text) {
+        return WHITESPACE.matcher(text.strip())
+                .replaceAll(" ")
+                .toLowerCase(Locale.ROOT);
+    }
+}
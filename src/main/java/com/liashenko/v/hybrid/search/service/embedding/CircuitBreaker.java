@@ -0,0 +1,152 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Count-based circuit breaker of the embedding backend.
+ * <p>
+ * Closed, it records the outcome of the last {@code window-size} calls and opens once at least
+ * {@code minimum-calls} were recorded and the failure rate reaches {@code failure-rate-threshold}. Open, calls
+ * fail fast for {@code open-duration}; then a single probe call is let through (half open), which closes the
+ * circuit on success and opens it again on failure.
+ * <p>
+ * Every admitted call carries its {@link Permit} back with its outcome. Only the probe permit decides the half-open
+ * state; calls admitted while closed that complete after the circuit opened are not counted.
+ */
+@Slf4j
+final class CircuitBreaker {
+
+    enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    enum Permit {
+        /**
+         * The circuit is open, the call must not be sent.
+         */
+        REJECTED,
+        /**
+         * A call admitted while closed.
+         */
+        CALL,
+        /**
+         * The single call admitted while half open.
+         */
+        PROBE
+    }
+
+    private final boolean[] failed;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long openNanos;
+    private State state = State.CLOSED;
+    private int next;
+    private int calls;
+    private int failures;
+    private long openedAt;
+    private boolean probing;
+
+    CircuitBreaker(EmbeddingProperties.CircuitBreakerProperties properties) {
+        this.failed = new boolean[properties.getWindowSize()];
+        this.minimumCalls = Math.min(properties.getMinimumCalls(), properties.getWindowSize());
+        this.failureRateThreshold = properties.getFailureRateThreshold();
+        this.openNanos = properties.getOpenDuration().toNanos();
+    }
+
+    /**
+     * @return permit the call must report its outcome with, {@link Permit#REJECTED} if it may not be sent
+     */
+    synchronized Permit tryAcquire() {
+        if (state == State.OPEN) {
+            if (System.nanoTime() - openedAt < openNanos) {
+                return Permit.REJECTED;
+            }
+            state = State.HALF_OPEN;
+            log.info("Embedding circuit half open, sending a probe call");
+        }
+        if (state == State.HALF_OPEN) {
+            if (probing) {
+                return Permit.REJECTED;
+            }
+            probing = true;
+            return Permit.PROBE;
+        }
+        return Permit.CALL;
+    }
+
+    /**
+     * @return {@code false} while calls fail fast; {@code true} once a probe call may be sent
+     */
+    synchronized boolean isAvailable() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> System.nanoTime() - openedAt >= openNanos;
+            case HALF_OPEN -> !probing;
+        };
+    }
+
+    synchronized State state() {
+        return state;
+    }
+
+    synchronized void onSuccess(Permit permit) {
+        if (permit == Permit.PROBE) {
+            if (state == State.HALF_OPEN) {
+                close();
+            }
+        } else if (permit == Permit.CALL && state == State.CLOSED) {
+            record(false);
+        }
+    }
+
+    synchronized void onFailure(Permit permit) {
+        if (permit == Permit.PROBE) {
+            if (state == State.HALF_OPEN) {
+                open();
+            }
+        } else if (permit == Permit.CALL && state == State.CLOSED) {
+            record(true);
+            if (calls >= minimumCalls && failures >= failureRateThreshold * calls) {
+                open();
+            }
+        }
+    }
+
+    /**
+     * The acquired call was not sent after all, e.g. it got no concurrency permit, or it was cancelled.
+     */
+    synchronized void onIgnored(Permit permit) {
+        if (permit == Permit.PROBE && state == State.HALF_OPEN) {
+            probing = false;
+        }
+    }
+
+    private void record(boolean failure) {
+        if (calls == failed.length) {
+            failures -= failed[next] ? 1 : 0;
+        } else {
+            calls++;
+        }
+        failed[next] = failure;
+        failures += failure ? 1 : 0;
+        next = (next + 1) % failed.length;
+    }
+
+    private void open() {
+        log.warn("Embedding circuit open after {} failures in {} calls, failing fast for {} ms",
+                failures, calls, openNanos / 1_000_000);
+        state = State.OPEN;
+        openedAt = System.nanoTime();
+        probing = false;
+    }
+
+    private void close() {
+        log.info("Embedding circuit closed, the probe call succeeded");
+        state = State.CLOSED;
+        probing = false;
+        calls = 0;
+        failures = 0;
+        next = 0;
+    }
+}
@@ -0,0 +1,253 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.service.EmbeddingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Coalesces concurrent query embeddings in front of another {@link EmbeddingService}.
+ * <p>
+ * Concurrent calls for the same text share one in-flight embedding (single flight), and distinct texts arriving
+ * within {@code window} of each other are sent as one {@link EmbeddingService#embedQueries(List)} call, flushed
+ * early once {@code maxBatchSize} texts are waiting. The batch is sent from a virtual thread, callers only wait
+ * for their own vector. Document embeddings used for indexing are passed through untouched.
+ * <p>
+ * An {@link #embedAsync(String)} caller that cancels, or times out, leaves its shared embedding. Once every waiter
+ * of a text is gone, the text is dropped from the batch being collected. If the batch was already sent, its call is
+ * interrupted once all of its texts are abandoned. A batch still carrying one awaited text runs to the end, so a
+ * cancelled text in it costs backend time but no caller latency.
+ */
+@Slf4j
+public class CoalescingEmbeddingService implements EmbeddingService {
+    static final String REQUESTS_METRIC = "embedding.coalescing.requests";
+    static final String BATCH_SIZE_METRIC = "embedding.coalescing.batch.size";
+
+    private final EmbeddingService delegate;
+    private final long windowNanos;
+    private final int maxBatchSize;
+    private final Object lock = new Object();
+    private final Map<String, Call> inFlight = new HashMap<>();
+    private List<Call> pending = new ArrayList<>();
+    private final Counter sent;
+    private final Counter coalesced;
+    private final Counter cancelled;
+    private final DistributionSummary batchSize;
+
+    public CoalescingEmbeddingService(EmbeddingService delegate,
+                                      EmbeddingProperties.CoalescingProperties properties,
+                                      MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.windowNanos = properties.getWindow().toNanos();
+        this.maxBatchSize = properties.getMaxBatchSize();
+        this.sent = meterRegistry.counter(REQUESTS_METRIC, "result", "sent");
+        this.coalesced = meterRegistry.counter(REQUESTS_METRIC, "result", "coalesced");
+        this.cancelled = meterRegistry.counter(REQUESTS_METRIC, "result", "cancelled");
+        this.batchSize = DistributionSummary.builder(BATCH_SIZE_METRIC)
+                .description("Query texts sent per coalesced embedding call")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wraps the service with request coalescing when it is enabled.
+     *
+     * @param delegate      service performing the actual embedding
+     * @param properties    coalescing settings
+     * @param meterRegistry registry the coalescing metrics are exported to
+     * @return coalescing decorator, or {@code delegate} itself when coalescing is disabled
+     */
+    public static EmbeddingService decorate(EmbeddingService delegate,
+                                            EmbeddingProperties.CoalescingProperties properties,
+                                            MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return delegate;
+        }
+        return new CoalescingEmbeddingService(delegate, properties, meterRegistry);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        try {
+            return join(text).future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new RuntimeException("Failed to embed query text", e.getCause());
+        }
+    }
+
+    /**
+     * Completing the returned future early detaches this caller; the shared embedding is cancelled only when no
+     * other caller waits for it.
+     */
+    @Override
+    public CompletableFuture<float[]> embedAsync(String text) {
+        Call call = join(text);
+        CompletableFuture<float[]> result = call.future.copy();
+        result.whenComplete((vector, error) -> {
+            if (error != null) {
+                leave(call);
+            }
+        });
+        return result;
+    }
+
+    @Override
+    public List<float[]> embedQueries(List<String> texts) {
+        return delegate.embedQueries(texts);
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        return delegate.embedBatch(texts);
+    }
+
+    @Override
+    public List<Conference> embed(List<Conference> conferences) {
+        return delegate.embed(conferences);
+    }
+
+    @Override
+    public String toInput(Conference conference) {
+        return delegate.toInput(conference);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+
+    /**
+     * @return the in-flight embedding of the text, with this caller counted as one of its waiters
+     */
+    private Call join(String text) {
+        Call call;
+        boolean first;
+        boolean full;
+        synchronized (lock) {
+            call = inFlight.get(text);
+            if (call != null) {
+                call.waiters++;
+                coalesced.increment();
+                return call;
+            }
+            call = new Call(text);
+            inFlight.put(text, call);
+            pending.add(call);
+            first = pending.size() == 1;
+            full = pending.size() >= maxBatchSize;
+        }
+        Call created = call;
+        call.future.whenComplete((vector, error) -> {
+            synchronized (lock) {
+                inFlight.remove(text, created);
+            }
+        });
+
+        if (full) {
+            Thread.ofVirtual().name("embed-batch").start(this::flush);
+        } else if (first) {
+            Thread.ofVirtual().name("embed-batch").start(() -> {
+                LockSupport.parkNanos(windowNanos);
+                flush();
+            });
+        }
+        return call;
+    }
+
+    /**
+     * Called when an asynchronous waiter completed its copy early, e.g. cancelled it or timed out.
+     */
+    private void leave(Call call) {
+        Thread abandoned = null;
+        synchronized (lock) {
+            if (call.future.isDone() || --call.waiters > 0) {
+                return;
+            }
+            inFlight.remove(call.text, call);
+            if (call.batch == null) {
+                pending.remove(call);
+            } else if (--call.batch.awaited == 0) {
+                abandoned = call.batch.thread;
+            }
+        }
+        cancelled.increment();
+        call.future.cancel(false);
+        if (abandoned != null) {
+            log.debug("Every text of an embedding batch was abandoned, interrupting its call");
+            abandoned.interrupt();
+        }
+    }
+
+    private void flush() {
+        List<Call> calls;
+        synchronized (lock) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            calls = pending;
+            pending = new ArrayList<>();
+            Batch batch = new Batch(Thread.currentThread(), calls.size());
+            calls.forEach(call -> call.batch = batch);
+        }
+        List<String> texts = calls.stream()
+                .map(Call::text)
+                .toList();
+        sent.increment(texts.size());
+        batchSize.record(texts.size());
+        try {
+            List<float[]> vectors = delegate.embedQueries(texts);
+            for (int i = 0; i < calls.size(); i++) {
+                calls.get(i).future.complete(vectors.get(i));
+            }
+        } catch (Throwable e) {
+            if (!Thread.interrupted()) {
+                log.warn("Failed to embed a batch of {} query texts: {}", texts.size(), e.getMessage());
+            }
+            calls.forEach(call -> call.future.completeExceptionally(e));
+        }
+    }
+
+    /**
+     * Embedding of one text shared by its waiters; {@code waiters} and {@code batch} are guarded by the lock.
+     */
+    private static final class Call {
+        private final String text;
+        private final CompletableFuture<float[]> future = new CompletableFuture<>();
+        private int waiters = 1;
+        private Batch batch;
+
+        private Call(String text) {
+            this.text = text;
+        }
+
+        private String text() {
+            return text;
+        }
+    }
+
+    /**
+     * Sent batch; {@code awaited} counts its texts that still have a waiter and is guarded by the lock.
+     */
+    private static final class Batch {
+        private final Thread thread;
+        private int awaited;
+
+        private Batch(Thread thread, int awaited) {
+            this.thread = thread;
+            this.awaited = awaited;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Splits embedding inputs into request-sized batches bounded by both the number of inputs
+ * and an estimated token budget. An input that alone exceeds the token budget is sent as its own batch.
+ */
+public class EmbeddingBatchPartitioner {
+    static final int CHARS_PER_TOKEN = 4;
+
+    private final int maxBatchSize;
+    private final int maxBatchTokens;
+
+    public EmbeddingBatchPartitioner(EmbeddingProperties.BatchProperties properties) {
+        this(properties.getMaxSize(), properties.getMaxTokens());
+    }
+
+    public EmbeddingBatchPartitioner(int maxBatchSize, int maxBatchTokens) {
+        if (maxBatchSize < 1 || maxBatchTokens < 1) {
+            throw new IllegalArgumentException("Embedding batch size and token budget must be positive");
+        }
+        this.maxBatchSize = maxBatchSize;
+        this.maxBatchTokens = maxBatchTokens;
+    }
+
+    /**
+     * Partitions inputs preserving their order.
+     *
+     * @param inputs texts to embed
+     * @return consecutive views over {@code inputs}, each fitting a single embedding request
+     */
+    public List<List<String>> partition(List<String> inputs) {
+        List<List<String>> batches = new ArrayList<>();
+        int from = 0;
+        int tokens = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            int inputTokens = estimateTokens(inputs.get(i));
+            boolean full = i - from == maxBatchSize || tokens + inputTokens > maxBatchTokens;
+            if (full && i > from) {
+                batches.add(inputs.subList(from, i));
+                from = i;
+                tokens = 0;
+            }
+            tokens += inputTokens;
+        }
+        if (from < inputs.size()) {
+            batches.add(inputs.subList(from, inputs.size()));
+        }
+        return batches;
+    }
+
+    static int estimateTokens(String input) {
+        return Math.max(1, (input.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN);
+    }
+}
@@ -0,0 +1,182 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.google.common.base.Stopwatch;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Persistent embedding store backed by a single append-only segment file.
+ * <p>
+ * Vectors are keyed by the SHA-256 of the model id and the exact model input, so a changed input or a different
+ * model never reuses a stale vector. The key to file offset index is rebuilt by scanning the segment on open;
+ * a torn record left by a crash is truncated away.
+ * <p>
+ * Record layout (little endian): {@code key[32] | dims:int | float[dims]}.
+ */
+@Slf4j
+public class EmbeddingStore implements Closeable {
+    static final String SEGMENT_FILE = "embeddings.seg";
+    private static final int KEY_BYTES = 32;
+    private static final int HEADER_BYTES = KEY_BYTES + Integer.BYTES;
+
+    private final String modelId;
+    private final FileChannel channel;
+    private final Map<HashCode, Long> offsets = new ConcurrentHashMap<>();
+
+    public EmbeddingStore(EmbeddingProperties.StoreProperties properties) {
+        if (isBlank(properties.getModelId())) {
+            throw new IllegalStateException("embedding.store.model-id must be set when the embedding store is enabled");
+        }
+        this.modelId = properties.getModelId();
+        Path segment = properties.getDirectory().resolve(SEGMENT_FILE);
+        try {
+            Files.createDirectories(properties.getDirectory());
+            this.channel = FileChannel.open(segment,
+                    StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            loadIndex();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open embedding store " + segment, e);
+        }
+    }
+
+    /**
+     * @param input embedding model input
+     * @return key of the vector for {@code input} produced by the configured model
+     */
+    public HashCode key(String input) {
+        return Hashing.sha256().newHasher()
+                .putString(modelId, StandardCharsets.UTF_8)
+                .putByte((byte) 0)
+                .putString(input, StandardCharsets.UTF_8)
+                .hash();
+    }
+
+    /**
+     * @param key vector key, see {@link #key(String)}
+     * @return stored vector or {@code null} when absent
+     */
+    public float[] get(HashCode key) {
+        Long offset = offsets.get(key);
+        if (offset == null) {
+            return null;
+        }
+        try {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(header, offset + KEY_BYTES);
+            ByteBuffer body = ByteBuffer.allocate(header.flip().getInt() * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(body, offset + HEADER_BYTES);
+
+            float[] vector = new float[body.capacity() / Float.BYTES];
+            body.flip().asFloatBuffer().get(vector);
+            return vector;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read embedding at offset " + offset, e);
+        }
+    }
+
+    /**
+     * Appends vectors in one write and syncs the segment, keys already present are skipped.
+     *
+     * @param keys    vector keys
+     * @param vectors vectors in the same order as {@code keys}
+     */
+    public synchronized void putAll(List<HashCode> keys, List<float[]> vectors) {
+        int size = 0;
+        for (int i = 0; i < keys.size(); i++) {
+            if (!offsets.containsKey(keys.get(i))) {
+                size += HEADER_BYTES + vectors.get(i).length * Float.BYTES;
+            }
+        }
+        if (size == 0) {
+            return;
+        }
+
+        ByteBuffer buffer = ByteBuffer.allocate(size).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            long position = channel.size();
+            Map<HashCode, Long> appended = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                HashCode key = keys.get(i);
+                if (offsets.containsKey(key) || appended.containsKey(key)) {
+                    continue;
+                }
+                appended.put(key, position + buffer.position());
+                float[] vector = vectors.get(i);
+                buffer.put(key.asBytes()).putInt(vector.length);
+                buffer.asFloatBuffer().put(vector);
+                buffer.position(buffer.position() + vector.length * Float.BYTES);
+            }
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                position += channel.write(buffer, position);
+            }
+            channel.force(false);
+            offsets.putAll(appended);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to append embeddings", e);
+        }
+    }
+
+    public int size() {
+        return offsets.size();
+    }
+
+    private void loadIndex() throws IOException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        long fileSize = channel.size();
+        long position = 0;
+        ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (position + HEADER_BYTES <= fileSize) {
+            header.clear();
+            readFully(header, position);
+            header.flip();
+            byte[] key = new byte[KEY_BYTES];
+            header.get(key);
+            long recordSize = HEADER_BYTES + (long) header.getInt() * Float.BYTES;
+            if (recordSize < HEADER_BYTES || position + recordSize > fileSize) {
+                break;
+            }
+            offsets.put(HashCode.fromBytes(key), position);
+            position += recordSize;
+        }
+        if (position < fileSize) {
+            log.warn("Truncating {} trailing bytes of an incomplete embedding record", fileSize - position);
+            channel.truncate(position);
+        }
+        log.info("Loaded {} stored embeddings in {}", offsets.size(), stopwatch.stop());
+    }
+
+    private void readFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, position);
+            if (read < 0) {
+                throw new IOException("Unexpected end of embedding segment at " + position);
+            }
+            position += read;
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
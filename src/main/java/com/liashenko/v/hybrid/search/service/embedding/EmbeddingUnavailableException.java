@@ -0,0 +1,12 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+/**
+ * The embedding call was not sent: the backend circuit is open or no concurrency permit became free in time.
+ * Searches fall back to keyword search on it.
+ */
+public class EmbeddingUnavailableException extends RuntimeException {
+
+    public EmbeddingUnavailableException(String message) {
+        super(message);
+    }
+}
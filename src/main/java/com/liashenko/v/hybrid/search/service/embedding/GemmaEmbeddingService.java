@@ -5,10 +5,10 @@ import com.liashenko.v.hybrid.search.model.Conference;
 import com.liashenko.v.hybrid.search.service.EmbeddingService;
 import lombok.AllArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.web.client.RestClient;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -27,41 +27,58 @@ public class GemmaEmbeddingService implements EmbeddingService {
     static final int MAX_CHARS = MAX_TOKENS * CHARS_PER_TOKEN - 1;
 
     private final RestClient embeddingRestClient;
+    private final EmbeddingBatchPartitioner batchPartitioner;
 
-    /**
-     * Generates embeddings for a list of conferences using Spring RestClient.
-     *
-     * @param conferences list of conferences to embed
-     * @return list of conferences with embeddings populated
-     */
-    public List<Conference> embed(List<Conference> conferences) {
-        List<Conference> conferencesWithEmbeddings = new ArrayList<>();
-        for (Conference conf : conferences) {
-            String input = getInput(conf);
+    @Override
+    public String toInput(Conference conf) {
+        String input = getInput(conf);
+        if (input.length() >= MAX_CHARS) {
+            input = getShortInput(conf);
             if (input.length() >= MAX_CHARS) {
-                input = getShortInput(conf);
-                if (input.length() >= MAX_CHARS) {
-                    input = input.substring(0, MAX_CHARS);
-                }
+                input = input.substring(0, MAX_CHARS);
             }
-            List<Float> embedding = embed(input);
-            Conference conference = conf.withEmbedding(embedding);
-            conferencesWithEmbeddings.add(conference);
         }
-        return conferencesWithEmbeddings;
+        return input;
     }
 
-    public List<Float> embed(String text) {
+    public float[] embed(String text) {
         Stopwatch stopwatch = Stopwatch.createStarted();
-        List<List<Float>> response = embeddingRestClient.post()
-                .uri("/embed")
-                .body(Map.of("inputs", text))
-                .retrieve()
-                .body(new ParameterizedTypeReference<List<List<Float>>>() {
-                });
+        float[][] response = post(text);
 
         log.info("Embedded query text in {} using Spring RestClient", stopwatch);
-        return response.getFirst();
+        return response[0];
     }
 
+    /**
+     * Embeds texts with one TEI {@code /embed} call per partition, TEI accepts an array of inputs.
+     *
+     * @param texts texts to embed
+     * @return embeddings in the same order as {@code texts}
+     */
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (List<String> batch : batchPartitioner.partition(texts)) {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            float[][] response = post(batch);
+            if (response == null || response.length != batch.size()) {
+                throw new IllegalStateException("Embedding endpoint returned %s vectors for %d inputs"
+                        .formatted(response == null ? "no" : response.length, batch.size()));
+            }
+            embeddings.addAll(Arrays.asList(response));
+            log.info("Embedded batch of {} inputs in {}", batch.size(), stopwatch);
+        }
+        return embeddings;
+    }
+
+    /**
+     * Reads the response straight into primitive arrays, Jackson never boxes the vector components.
+     */
+    private float[][] post(Object inputs) {
+        return embeddingRestClient.post()
+                .uri("/embed")
+                .body(Map.of("inputs", inputs))
+                .retrieve()
+                .body(float[][].class);
+    }
 }
@@ -0,0 +1,149 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.google.common.base.Stopwatch;
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.service.EmbeddingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.liashenko.v.hybrid.search.service.embedding.AdaptiveConcurrencyLimiter.Priority.BULK;
+import static com.liashenko.v.hybrid.search.service.embedding.AdaptiveConcurrencyLimiter.Priority.INTERACTIVE;
+
+/**
+ * Protects the embedding backend with an {@link AdaptiveConcurrencyLimiter} and a {@link CircuitBreaker}.
+ * <p>
+ * Query embeddings are interactive, document embeddings for indexing are bulk and yield to them. Failed calls
+ * and interactive calls slower than {@code slow-call-threshold} shrink the limit and count as circuit breaker
+ * failures; bulk calls carry whole batches, so only their failures count. While the circuit is open, or when an
+ * interactive call gets no permit in time, calls fail with {@link EmbeddingUnavailableException} without
+ * reaching the backend and {@link #isAvailable()} tells searches to fall back to keyword search.
+ */
+@Slf4j
+public class LimitingEmbeddingService implements EmbeddingService {
+    static final String REJECTED_METRIC = "embedding.limiter.rejected";
+
+    private final EmbeddingService delegate;
+    private final AdaptiveConcurrencyLimiter limiter;
+    private final CircuitBreaker circuitBreaker;
+    private final Duration slowCallThreshold;
+    private final Counter circuitOpenRejections;
+    private final Counter queueTimeoutRejections;
+
+    public LimitingEmbeddingService(EmbeddingService delegate,
+                                    EmbeddingProperties.LimiterProperties properties,
+                                    MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.limiter = new AdaptiveConcurrencyLimiter(properties);
+        this.circuitBreaker = new CircuitBreaker(properties.getCircuitBreaker());
+        this.slowCallThreshold = properties.getSlowCallThreshold();
+        this.circuitOpenRejections = meterRegistry.counter(REJECTED_METRIC, "reason", "circuit_open");
+        this.queueTimeoutRejections = meterRegistry.counter(REJECTED_METRIC, "reason", "queue_timeout");
+        Gauge.builder("embedding.limiter.limit", limiter, AdaptiveConcurrencyLimiter::limit)
+                .description("Current concurrency limit of the embedding backend")
+                .register(meterRegistry);
+        Gauge.builder("embedding.limiter.in.flight", limiter, AdaptiveConcurrencyLimiter::inFlight)
+                .description("Embedding calls in flight")
+                .register(meterRegistry);
+        Gauge.builder("embedding.circuit.state", circuitBreaker, breaker -> breaker.state().ordinal())
+                .description("Embedding circuit breaker state: 0 closed, 1 open, 2 half open")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wraps the service with the concurrency limiter and circuit breaker when they are enabled.
+     *
+     * @param delegate      service performing the actual embedding
+     * @param properties    limiter and circuit breaker settings
+     * @param meterRegistry registry the limiter metrics are exported to
+     * @return limiting decorator, or {@code delegate} itself when limiting is disabled
+     */
+    public static EmbeddingService decorate(EmbeddingService delegate,
+                                            EmbeddingProperties.LimiterProperties properties,
+                                            MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return delegate;
+        }
+        return new LimitingEmbeddingService(delegate, properties, meterRegistry);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return call(INTERACTIVE, () -> delegate.embed(text));
+    }
+
+    @Override
+    public List<float[]> embedQueries(List<String> texts) {
+        return call(INTERACTIVE, () -> delegate.embedQueries(texts));
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        return call(BULK, () -> delegate.embedBatch(texts));
+    }
+
+    @Override
+    public List<Conference> embed(List<Conference> conferences) {
+        return call(BULK, () -> delegate.embed(conferences));
+    }
+
+    @Override
+    public String toInput(Conference conference) {
+        return delegate.toInput(conference);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return circuitBreaker.isAvailable() && delegate.isAvailable();
+    }
+
+    private <T> T call(AdaptiveConcurrencyLimiter.Priority priority, Supplier<T> embedding) {
+        CircuitBreaker.Permit permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.Permit.REJECTED) {
+            circuitOpenRejections.increment();
+            throw new EmbeddingUnavailableException("Embedding circuit is open");
+        }
+        try {
+            limiter.acquire(priority);
+        } catch (EmbeddingUnavailableException e) {
+            circuitBreaker.onIgnored(permit);
+            queueTimeoutRejections.increment();
+            throw e;
+        } catch (InterruptedException e) {
+            circuitBreaker.onIgnored(permit);
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for an embedding permit", e);
+        }
+
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        T result;
+        try {
+            result = embedding.get();
+        } catch (RuntimeException | Error e) {
+            // an interrupted call was cancelled by its caller, it says nothing about the backend
+            boolean cancelled = Thread.currentThread().isInterrupted();
+            limiter.release(priority, !cancelled);
+            if (cancelled) {
+                circuitBreaker.onIgnored(permit);
+            } else {
+                circuitBreaker.onFailure(permit);
+            }
+            throw e;
+        }
+        boolean slow = priority == INTERACTIVE && stopwatch.elapsed().compareTo(slowCallThreshold) > 0;
+        limiter.release(priority, slow);
+        if (slow) {
+            log.warn("Query embedding took {}, over the {} slow call threshold", stopwatch, slowCallThreshold);
+            circuitBreaker.onFailure(permit);
+        } else {
+            circuitBreaker.onSuccess(permit);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,114 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.google.common.hash.HashCode;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.service.EmbeddingService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Serves document embeddings from an {@link EmbeddingStore} and only sends inputs that were never embedded
+ * by the current model to the delegate, so a reindex with unchanged data costs no model inference.
+ * Query embeddings are passed through, they are cached by {@link CachingEmbeddingService}.
+ */
+@Slf4j
+public class StoredEmbeddingService implements EmbeddingService {
+    static final String METRIC_NAME = "embedding.store.requests";
+
+    private final EmbeddingService delegate;
+    private final EmbeddingStore store;
+    private final Counter hits;
+    private final Counter misses;
+
+    public StoredEmbeddingService(EmbeddingService delegate, EmbeddingStore store, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.store = store;
+        this.hits = meterRegistry.counter(METRIC_NAME, "result", "hit");
+        this.misses = meterRegistry.counter(METRIC_NAME, "result", "miss");
+    }
+
+    /**
+     * Wraps the service with the persistent embedding store when one is configured.
+     *
+     * @param delegate      service performing the actual embedding
+     * @param store         embedding store, {@code null} when disabled
+     * @param meterRegistry registry the hit/miss counters are exported to
+     * @return store-backed decorator, or {@code delegate} itself when there is no store
+     */
+    public static EmbeddingService decorate(EmbeddingService delegate, EmbeddingStore store, MeterRegistry meterRegistry) {
+        if (store == null) {
+            return delegate;
+        }
+        return new StoredEmbeddingService(delegate, store, meterRegistry);
+    }
+
+    @Override
+    public float[] embed(String text) {
+        return delegate.embed(text);
+    }
+
+    @Override
+    public CompletableFuture<float[]> embedAsync(String text) {
+        return delegate.embedAsync(text);
+    }
+
+    @Override
+    public List<float[]> embedQueries(List<String> texts) {
+        return delegate.embedQueries(texts);
+    }
+
+    @Override
+    public List<float[]> embedBatch(List<String> texts) {
+        float[][] embeddings = new float[texts.size()][];
+        Map<HashCode, List<Integer>> missing = new LinkedHashMap<>();
+        for (int i = 0; i < texts.size(); i++) {
+            HashCode key = store.key(texts.get(i));
+            embeddings[i] = store.get(key);
+            if (embeddings[i] == null) {
+                missing.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+            }
+        }
+
+        int missed = missing.values().stream().mapToInt(List::size).sum();
+        hits.increment(texts.size() - missed);
+        misses.increment(missed);
+        if (missing.isEmpty()) {
+            log.info("Served all {} embeddings from the store", texts.size());
+            return Arrays.asList(embeddings);
+        }
+
+        List<HashCode> keys = new ArrayList<>(missing.keySet());
+        List<String> inputs = keys.stream()
+                .map(key -> texts.get(missing.get(key).getFirst()))
+                .toList();
+        List<float[]> computed = delegate.embedBatch(inputs);
+        store.putAll(keys, computed);
+
+        for (int i = 0; i < keys.size(); i++) {
+            for (int index : missing.get(keys.get(i))) {
+                embeddings[index] = computed.get(i);
+            }
+        }
+        log.info("Served {} of {} embeddings from the store, embedded {} unique inputs",
+                texts.size() - missed, texts.size(), inputs.size());
+        return Arrays.asList(embeddings);
+    }
+
+    @Override
+    public String toInput(Conference conference) {
+        return delegate.toInput(conference);
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return delegate.isAvailable();
+    }
+}
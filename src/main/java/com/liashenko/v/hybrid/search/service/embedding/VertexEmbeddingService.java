@@ -1,74 +1,125 @@
 package com.liashenko.v.hybrid.search.service.embedding;
 
+import com.google.api.core.ApiFuture;
+import com.google.api.core.ApiFutureCallback;
+import com.google.api.core.ApiFutures;
 import com.google.cloud.aiplatform.v1.PredictRequest;
 import com.google.cloud.aiplatform.v1.PredictResponse;
 import com.google.cloud.aiplatform.v1.PredictionServiceClient;
+import com.google.protobuf.ListValue;
 import com.google.protobuf.Struct;
+import com.google.common.util.concurrent.MoreExecutors;
 import com.google.protobuf.Value;
-import com.liashenko.v.hybrid.search.model.Conference;
 import com.liashenko.v.hybrid.search.service.EmbeddingService;
 import lombok.AllArgsConstructor;
 
 import java.util.ArrayList;
 import java.util.List;
-
-import static com.liashenko.v.hybrid.search.service.ConferenceStringifier.getInput;
+import java.util.concurrent.CompletableFuture;
 
 @AllArgsConstructor
 public class VertexEmbeddingService implements EmbeddingService {
 
     private final PredictionServiceClient client;
     private final String endpoint;
+    private final EmbeddingBatchPartitioner batchPartitioner;
+
+    @Override
+    public float[] embed(String text) {
+        return predict(List.of(text)).getFirst();
+    }
 
+    /**
+     * Embeds texts with one {@code predict} call per partition, each carrying many instances.
+     *
+     * @param texts texts to embed
+     * @return embeddings in the same order as {@code texts}
+     */
     @Override
-    public List<Conference> embed(List<Conference> conferences) {
-        List<Conference> conferencesWithEmbeddings = new ArrayList<>();
-        for (Conference conf : conferences) {
-            String input = getInput(conf);
-            List<Float> embedding = embed(input);
-            Conference conference = conf.withEmbedding(embedding);
-            conferencesWithEmbeddings.add(conference);
+    public List<float[]> embedBatch(List<String> texts) {
+        List<float[]> embeddings = new ArrayList<>(texts.size());
+        for (List<String> batch : batchPartitioner.partition(texts)) {
+            List<float[]> response = predict(batch);
+            if (response.size() != batch.size()) {
+                throw new IllegalStateException("Vertex returned %d predictions for %d instances"
+                        .formatted(response.size(), batch.size()));
+            }
+            embeddings.addAll(response);
         }
-        return conferencesWithEmbeddings;
+        return embeddings;
     }
 
+    /**
+     * Uses the asynchronous gRPC call, cancelling the returned future cancels the call.
+     */
     @Override
-    public List<Float> embed(String text) {
+    public CompletableFuture<float[]> embedAsync(String text) {
+        ApiFuture<PredictResponse> call = client.predictCallable().futureCall(predictRequest(List.of(text)));
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        ApiFutures.addCallback(call, new ApiFutureCallback<>() {
+            @Override
+            public void onFailure(Throwable t) {
+                future.completeExceptionally(t);
+            }
+
+            @Override
+            public void onSuccess(PredictResponse response) {
+                future.complete(toVectors(response).getFirst());
+            }
+        }, MoreExecutors.directExecutor());
+        future.whenComplete((vector, error) -> {
+            if (error != null) {
+                call.cancel(true);
+            }
+        });
+        return future;
+    }
+
+    private List<float[]> predict(List<String> texts) {
+        return toVectors(client.predict(predictRequest(texts)));
+    }
+
+    private PredictRequest predictRequest(List<String> texts) {
         // parameters
         Struct.Builder params = Struct.newBuilder();
         params.putFields("outputDimensionality", num(768));
         params.putFields("autoTruncate", bool(true));
 
-        List<Value> instances = new ArrayList<>();
-        instances.add(Value.newBuilder()
-                .setStructValue(Struct.newBuilder()
-                        .putFields("content", str(text))
-                        .putFields("task_type", str("RETRIEVAL_DOCUMENT"))
-                        .build())
-                .build());
-        PredictRequest req = PredictRequest.newBuilder()
+        List<Value> instances = new ArrayList<>(texts.size());
+        for (String text : texts) {
+            instances.add(Value.newBuilder()
+                    .setStructValue(Struct.newBuilder()
+                            .putFields("content", str(text))
+                            .putFields("task_type", str("RETRIEVAL_DOCUMENT"))
+                            .build())
+                    .build());
+        }
+        return PredictRequest.newBuilder()
                 .setEndpoint(endpoint)
                 .addAllInstances(instances)
                 .setParameters(Value.newBuilder().setStructValue(params.build()).build())
                 .build();
+    }
 
-        PredictResponse resp = client.predict(req);
-
-        List<List<Float>> out = new ArrayList<>();
+    private static List<float[]> toVectors(PredictResponse resp) {
+        List<float[]> out = new ArrayList<>(resp.getPredictionsCount());
         for (Value p : resp.getPredictionsList()) {
             // prediction.embeddings.values -> List<double>
             Value emb = p.getStructValue().getFieldsOrThrow("embeddings");
-            List<Float> vec = emb.getStructValue()
-                    .getFieldsOrThrow("values")
-                    .getListValue().getValuesList()
-                    .stream().map(Value::getNumberValue).map(Double::floatValue)
-                    .toList();
-            out.add(vec);
+            out.add(toVector(emb.getStructValue().getFieldsOrThrow("values").getListValue()));
         }
-        return out.getFirst();
+        return out;
     }
 
     // ---- helpers ----
+    private static float[] toVector(ListValue values) {
+        float[] vector = new float[values.getValuesCount()];
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) values.getValues(i).getNumberValue();
+        }
+        return vector;
+    }
+
     private Value str(String s) {
         return Value.newBuilder().setStringValue(s).build();
     }
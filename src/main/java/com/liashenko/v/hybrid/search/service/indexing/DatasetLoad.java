@@ -0,0 +1,15 @@
+package com.liashenko.v.hybrid.search.service.indexing;
+
+import com.google.common.hash.HashCode;
+
+import java.util.Map;
+
+/**
+ * Full load of the dataset whose fingerprints are not recorded in the {@link IndexManifest} yet, so the caller
+ * can save them only once the loaded index is actually serving.
+ *
+ * @param report       indexing outcome
+ * @param fingerprints fingerprints of the conferences written successfully, by id
+ */
+public record DatasetLoad(IndexingReport report, Map<String, HashCode> fingerprints) {
+}
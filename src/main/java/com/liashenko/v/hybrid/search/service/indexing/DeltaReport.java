@@ -0,0 +1,15 @@
+package com.liashenko.v.hybrid.search.service.indexing;
+
+/**
+ * Outcome of a delta load.
+ *
+ * @param documents number of rows in the dataset
+ * @param unchanged rows skipped because their fingerprint matched the last load
+ * @param indexed   report of the new and changed rows that were embedded and written
+ * @param deleted   report of the bulk deletes issued for rows missing from the dataset
+ */
+public record DeltaReport(long documents,
+                          long unchanged,
+                          IndexingReport indexed,
+                          IndexingReport deleted) {
+}
@@ -0,0 +1,340 @@
+package com.liashenko.v.hybrid.search.service.indexing;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch.indices.CreateIndexResponse;
+import co.elastic.clients.elasticsearch.indices.update_aliases.Action;
+import com.liashenko.v.hybrid.search.config.property.DataLoadingProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Manages the versioned indices behind the read alias.
+ * <p>
+ * Searches and incremental writes go through the alias, which always points to exactly one
+ * {@code <alias>_v<n>} index. A rebuild creates the next version with bulk-load settings, fills it,
+ * restores the configured settings and then moves the alias in a single atomic alias update.
+ */
+@Slf4j
+public class IndexAdmin {
+    static final String BULK_REFRESH_INTERVAL = "-1";
+    static final String BULK_REPLICAS = "0";
+    static final String DEFAULT_REFRESH_INTERVAL = "1s";
+    static final String DEFAULT_REPLICAS = "1";
+    static final String EMBEDDING_MAPPING = "/mappings/properties/embedding";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final ElasticsearchClient client;
+    private final ResourceLoader resourceLoader;
+    private final String indexConfigPath;
+    private final String alias;
+    private final DataLoadingProperties.VectorIndexProperties vectorIndex;
+    private final Pattern versionPattern;
+    private final List<Runnable> aliasSwapListeners = new CopyOnWriteArrayList<>();
+
+    public IndexAdmin(ElasticsearchClient client,
+                      ResourceLoader resourceLoader,
+                      String indexConfigPath,
+                      String alias,
+                      DataLoadingProperties.VectorIndexProperties vectorIndex) {
+        this.client = client;
+        this.resourceLoader = resourceLoader;
+        this.indexConfigPath = indexConfigPath;
+        this.alias = alias;
+        this.vectorIndex = vectorIndex;
+        this.versionPattern = Pattern.compile(Pattern.quote(alias) + "_v(\\d+)");
+    }
+
+    public String alias() {
+        return alias;
+    }
+
+    /**
+     * Creates the first version behind the alias when neither the alias nor a legacy index of that name exists.
+     *
+     * @return {@code true} when an index has been created
+     */
+    public boolean createIfNeeded() {
+        try {
+            if (client.indices().exists(e -> e.index(alias)).value()) {
+                return false;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to check if index exists: '%s'".formatted(alias), e);
+        }
+        String index = versionName(nextVersion());
+        create(index, false, true);
+        return true;
+    }
+
+    /**
+     * Creates the next index version, not yet visible through the alias.
+     *
+     * @param bulkLoad whether to disable refresh and replicas until {@link #finishBulkLoad(String, int)}
+     * @return name of the new index
+     */
+    public String createNextVersion(boolean bulkLoad) {
+        String index = versionName(nextVersion());
+        create(index, bulkLoad, false);
+        return index;
+    }
+
+    /**
+     * Restores the configured refresh interval and replicas, merges segments and makes all documents searchable.
+     *
+     * @param index          bulk-loaded index
+     * @param maxNumSegments segments to force-merge down to, not merged when {@code <= 0}
+     */
+    public void finishBulkLoad(String index, int maxNumSegments) {
+        restoreSettings(index);
+        try {
+            if (maxNumSegments > 0) {
+                client.indices().forcemerge(f -> f.index(index).maxNumSegments((long) maxNumSegments));
+            }
+            client.indices().refresh(r -> r.index(index));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to finish bulk load of index: '%s'".formatted(index), e);
+        }
+    }
+
+    /**
+     * @return {@code true} while the alias holds no documents, e.g. right after {@link #createIfNeeded()}, so it
+     * serves no searches yet
+     */
+    public boolean isEmpty() {
+        try {
+            return client.count(c -> c.index(alias)).count() == 0;
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to count documents of index: '%s'".formatted(alias), e);
+        }
+    }
+
+    /**
+     * Disables refresh and replicas for the duration of a bulk load into an existing index.
+     *
+     * @param index index about to be bulk loaded
+     */
+    public void applyBulkLoadSettings(String index) {
+        putSettings(index, BULK_REFRESH_INTERVAL, BULK_REPLICAS);
+    }
+
+    /**
+     * Puts the refresh interval and replicas from the index configuration back in place.
+     *
+     * @param index index to restore
+     */
+    public void restoreSettings(String index) {
+        ObjectNode indexSettings = indexSettings(indexConfig());
+        putSettings(index,
+                indexSettings.path("refresh_interval").asText(DEFAULT_REFRESH_INTERVAL),
+                indexSettings.path("number_of_replicas").asText(DEFAULT_REPLICAS));
+    }
+
+    /**
+     * Points the alias at {@code index} in one atomic update. A legacy concrete index named like the alias
+     * is removed in the same update, so there is no moment without a searchable index.
+     *
+     * @param index index to serve reads and writes from
+     * @return indices the alias pointed to before
+     */
+    public Set<String> swapAlias(String index) {
+        Set<String> previous = resolve();
+        boolean legacyIndex = previous.contains(alias);
+        List<Action> actions = new ArrayList<>();
+        for (String old : previous) {
+            if (!old.equals(alias)) {
+                actions.add(Action.of(a -> a.remove(r -> r.index(old).alias(alias))));
+            }
+        }
+        if (legacyIndex) {
+            actions.add(Action.of(a -> a.removeIndex(r -> r.index(alias))));
+        }
+        actions.add(Action.of(a -> a.add(add -> add.index(index).alias(alias).isWriteIndex(true))));
+
+        try {
+            if (!client.indices().updateAliases(u -> u.actions(actions)).acknowledged()) {
+                throw new RuntimeException("Alias swap not acknowledged");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to point alias '%s' at '%s'".formatted(alias, index), e);
+        }
+        log.info("Alias '{}' switched from {} to '{}'", alias, previous, index);
+        aliasSwapListeners.forEach(Runnable::run);
+        return previous;
+    }
+
+    /**
+     * @param listener called after every {@link #swapAlias(String)}, e.g. to reload state derived from the old index
+     */
+    public void onAliasSwap(Runnable listener) {
+        aliasSwapListeners.add(listener);
+    }
+
+    /**
+     * Deletes index versions that are not behind the alias, keeping the newest {@code retained} for rollback.
+     *
+     * @param retained number of previous versions to keep
+     * @return deleted indices
+     */
+    public List<String> deleteOldVersions(int retained) {
+        Set<String> current = resolve();
+        List<String> old = versions().stream()
+                .filter(index -> !current.contains(index))
+                .sorted(Comparator.comparingInt(this::versionOf).reversed())
+                .skip(retained)
+                .toList();
+        old.forEach(this::delete);
+        return old;
+    }
+
+    /**
+     * Deletes every index version and a legacy index named like the alias.
+     */
+    public void deleteAll() {
+        List<String> indices = new ArrayList<>(versions());
+        if (resolve().contains(alias)) {
+            indices.add(alias);
+        }
+        indices.forEach(this::delete);
+    }
+
+    public void delete(String index) {
+        try {
+            if (!client.indices().delete(d -> d.index(index)).acknowledged()) {
+                throw new RuntimeException("Index deletion not acknowledged");
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete index: '%s'".formatted(index), e);
+        }
+        log.info("Index '{}' has been deleted", index);
+    }
+
+    /**
+     * @return indices behind the alias, the alias name itself for a legacy concrete index, or nothing
+     */
+    public Set<String> resolve() {
+        try {
+            if (client.indices().existsAlias(e -> e.name(alias)).value()) {
+                return client.indices().getAlias(g -> g.name(alias)).result().keySet();
+            }
+            return client.indices().exists(e -> e.index(alias)).value() ? Set.of(alias) : Set.of();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to resolve alias: '%s'".formatted(alias), e);
+        }
+    }
+
+    private List<String> versions() {
+        try {
+            return client.indices().get(g -> g
+                            .index(alias + "_v*")
+                            .allowNoIndices(true)
+                            .ignoreUnavailable(true))
+                    .result().keySet().stream()
+                    .filter(index -> versionPattern.matcher(index).matches())
+                    .toList();
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to list versions of index: '%s'".formatted(alias), e);
+        }
+    }
+
+    private int nextVersion() {
+        return versions().stream().mapToInt(this::versionOf).max().orElse(0) + 1;
+    }
+
+    private int versionOf(String index) {
+        Matcher matcher = versionPattern.matcher(index);
+        if (!matcher.matches()) {
+            throw new IllegalArgumentException("Not a version of '%s': '%s'".formatted(alias, index));
+        }
+        return Integer.parseInt(matcher.group(1));
+    }
+
+    private String versionName(int version) {
+        return alias + "_v" + version;
+    }
+
+    private void create(String index, boolean bulkLoad, boolean withAlias) {
+        ObjectNode config = indexConfig();
+        applyVectorIndexOptions(config, vectorIndex);
+        if (bulkLoad) {
+            indexSettings(config)
+                    .put("refresh_interval", BULK_REFRESH_INTERVAL)
+                    .put("number_of_replicas", BULK_REPLICAS);
+        }
+        if (withAlias) {
+            config.putObject("aliases").putObject(alias).put("is_write_index", true);
+        }
+
+        CreateIndexResponse response;
+        try (InputStream json = new ByteArrayInputStream(OBJECT_MAPPER.writeValueAsBytes(config))) {
+            response = client.indices().create(c -> c.index(index).withJson(json));
+        } catch (Exception ex) {
+            throw new RuntimeException("Failed to create index: '%s'".formatted(index), ex);
+        }
+        if (!response.acknowledged()) {
+            throw new RuntimeException("Failed to create index: '%s'".formatted(index));
+        }
+        log.info("Index '{}' has been created", index);
+    }
+
+    private void putSettings(String index, String refreshInterval, String replicas) {
+        try {
+            client.indices().putSettings(p -> p
+                    .index(index)
+                    .settings(s -> s
+                            .refreshInterval(t -> t.time(refreshInterval))
+                            .numberOfReplicas(replicas)));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to update settings of index: '%s'".formatted(index), e);
+        }
+        log.info("Index '{}' settings: refresh_interval={}, number_of_replicas={}", index, refreshInterval, replicas);
+    }
+
+    private ObjectNode indexConfig() {
+        try (InputStream in = resourceLoader.getResource(indexConfigPath).getInputStream()) {
+            return (ObjectNode) OBJECT_MAPPER.readTree(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read index config: '%s'".formatted(indexConfigPath), e);
+        }
+    }
+
+    private static ObjectNode indexSettings(ObjectNode config) {
+        return config.withObject("/settings/index");
+    }
+
+    /**
+     * Replaces the {@code index_options} of the embedding field with the configured quantization and HNSW
+     * parameters. {@code m} and {@code ef_construction} only exist for the graph based types.
+     */
+    static void applyVectorIndexOptions(ObjectNode config, DataLoadingProperties.VectorIndexProperties vectorIndex) {
+        if (!StringUtils.hasText(vectorIndex.getType())) {
+            return;
+        }
+        ObjectNode options = config.withObject(EMBEDDING_MAPPING).putObject("index_options");
+        options.put("type", vectorIndex.getType());
+        if (vectorIndex.getType().endsWith("hnsw")) {
+            if (vectorIndex.getM() != null) {
+                options.put("m", vectorIndex.getM());
+            }
+            if (vectorIndex.getEfConstruction() != null) {
+                options.put("ef_construction", vectorIndex.getEfConstruction());
+            }
+        }
+        if (vectorIndex.getConfidenceInterval() != null && vectorIndex.getType().matches("int[48]_.*")) {
+            options.put("confidence_interval", vectorIndex.getConfidenceInterval());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.liashenko.v.hybrid.search.service.indexing;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counts changes to the searchable data of this instance. Caches of search results key their entries by the
+ * current generation, so advancing it after a load, delete or alias swap invalidates them without tracking
+ * which documents have changed.
+ */
+public class IndexGeneration {
+    private final AtomicLong generation = new AtomicLong();
+    private final List<Runnable> listeners = new CopyOnWriteArrayList<>();
+
+    public long current() {
+        return generation.get();
+    }
+
+    /**
+     * Starts a new generation and notifies the listeners.
+     *
+     * @return the new generation
+     */
+    public long advance() {
+        long next = generation.incrementAndGet();
+        listeners.forEach(Runnable::run);
+        return next;
+    }
+
+    /**
+     * @param listener called after every {@link #advance()}, e.g. to free the entries of the previous generation
+     */
+    public void onAdvance(Runnable listener) {
+        listeners.add(listener);
+    }
+}
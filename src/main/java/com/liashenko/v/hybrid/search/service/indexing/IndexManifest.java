@@ -0,0 +1,121 @@
+package com.liashenko.v.hybrid.search.service.indexing;
+
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.liashenko.v.hybrid.search.model.Conference;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Fingerprints of the conferences written by the last load, persisted between runs so a delta load can tell
+ * new, changed, unchanged and removed rows apart.
+ * <p>
+ * Stored as one {@code id<TAB>fingerprint} line per conference, replaced atomically on save.
+ */
+@Slf4j
+public class IndexManifest {
+    private static final char SEPARATOR = '\t';
+
+    private final Path path;
+
+    public IndexManifest(Path path) {
+        this.path = path;
+    }
+
+    /**
+     * @return fingerprints by conference id, empty when no load has been recorded
+     */
+    public Map<String, HashCode> load() {
+        Map<String, HashCode> fingerprints = new HashMap<>();
+        if (!Files.exists(path)) {
+            return fingerprints;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                int separator = line.lastIndexOf(SEPARATOR);
+                fingerprints.put(line.substring(0, separator), HashCode.fromString(line.substring(separator + 1)));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read index manifest " + path, e);
+        }
+        log.info("Loaded {} fingerprints from index manifest {}", fingerprints.size(), path);
+        return fingerprints;
+    }
+
+    public void save(Map<String, HashCode> fingerprints) {
+        try {
+            Path directory = path.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            Path temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+            try (BufferedWriter writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+                for (Map.Entry<String, HashCode> entry : fingerprints.entrySet()) {
+                    writer.append(entry.getKey()).append(SEPARATOR).append(entry.getValue().toString());
+                    writer.newLine();
+                }
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write index manifest " + path, e);
+        }
+        log.info("Saved {} fingerprints to index manifest {}", fingerprints.size(), path);
+    }
+
+    /**
+     * Forgets the last load, the next delta load re-indexes every row.
+     */
+    public void clear() {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to delete index manifest " + path, e);
+        }
+    }
+
+    /**
+     * Hashes every field that ends up in the indexed document or in the embedding input.
+     *
+     * @param conference parsed conference, without embedding
+     * @return content fingerprint
+     */
+    public static HashCode fingerprint(Conference conference) {
+        Hasher hasher = Hashing.murmur3_128().newHasher();
+        put(hasher, conference.getId());
+        put(hasher, conference.getName());
+        put(hasher, conference.getGroupId());
+        put(hasher, conference.getDescription());
+        put(hasher, conference.getStartDate());
+        put(hasher, conference.getEndDate());
+        put(hasher, conference.getFormattedLocation());
+        put(hasher, conference.getCountryDescription());
+        put(hasher, conference.getAttendeesCount());
+        put(hasher, conference.getCompanyAttendeesCount());
+        put(hasher, conference.getInvestorAttendeesCount());
+        put(hasher, conference.getAttendeeNamesConcatString());
+        put(hasher, conference.getIndustrySectorsConcatString());
+        put(hasher, conference.getIndustryGroupsConcatString());
+        put(hasher, conference.getIndustryCodesConcatString());
+        return hasher.hash();
+    }
+
+    private static void put(Hasher hasher, Object value) {
+        // null marker and length prefix keep ("ab", "c") and ("a", "bc") apart
+        if (value == null) {
+            hasher.putInt(-1);
+            return;
+        }
+        String text = value.toString();
+        hasher.putInt(text.length()).putString(text, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,33 @@
+package com.liashenko.v.hybrid.search.service.indexing;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Serializes the operations that write the dataset: full loads, delta loads, deletes and reindexing. They share
+ * the index manifest, and a load through the alias racing a reindex would write into the version about to be
+ * replaced. A second operation is rejected rather than queued behind one that takes minutes.
+ */
+public class IndexWriteLock {
+    private final ReentrantLock lock = new ReentrantLock();
+    private volatile String running;
+
+    /**
+     * @param operation name of the operation, reported to a concurrent caller
+     * @param action    the operation
+     * @return result of {@code action}
+     * @throws IllegalStateException if another operation holds the lock
+     */
+    public <T> T runExclusively(String operation, Supplier<T> action) {
+        if (!lock.tryLock()) {
+            throw new IllegalStateException("Cannot start %s, %s is already running".formatted(operation, running));
+        }
+        try {
+            running = operation;
+            return action.get();
+        } finally {
+            running = null;
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.liashenko.v.hybrid.search.service.indexing;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Outcome of an indexing run.
+ *
+ * @param documents     number of documents submitted
+ * @param succeeded     number of documents acknowledged by Elasticsearch
+ * @param failures      ids that could not be indexed, mapped to the failure reason
+ * @param embedding     throughput of the embedding stage
+ * @param bulk          throughput of the bulk-write stage
+ * @param elapsedMillis wall-clock duration of the run
+ */
+public record IndexingReport(long documents,
+                             long succeeded,
+                             Map<String, String> failures,
+                             StageThroughput embedding,
+                             StageThroughput bulk,
+                             long elapsedMillis) {
+
+    public static IndexingReport empty() {
+        return new IndexingReport(0, 0, Map.of(), StageThroughput.EMPTY, StageThroughput.EMPTY, 0);
+    }
+
+    /**
+     * Combines reports of consecutive runs, e.g. the chunks of a streaming load.
+     *
+     * @param other report of the following run
+     * @return report covering both runs
+     */
+    public IndexingReport merge(IndexingReport other) {
+        Map<String, String> failed = new HashMap<>(failures);
+        failed.putAll(other.failures);
+        long elapsed = elapsedMillis + other.elapsedMillis;
+        return new IndexingReport(documents + other.documents,
+                succeeded + other.succeeded,
+                failed,
+                embedding.merge(other.embedding, elapsed),
+                bulk.merge(other.bulk, elapsed),
+                elapsed);
+    }
+
+    /**
+     * @param documents          documents that passed the stage
+     * @param bytes              serialized bytes sent by the stage, zero when it sends nothing to Elasticsearch
+     * @param busyMillis         time spent in the stage summed over all worker threads
+     * @param docsPerSecond      documents per second of wall-clock time
+     * @param megabytesPerSecond megabytes per second of wall-clock time
+     */
+    public record StageThroughput(long documents, long bytes, long busyMillis, double docsPerSecond, double megabytesPerSecond) {
+        static final StageThroughput EMPTY = new StageThroughput(0, 0, 0, 0, 0);
+        private static final double MEGABYTE = 1024 * 1024;
+
+        static StageThroughput of(long documents, long bytes, long busyMillis, long elapsedMillis) {
+            return new StageThroughput(documents, bytes, busyMillis,
+                    perSecond(documents, elapsedMillis), perSecond(bytes / MEGABYTE, elapsedMillis));
+        }
+
+        StageThroughput merge(StageThroughput other, long elapsedMillis) {
+            return of(documents + other.documents, bytes + other.bytes, busyMillis + other.busyMillis, elapsedMillis);
+        }
+
+        static double perSecond(double amount, long elapsedMillis) {
+            return elapsedMillis == 0 ? 0 : amount * 1000 / elapsedMillis;
+        }
+    }
+}
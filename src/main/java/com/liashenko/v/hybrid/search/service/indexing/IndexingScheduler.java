@@ -0,0 +1,449 @@
+package com.liashenko.v.hybrid.search.service.indexing;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.ElasticsearchException;
+import co.elastic.clients.elasticsearch.core.BulkRequest;
+import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
+import co.elastic.clients.elasticsearch.core.bulk.BulkResponseItem;
+import co.elastic.clients.transport.TransportException;
+import co.elastic.clients.util.BinaryData;
+import com.google.common.base.Stopwatch;
+import com.google.common.collect.Lists;
+import com.liashenko.v.hybrid.search.config.property.DataLoadingProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.service.EmbeddingService;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Runs indexing as a two-stage pipeline: embedding on the embedding pool, bulk writes on the bulk pool,
+ * so slow embeddings cannot starve Elasticsearch writes. At most {@code data-loading.max-in-flight-batches}
+ * batches are in either stage; submitting more blocks the caller.
+ * <p>
+ * Embedded documents are serialized once on the embedding pool and packed into bulk requests by serialized
+ * size ({@code data-loading.bulk.max-request-size}) rather than by embedding batch, at most
+ * {@code data-loading.bulk.max-in-flight-requests} of them are sent concurrently.
+ * <p>
+ * Bulk items rejected with 429/503 are retried alone with exponential backoff, other item failures are
+ * recorded with their ids and do not fail the rest of the batch.
+ * <p>
+ * Every embedding batch and bulk request is recorded in {@code indexing.embedding.batch},
+ * {@code indexing.bulk.request} and {@code indexing.bulk.request.size}.
+ */
+@Slf4j
+public class IndexingScheduler {
+    private static final Set<Integer> RETRYABLE_STATUSES = Set.of(429, 503);
+
+    private final ElasticsearchClient client;
+    private final EmbeddingService embeddingService;
+    private final Executor embeddingExecutor;
+    private final Executor bulkExecutor;
+    private final int maxInFlightBatches;
+    private final DataLoadingProperties.BulkProperties bulk;
+    private final DataLoadingProperties.RetryProperties retry;
+    private final Timer embeddingTimer;
+    private final Timer bulkTimer;
+    private final DistributionSummary bulkBytes;
+
+    public IndexingScheduler(ElasticsearchClient client,
+                             EmbeddingService embeddingService,
+                             Executor embeddingExecutor,
+                             Executor bulkExecutor,
+                             DataLoadingProperties properties,
+                             MeterRegistry meterRegistry) {
+        this.client = client;
+        this.embeddingService = embeddingService;
+        this.embeddingExecutor = embeddingExecutor;
+        this.bulkExecutor = bulkExecutor;
+        this.maxInFlightBatches = properties.getMaxInFlightBatches();
+        this.bulk = properties.getBulk();
+        this.retry = properties.getRetry();
+        this.embeddingTimer = Timer.builder("indexing.embedding.batch")
+                .description("Embedding of one indexing batch")
+                .register(meterRegistry);
+        this.bulkTimer = Timer.builder("indexing.bulk.request")
+                .description("One bulk request including its retries")
+                .register(meterRegistry);
+        this.bulkBytes = DistributionSummary.builder("indexing.bulk.request.size")
+                .description("Serialized documents per bulk request")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Embeds and indexes documents batch by batch.
+     *
+     * @param indexName       target index
+     * @param docs            documents to index
+     * @param batchSize       documents per embedding batch
+     * @param toBulkOperation converts an embedded document to its bulk operation, ideally with a
+     *                        {@link BinaryData} document so it is serialized only once
+     * @return per-document outcome and per-stage throughput
+     */
+    public IndexingReport index(String indexName,
+                                List<Conference> docs,
+                                int batchSize,
+                                Function<Conference, BulkOperation> toBulkOperation) {
+        IndexingRun run = new IndexingRun();
+        BulkBuffer buffer = new BulkBuffer(indexName, run);
+        Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (List<Conference> batch : Lists.partition(docs, batchSize)) {
+            inFlight.acquireUninterruptibly();
+            CompletableFuture<Void> future = CompletableFuture
+                    .supplyAsync(() -> embed(batch, run), embeddingExecutor)
+                    .thenAccept(embedded -> buffer.add(toBulkOperations(embedded, toBulkOperation, run)))
+                    // only embedding failures get here, conversion and bulk failures are recorded per document
+                    .exceptionally(e -> {
+                        batch.forEach(conference -> run.failed(conference.getId(), reason(e)));
+                        return null;
+                    })
+                    .whenComplete((ignored, e) -> inFlight.release());
+            futures.add(future);
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+        buffer.flush();
+        buffer.awaitWrites();
+
+        IndexingReport report = run.report(docs.size());
+        log.info("Indexed {} of {} documents into '{}' in {} ms, {} failed; embedding {} docs/s, bulk {} docs/s, {} MB/s",
+                report.succeeded(), report.documents(), indexName, report.elapsedMillis(), report.failures().size(),
+                Math.round(report.embedding().docsPerSecond()), Math.round(report.bulk().docsPerSecond()),
+                "%.2f".formatted(report.bulk().megabytesPerSecond()));
+        return report;
+    }
+
+    /**
+     * Deletes documents by id with the same bounded, retrying bulk writes as {@link #index}.
+     * Ids that are already absent count as succeeded.
+     *
+     * @param indexName target index
+     * @param ids       ids of the documents to delete
+     * @param batchSize operations per bulk request
+     * @return per-document outcome
+     */
+    public IndexingReport delete(String indexName, List<String> ids, int batchSize) {
+        IndexingRun run = new IndexingRun();
+        Semaphore inFlight = new Semaphore(maxInFlightBatches);
+        List<CompletableFuture<Void>> futures = new ArrayList<>();
+
+        for (List<String> batch : Lists.partition(ids, batchSize)) {
+            inFlight.acquireUninterruptibly();
+            List<BulkOperation> operations = batch.stream()
+                    .map(id -> BulkOperation.of(b -> b.delete(d -> d.id(id))))
+                    .toList();
+            CompletableFuture<Void> future = CompletableFuture
+                    .runAsync(() -> write(indexName, operations, 0, run), bulkExecutor)
+                    .exceptionally(e -> {
+                        batch.forEach(id -> run.failed(id, reason(e)));
+                        return null;
+                    })
+                    .whenComplete((ignored, e) -> inFlight.release());
+            futures.add(future);
+        }
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+        IndexingReport report = run.report(ids.size());
+        log.info("Deleted {} of {} documents from '{}' in {} ms, {} failed",
+                report.succeeded(), report.documents(), indexName, report.elapsedMillis(), report.failures().size());
+        return report;
+    }
+
+    private List<Conference> embed(List<Conference> batch, IndexingRun run) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<Conference> embedded = embeddingService.embed(batch);
+        run.embedded(embedded.size(), stopwatch.elapsed(TimeUnit.NANOSECONDS));
+        embeddingTimer.record(stopwatch.elapsed());
+        return embedded;
+    }
+
+    /**
+     * Converts the documents one by one, a document that cannot be converted is recorded as failed on its own.
+     */
+    private static List<BulkOperation> toBulkOperations(List<Conference> embedded,
+                                                        Function<Conference, BulkOperation> toBulkOperation,
+                                                        IndexingRun run) {
+        List<BulkOperation> operations = new ArrayList<>(embedded.size());
+        for (Conference conference : embedded) {
+            try {
+                operations.add(toBulkOperation.apply(conference));
+            } catch (RuntimeException e) {
+                run.failed(conference.getId(), reason(e));
+            }
+        }
+        return operations;
+    }
+
+    private void write(String indexName, List<BulkOperation> operations, long bytes, IndexingRun run) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<BulkOperation> pending = operations;
+        int succeeded = 0;
+        for (int attempt = 1; !pending.isEmpty(); attempt++) {
+            BulkAttempt outcome = attempt(indexName, pending, run);
+            succeeded += outcome.succeeded();
+            List<BulkOperation> retryable = outcome.retryable();
+            if (!retryable.isEmpty() && attempt >= retry.getMaxAttempts()) {
+                String reason = "Retries exhausted after %d attempts".formatted(attempt);
+                retryable.forEach(operation -> run.failed(idOf(operation), reason));
+                break;
+            }
+            if (!retryable.isEmpty()) {
+                Duration backoff = backoff(attempt);
+                log.warn("Retrying {} of {} bulk operations into '{}' in {} ms", retryable.size(), pending.size(), indexName, backoff.toMillis());
+                sleep(backoff);
+            }
+            pending = retryable;
+        }
+        // permanently failed operations are in the failures, not in the bulk throughput
+        run.written(succeeded, bytes, stopwatch.elapsed(TimeUnit.NANOSECONDS));
+        bulkTimer.record(stopwatch.elapsed());
+        if (bytes > 0) {
+            bulkBytes.record(bytes);
+        }
+    }
+
+    /**
+     * @return number of acknowledged operations and the operations worth retrying, the others are recorded as
+     * succeeded or failed
+     */
+    private BulkAttempt attempt(String indexName, List<BulkOperation> operations, IndexingRun run) {
+        BulkResponse response;
+        try {
+            response = client.bulk(new BulkRequest.Builder()
+                    .index(indexName)
+                    .operations(operations)
+                    .build());
+        } catch (IOException | ElasticsearchException e) {
+            if (isRetryable(e)) {
+                return new BulkAttempt(0, operations);
+            }
+            operations.forEach(operation -> run.failed(idOf(operation), e.getMessage()));
+            return new BulkAttempt(0, List.of());
+        }
+
+        int succeeded = 0;
+        List<BulkOperation> retryable = new ArrayList<>();
+        List<BulkResponseItem> items = response.items();
+        for (int i = 0; i < items.size(); i++) {
+            BulkResponseItem item = items.get(i);
+            if (item.error() == null) {
+                run.succeeded();
+                succeeded++;
+            } else if (RETRYABLE_STATUSES.contains(item.status())) {
+                retryable.add(operations.get(i));
+            } else {
+                run.failed(item.id(), item.error().reason());
+            }
+        }
+        return new BulkAttempt(succeeded, retryable);
+    }
+
+    private static boolean isRetryable(Exception e) {
+        return switch (e) {
+            case ElasticsearchException esException -> RETRYABLE_STATUSES.contains(esException.status());
+            case TransportException transportException -> RETRYABLE_STATUSES.contains(transportException.statusCode());
+            // connection resets and timeouts
+            case IOException ignored -> true;
+            default -> false;
+        };
+    }
+
+    private Duration backoff(int attempt) {
+        long exponential = retry.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        long capped = Math.min(exponential, retry.getMaxBackoff().toMillis());
+        // jitter keeps retrying batches from hitting the cluster in lockstep
+        return Duration.ofMillis(capped / 2 + ThreadLocalRandom.current().nextLong(capped / 2 + 1));
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while backing off bulk retry", e);
+        }
+    }
+
+    /**
+     * Serialized size of the document, the action line is small and not counted.
+     */
+    private long sizeOf(BulkOperation operation) {
+        if (!operation.isIndex()) {
+            return 0;
+        }
+        Object document = operation.index().document();
+        BinaryData binary = document instanceof BinaryData data ? data : BinaryData.of(document, client._jsonpMapper());
+        return binary.size();
+    }
+
+    static String idOf(BulkOperation operation) {
+        if (operation.isIndex()) {
+            return operation.index().id();
+        }
+        if (operation.isDelete()) {
+            return operation.delete().id();
+        }
+        return null;
+    }
+
+    private static String reason(Throwable e) {
+        Throwable cause = e.getCause() == null ? e : e.getCause();
+        return cause.getClass().getSimpleName() + ": " + cause.getMessage();
+    }
+
+    /**
+     * Packs operations from any number of embedding batches into bulk requests bounded by serialized size
+     * and operation count. Sending blocks while too many requests are in flight, which in turn holds back
+     * the embedding stage.
+     */
+    private class BulkBuffer {
+        private final String indexName;
+        private final IndexingRun run;
+        private final Semaphore inFlightRequests = new Semaphore(bulk.getMaxInFlightRequests());
+        private final List<CompletableFuture<Void>> writes = new ArrayList<>();
+        private List<BulkOperation> pending = new ArrayList<>();
+        private long pendingBytes;
+
+        BulkBuffer(String indexName, IndexingRun run) {
+            this.indexName = indexName;
+            this.run = run;
+        }
+
+        void add(List<BulkOperation> operations) {
+            long maxBytes = bulk.getMaxRequestSize().toBytes();
+            List<List<BulkOperation>> full = new ArrayList<>();
+            List<Long> fullBytes = new ArrayList<>();
+            synchronized (this) {
+                for (BulkOperation operation : operations) {
+                    long bytes;
+                    try {
+                        bytes = sizeOf(operation);
+                    } catch (RuntimeException e) {
+                        run.failed(idOf(operation), reason(e));
+                        continue;
+                    }
+                    if (!pending.isEmpty() && (pendingBytes + bytes > maxBytes || pending.size() >= bulk.getMaxOperations())) {
+                        full.add(pending);
+                        fullBytes.add(pendingBytes);
+                        pending = new ArrayList<>();
+                        pendingBytes = 0;
+                    }
+                    pending.add(operation);
+                    pendingBytes += bytes;
+                }
+            }
+            for (int i = 0; i < full.size(); i++) {
+                send(full.get(i), fullBytes.get(i));
+            }
+        }
+
+        void flush() {
+            List<BulkOperation> rest;
+            long restBytes;
+            synchronized (this) {
+                rest = pending;
+                restBytes = pendingBytes;
+                pending = new ArrayList<>();
+                pendingBytes = 0;
+            }
+            if (!rest.isEmpty()) {
+                send(rest, restBytes);
+            }
+        }
+
+        void awaitWrites() {
+            CompletableFuture<?>[] all;
+            synchronized (writes) {
+                all = writes.toArray(new CompletableFuture[0]);
+            }
+            CompletableFuture.allOf(all).join();
+        }
+
+        /**
+         * Failures of this request, including a rejected submission, are recorded for its operations only, the
+         * operations of the other requests keep their own outcome.
+         */
+        private void send(List<BulkOperation> operations, long bytes) {
+            inFlightRequests.acquireUninterruptibly();
+            CompletableFuture<Void> write;
+            try {
+                write = CompletableFuture
+                        .runAsync(() -> write(indexName, operations, bytes, run), bulkExecutor)
+                        .exceptionally(e -> {
+                            operations.forEach(operation -> run.failed(idOf(operation), reason(e)));
+                            return null;
+                        })
+                        .whenComplete((ignored, e) -> inFlightRequests.release());
+            } catch (RuntimeException e) {
+                operations.forEach(operation -> run.failed(idOf(operation), reason(e)));
+                inFlightRequests.release();
+                return;
+            }
+            synchronized (writes) {
+                writes.add(write);
+            }
+        }
+    }
+
+    private record BulkAttempt(int succeeded, List<BulkOperation> retryable) {
+    }
+
+    private static class IndexingRun {
+        private final Stopwatch stopwatch = Stopwatch.createStarted();
+        private final LongAdder succeeded = new LongAdder();
+        private final Map<String, String> failures = new ConcurrentHashMap<>();
+        private final LongAdder embeddedDocs = new LongAdder();
+        private final LongAdder embeddingNanos = new LongAdder();
+        private final LongAdder writtenDocs = new LongAdder();
+        private final LongAdder writtenBytes = new LongAdder();
+        private final LongAdder bulkNanos = new LongAdder();
+
+        void succeeded() {
+            succeeded.increment();
+        }
+
+        void failed(String id, String reason) {
+            failures.put(String.valueOf(id), String.valueOf(reason));
+        }
+
+        void embedded(int docs, long nanos) {
+            embeddedDocs.add(docs);
+            embeddingNanos.add(nanos);
+        }
+
+        void written(int docs, long bytes, long nanos) {
+            writtenDocs.add(docs);
+            writtenBytes.add(bytes);
+            bulkNanos.add(nanos);
+        }
+
+        IndexingReport report(int documents) {
+            long elapsed = stopwatch.elapsed(TimeUnit.MILLISECONDS);
+            return new IndexingReport(documents,
+                    succeeded.sum(),
+                    Map.copyOf(failures),
+                    IndexingReport.StageThroughput.of(embeddedDocs.sum(), 0, TimeUnit.NANOSECONDS.toMillis(embeddingNanos.sum()), elapsed),
+                    IndexingReport.StageThroughput.of(writtenDocs.sum(), writtenBytes.sum(), TimeUnit.NANOSECONDS.toMillis(bulkNanos.sum()), elapsed),
+                    elapsed);
+        }
+    }
+}
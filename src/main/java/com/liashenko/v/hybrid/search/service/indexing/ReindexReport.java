@@ -0,0 +1,20 @@
+package com.liashenko.v.hybrid.search.service.indexing;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Outcome of a blue/green reindex.
+ *
+ * @param index         new index version now behind the alias
+ * @param previous      indices the alias pointed to before the swap
+ * @param deleted       old versions garbage-collected after the swap
+ * @param indexing      report of loading the new version
+ * @param elapsedMillis wall-clock duration including settings restore and force merge
+ */
+public record ReindexReport(String index,
+                            Set<String> previous,
+                            List<String> deleted,
+                            IndexingReport indexing,
+                            long elapsedMillis) {
+}
@@ -0,0 +1,207 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.BatchSearchResult;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.model.FieldSet;
+import com.liashenko.v.hybrid.search.model.SearchFilters;
+import com.liashenko.v.hybrid.search.model.SearchPage;
+import com.liashenko.v.hybrid.search.model.SearchQuery;
+import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.indexing.IndexGeneration;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingReport;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.regex.Pattern;
+
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Caches offset-paged search results in front of another {@link SearchService}.
+ * <p>
+ * Entries are keyed by the normalized request and the {@link IndexGeneration} they were computed in; writes through
+ * this service and the data loading endpoints advance the generation, which drops every cached result. Entries also
+ * expire after a TTL, which bounds staleness for changes the generation does not see, e.g. documents that become
+ * searchable only on the next refresh. Cursor pages and batches are not cached.
+ * Cached results are shared between callers and must not be modified.
+ */
+public class CachingSearchService implements SearchService {
+    static final String CACHE_NAME = "search.results";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    private final SearchService delegate;
+    private final IndexGeneration indexGeneration;
+    private final Cache<Key, List<Conference>> cache;
+
+    public CachingSearchService(SearchService delegate,
+                                SearchProperties.ResultCacheProperties properties,
+                                IndexGeneration indexGeneration,
+                                MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.indexGeneration = indexGeneration;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(properties.getMaximumSize())
+                .expireAfterWrite(properties.getTtl())
+                .recordStats()
+                .build();
+        indexGeneration.onAdvance(cache::invalidateAll);
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+        Gauge.builder("search.index.generation", indexGeneration, IndexGeneration::current)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Wraps the service with a result cache when caching is enabled.
+     *
+     * @param delegate        service performing the actual search
+     * @param properties      cache settings
+     * @param indexGeneration generation the cached results belong to
+     * @param meterRegistry   registry the cache statistics are exported to
+     * @return caching decorator, or {@code delegate} itself when caching is disabled
+     */
+    public static SearchService decorate(SearchService delegate,
+                                         SearchProperties.ResultCacheProperties properties,
+                                         IndexGeneration indexGeneration,
+                                         MeterRegistry meterRegistry) {
+        if (!properties.isEnabled()) {
+            return delegate;
+        }
+        return new CachingSearchService(delegate, properties, indexGeneration, meterRegistry);
+    }
+
+    @Override
+    public List<Conference> search(SearchQuery query) throws IOException, InterruptedException {
+        if (isBlank(query.getQueryText()) || query.getCursor() != null) {
+            return delegate.search(query);
+        }
+        Key key = Key.of(query, indexGeneration.current());
+        List<Conference> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        List<Conference> conferences = List.copyOf(delegate.search(query));
+        cache.put(key, conferences);
+        return conferences;
+    }
+
+    /**
+     * Serves cached results, but never caches asynchronous ones: they may be the degraded keyword-only fallback.
+     */
+    @Override
+    public CompletableFuture<List<Conference>> searchAsync(SearchQuery query) {
+        if (!isBlank(query.getQueryText())) {
+            List<Conference> cached = cache.getIfPresent(Key.of(query, indexGeneration.current()));
+            if (cached != null) {
+                return CompletableFuture.completedFuture(cached);
+            }
+        }
+        return delegate.searchAsync(query);
+    }
+
+    @Override
+    public SearchPage searchPage(SearchQuery query) throws IOException, InterruptedException {
+        return delegate.searchPage(query);
+    }
+
+    @Override
+    public BatchSearchResult searchBatch(List<SearchQuery> queries) throws IOException, InterruptedException {
+        return delegate.searchBatch(queries);
+    }
+
+    @Override
+    public IndexingReport index(List<Conference> docs) {
+        try {
+            return delegate.index(docs);
+        } finally {
+            indexGeneration.advance();
+        }
+    }
+
+    @Override
+    public IndexingReport index(String targetIndex, List<Conference> docs) {
+        try {
+            return delegate.index(targetIndex, docs);
+        } finally {
+            indexGeneration.advance();
+        }
+    }
+
+    @Override
+    public IndexingReport delete(List<String> ids) {
+        try {
+            return delegate.delete(ids);
+        } finally {
+            indexGeneration.advance();
+        }
+    }
+
+    @Override
+    public void deleteData() {
+        try {
+            delegate.deleteData();
+        } finally {
+            indexGeneration.advance();
+        }
+    }
+
+    @Override
+    public void warmUp() {
+        delegate.warmUp();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public boolean createIndexIfNeeded() {
+        boolean created = delegate.createIndexIfNeeded();
+        if (created) {
+            indexGeneration.advance();
+        }
+        return created;
+    }
+
+    static String normalize(String text) {
+        return WHITESPACE.matcher(text.strip())
+                .replaceAll(" ")
+                .toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Everything that changes the result of an offset-paged search.
+     */
+    record Key(String queryText,
+               String type,
+               int offset,
+               int limit,
+               SearchFilters filters,
+               Integer k,
+               Integer numCandidates,
+               FieldSet fieldSet,
+               boolean explain,
+               long generation) {
+
+        static Key of(SearchQuery query, long generation) {
+            return new Key(normalize(query.getQueryText()),
+                    query.getType(),
+                    query.getOffset(),
+                    query.getLimit(),
+                    query.getFilters(),
+                    query.getK(),
+                    query.getNumCandidates(),
+                    query.getFieldSet(),
+                    query.isExplain(),
+                    generation);
+        }
+    }
+}
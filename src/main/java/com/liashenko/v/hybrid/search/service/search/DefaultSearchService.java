@@ -1,35 +1,69 @@
 package com.liashenko.v.hybrid.search.service.search;
 
+import co.elastic.clients.elasticsearch.ElasticsearchAsyncClient;
 import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.Time;
+import co.elastic.clients.elasticsearch._types.query_dsl.FieldAndFormat;
 import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
-import co.elastic.clients.elasticsearch.core.BulkRequest;
-import co.elastic.clients.elasticsearch.core.BulkResponse;
+import co.elastic.clients.elasticsearch.core.MsearchResponse;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.SearchResponse;
 import co.elastic.clients.elasticsearch.core.bulk.BulkOperation;
 import co.elastic.clients.elasticsearch.core.bulk.IndexOperation;
-import co.elastic.clients.elasticsearch.indices.CreateIndexRequest;
-import co.elastic.clients.elasticsearch.indices.CreateIndexResponse;
-import co.elastic.clients.elasticsearch.indices.DeleteIndexRequest;
-import co.elastic.clients.elasticsearch.indices.DeleteIndexResponse;
-import co.elastic.clients.elasticsearch.indices.ExistsRequest;
-import co.elastic.clients.transport.endpoints.BooleanResponse;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultiSearchResponseItem;
+import co.elastic.clients.elasticsearch.core.msearch.MultisearchBody;
+import co.elastic.clients.elasticsearch.core.msearch.RequestItem;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import co.elastic.clients.json.JsonpUtils;
+import co.elastic.clients.util.BinaryData;
 import com.google.common.base.Stopwatch;
-import com.google.common.collect.Lists;
+import com.google.common.primitives.Floats;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.BatchSearchResult;
 import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.model.FieldSet;
+import com.liashenko.v.hybrid.search.model.InvalidSearchRequestException;
+import com.liashenko.v.hybrid.search.model.SearchCursor;
+import com.liashenko.v.hybrid.search.model.SearchFilters;
+import com.liashenko.v.hybrid.search.model.SearchPage;
+import com.liashenko.v.hybrid.search.model.SearchQuery;
 import com.liashenko.v.hybrid.search.service.EmbeddingService;
 import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.embedding.EmbeddingUnavailableException;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingReport;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.json.JsonArray;
+import jakarta.json.JsonNumber;
+import jakarta.json.JsonString;
+import jakarta.json.JsonValue;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ResourceLoader;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
-import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import static com.liashenko.v.hybrid.search.model.Conference.ATTENDEES_CONCAT_STRING_FIELD;
 import static com.liashenko.v.hybrid.search.model.Conference.ATTENDEES_COUNT_FIELD;
@@ -44,6 +78,7 @@ import static com.liashenko.v.hybrid.search.model.Conference.ID_FIELD;
 import static com.liashenko.v.hybrid.search.model.Conference.INDUSTRY_CODES_CONCAT_STRING_FIELD;
 import static com.liashenko.v.hybrid.search.model.Conference.INDUSTRY_GROUPS_CONCAT_STRING_FIELD;
 import static com.liashenko.v.hybrid.search.model.Conference.INDUSTRY_SECTORS_CONCAT_STRING_FIELD;
+import static com.liashenko.v.hybrid.search.model.Conference.INDUSTRY_SECTORS_FIELD;
 import static com.liashenko.v.hybrid.search.model.Conference.INVESTOR_ATTENDEES_COUNT_FIELD;
 import static com.liashenko.v.hybrid.search.model.Conference.NAME_FIELD;
 import static com.liashenko.v.hybrid.search.model.Conference.START_DATE_FIELD;
@@ -53,23 +88,43 @@ import static org.apache.commons.lang3.StringUtils.isBlank;
 public class DefaultSearchService implements SearchService {
 
     protected final ElasticsearchClient client;
+    protected final ElasticsearchAsyncClient asyncClient;
     protected final String indexName;
     protected final EmbeddingService embeddingService;
-    protected final ResourceLoader resourceLoader;
-    protected final String indexConfigPath;
+    protected final IndexAdmin indexAdmin;
     protected final int indexBatchSize;
-    protected final Executor taskExecutor;
-
-    public DefaultSearchService(ElasticsearchClient client, String indexName, EmbeddingService embeddingService, ResourceLoader resourceLoader, String indexConfigPath, int indexBatchSize, Executor taskExecutor) {
+    protected final IndexingScheduler indexingScheduler;
+    protected final SearchProperties searchProperties;
+    protected final Executor searchTaskExecutor;
+    protected final ReciprocalRankFusion reciprocalRankFusion;
+    protected final SearchMetrics searchMetrics;
+    /**
+     * In-process kNN legs, {@code null} unless {@code search.local-vector.enabled}.
+     */
+    protected final LocalVectorSearch localVectorSearch;
+
+    public DefaultSearchService(ElasticsearchClient client, String indexName, EmbeddingService embeddingService, IndexAdmin indexAdmin, int indexBatchSize, IndexingScheduler indexingScheduler, SearchProperties searchProperties, Executor searchTaskExecutor, MeterRegistry meterRegistry) {
         this.client = client;
         this.indexName = indexName;
         this.embeddingService = embeddingService;
-        this.resourceLoader = resourceLoader;
-        this.indexConfigPath = indexConfigPath;
+        this.indexAdmin = indexAdmin;
         this.indexBatchSize = indexBatchSize;
-        this.taskExecutor = taskExecutor;
+        this.indexingScheduler = indexingScheduler;
+        this.searchProperties = searchProperties;
+        this.searchTaskExecutor = searchTaskExecutor;
+        this.reciprocalRankFusion = new ReciprocalRankFusion(searchProperties.getRrf());
+        this.asyncClient = new ElasticsearchAsyncClient(client._transport(), client._transportOptions());
+        this.searchMetrics = new SearchMetrics(meterRegistry);
+        this.localVectorSearch = searchProperties.getLocalVector().isEnabled()
+                ? new LocalVectorSearch(client, indexName, indexAdmin, searchProperties.getLocalVector(), searchMetrics, this::fetchByIds, searchTaskExecutor, meterRegistry)
+                : null;
     }
 
+    protected static final String VECTOR = "VECTOR";
+    protected static final String KEYWORD = "KEYWORD";
+    protected static final String HYBRID = "HYBRID";
+    protected static final String HYBRID_RRF = "HYBRID_RRF";
+
     protected static final List<String> ALL_FIELDS = List.of(
             ID_FIELD,
             NAME_FIELD,
@@ -88,95 +143,809 @@ public class DefaultSearchService implements SearchService {
             INDUSTRY_CODES_CONCAT_STRING_FIELD
     );
 
-    public void index(List<Conference> docs) {
+    /**
+     * Fields of {@link FieldSet#SUMMARY}, all of them keyword, number or date fields with doc values.
+     */
+    protected static final List<FieldAndFormat> SUMMARY_FIELDS = List.of(
+            FieldAndFormat.of(f -> f.field(NAME_FIELD)),
+            FieldAndFormat.of(f -> f.field(GROUP_ID_FIELD)),
+            FieldAndFormat.of(f -> f.field(START_DATE_FIELD).format("strict_date")),
+            FieldAndFormat.of(f -> f.field(END_DATE_FIELD).format("strict_date")),
+            FieldAndFormat.of(f -> f.field(FORMATTED_LOCATION_FIELD)),
+            FieldAndFormat.of(f -> f.field(COUNTRY_DESCRIPTION_FIELD)),
+            FieldAndFormat.of(f -> f.field(ATTENDEES_COUNT_FIELD)),
+            FieldAndFormat.of(f -> f.field(COMPANY_ATTENDEES_COUNT_FIELD)),
+            FieldAndFormat.of(f -> f.field(INVESTOR_ATTENDEES_COUNT_FIELD))
+    );
+
+    public IndexingReport index(List<Conference> docs) {
+        return index(indexName, docs);
+    }
+
+    public IndexingReport index(String targetIndex, List<Conference> docs) {
         if (docs.isEmpty()) {
-            return;
+            return IndexingReport.empty();
         }
-        Stopwatch stopwatch = Stopwatch.createStarted();
+        if (localVectorSearch == null) {
+            return indexingScheduler.index(targetIndex, docs, indexBatchSize, this::toBulkOperation);
+        }
+        // the local index follows only the documents Elasticsearch acknowledged, like delete
+        Map<String, float[]> embeddings = new ConcurrentHashMap<>();
+        IndexingReport report = indexingScheduler.index(targetIndex, docs, indexBatchSize, conference -> {
+            if (conference.getEmbedding() != null) {
+                embeddings.put(conference.getId(), conference.getEmbedding());
+            }
+            return toBulkOperation(conference);
+        });
+        embeddings.forEach((id, embedding) -> {
+            if (!report.failures().containsKey(id)) {
+                localVectorSearch.indexed(targetIndex, id, embedding);
+            }
+        });
+        return report;
+    }
 
-        List<CompletableFuture<Void>> futures = Lists.partition(docs, indexBatchSize)
-                .stream()
-                .map(batchOfConferences -> CompletableFuture.runAsync(() -> indexTask(batchOfConferences), taskExecutor))
-                .toList();
+    public IndexingReport delete(List<String> ids) {
+        if (ids.isEmpty()) {
+            return IndexingReport.empty();
+        }
+        IndexingReport report = indexingScheduler.delete(indexName, ids, indexBatchSize);
+        if (localVectorSearch != null) {
+            ids.stream()
+                    .filter(id -> !report.failures().containsKey(id))
+                    .forEach(localVectorSearch::deleted);
+        }
+        return report;
+    }
 
-        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
-        log.info("Indexed {} documents in {}", docs.size(), stopwatch);
+    /**
+     * Loads the local vector index, see {@link LocalVectorSearch#warmUp()}.
+     */
+    @Override
+    public void warmUp() {
+        if (localVectorSearch != null) {
+            localVectorSearch.warmUp();
+        }
     }
 
-    protected void indexTask(List<Conference> batchOfConferences) {
-        List<Conference> conferences = embeddingService.embed(batchOfConferences);
-        Stopwatch localStopwatch = Stopwatch.createStarted();
-        perform(toBulkOperations(conferences));
-        log.info("Indexed {} conferences in {}", conferences.size(), localStopwatch);
+    /**
+     * Writes the local vector index snapshot so the next instance starts warm.
+     */
+    @Override
+    public void close() {
+        if (localVectorSearch != null) {
+            localVectorSearch.close();
+        }
     }
 
-    public List<Conference> search(String queryText, String type, int offset, int limit) throws IOException, InterruptedException {
-        if (isBlank(queryText)) {
+    public List<Conference> search(SearchQuery query) throws IOException, InterruptedException {
+        if (isBlank(query.getQueryText())) {
             return List.of();
         }
+        String type = query.getType();
+        if (HYBRID_RRF.equals(type)) {
+            return searchHybridRrf(query);
+        }
+        if (HYBRID.equals(type) && searchProperties.getHybrid().isPipelined()) {
+            return searchHybridPipelined(query);
+        }
 
+        SearchQuery embedded = embedded(query);
+        if (VECTOR.equals(type) && searchesLocally(embedded)) {
+            Stopwatch stopwatch = Stopwatch.createStarted();
+            List<Conference> conferences = searchLocalVectors(embedded, knnK(embedded, searchProperties.getKnn().getVectorK()));
+            log.info("Local vector search '{}' returned {} results in {}", query.getQueryText(), conferences.size(), stopwatch);
+            return conferences;
+        }
         Stopwatch buildQueryStopwatch = Stopwatch.createStarted();
-        SearchRequest request = switch (type) {
-            case "VECTOR" -> buildVectorSearchRequest(queryText, offset, limit);
-            case "KEYWORD" -> buildKeywordSearchRequest(queryText, offset, limit);
-            case "HYBRID" -> buildHybridSearchRequest(queryText, offset, limit);
-            default -> throw new IllegalArgumentException("Unknown search type: " + type);
-        };
+        SearchRequest request = buildSearchRequest(embedded);
+        searchMetrics.record(SearchMetrics.BUILD, type, buildQueryStopwatch);
         log.info("Built '{}' search request in {}", type, buildQueryStopwatch);
 
         Stopwatch stopwatch = Stopwatch.createStarted();
-        List<Conference> conferences = client.search(request, Conference.class)
-                .hits()
-                .hits()
-                .stream()
-                .map(hit -> {
-                    Conference conference = hit.source();
-                    Optional.ofNullable(hit.score())
-                            .ifPresent(conference::setScore);
-                    return conference;
+        List<Conference> conferences = execute(request, type);
+        log.info("Search '{}' with type '{}' returned {} results in {}", query.getQueryText(), type, conferences.size(), stopwatch);
+        return conferences;
+    }
+
+    /**
+     * Non-blocking search on the asynchronous Elasticsearch client and {@link EmbeddingService#embedAsync(String)}.
+     * <p>
+     * The keyword leg of HYBRID and HYBRID_RRF is sent right away, the kNN leg once the query embedding is there;
+     * HYBRID legs are merged by score sum like the pipelined search. When the embedding misses
+     * {@code search.async.embedding-deadline} it is cancelled and, with {@code search.async.keyword-fallback},
+     * the search degrades to its keyword results instead of failing. When the whole search misses its deadline
+     * every outstanding call is cancelled.
+     */
+    public CompletableFuture<List<Conference>> searchAsync(SearchQuery query) {
+        if (isBlank(query.getQueryText())) {
+            return CompletableFuture.completedFuture(List.of());
+        }
+        if (query.getCursor() != null) {
+            return CompletableFuture.failedFuture(new InvalidSearchRequestException("Cursor paging is not supported by async search"));
+        }
+        SearchProperties.AsyncProperties async = searchProperties.getAsync();
+        Duration deadline = query.getDeadline() != null ? query.getDeadline() : async.getDeadline();
+        Duration embeddingDeadline = async.getEmbeddingDeadline().compareTo(deadline) < 0 ? async.getEmbeddingDeadline() : deadline;
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        InFlight inFlight = new InFlight();
+
+        CompletableFuture<List<Conference>> result;
+        try {
+            result = switch (query.getType()) {
+                case KEYWORD -> executeAsync(buildKeywordSearchRequest(query), KEYWORD, inFlight);
+                case VECTOR -> searchVectorAsync(query, embeddingDeadline, inFlight);
+                case HYBRID, HYBRID_RRF -> searchHybridAsync(query, embeddingDeadline, inFlight);
+                default -> throw new InvalidSearchRequestException("Unknown search type: " + query.getType());
+            };
+        } catch (RuntimeException e) {
+            inFlight.cancelAll();
+            return CompletableFuture.failedFuture(e);
+        }
+        return result
+                .orTimeout(deadline.toMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((conferences, error) -> {
+                    if (error != null) {
+                        inFlight.cancelAll();
+                        log.warn("Async search '{}' with type '{}' failed after {}: {}", query.getQueryText(), query.getType(), stopwatch, error.toString());
+                    } else {
+                        log.info("Async search '{}' with type '{}' returned {} results in {}", query.getQueryText(), query.getType(), conferences.size(), stopwatch);
+                    }
+                });
+    }
+
+    private CompletableFuture<List<Conference>> searchVectorAsync(SearchQuery query, Duration embeddingDeadline, InFlight inFlight) {
+        return withQueryVectorAsync(query, embeddingDeadline, inFlight)
+                .thenCompose(embedded -> embedded == null
+                        ? executeAsync(buildKeywordSearchRequest(query), VECTOR, inFlight)
+                        : executeAsync(unchecked(() -> buildVectorSearchRequest(embedded)), VECTOR, inFlight));
+    }
+
+    private CompletableFuture<List<Conference>> searchHybridAsync(SearchQuery query, Duration embeddingDeadline, InFlight inFlight) {
+        boolean rrf = HYBRID_RRF.equals(query.getType());
+        int pageEnd = query.getOffset() + query.getLimit();
+        int keywordWindow = Math.max(rrf ? searchProperties.getRrf().getKeywordWindowSize() : searchProperties.getHybrid().getKeywordWindowSize(), pageEnd);
+        int vectorWindow = rrf ? Math.max(searchProperties.getRrf().getVectorWindowSize(), pageEnd) : knnK(query, searchProperties.getKnn().getHybridK());
+
+        CompletableFuture<List<Conference>> keywordLeg = executeAsync(buildKeywordSearchRequest(query.withOffset(0).withLimit(keywordWindow)), query.getType(), inFlight);
+        return withQueryVectorAsync(query, embeddingDeadline, inFlight)
+                .thenCompose(embedded -> {
+                    if (embedded == null) {
+                        return keywordLeg.thenApply(hits -> hits.stream()
+                                .skip(query.getOffset())
+                                .limit(query.getLimit())
+                                .toList());
+                    }
+                    SearchQuery vectorQuery = embedded.withOffset(0).withLimit(vectorWindow);
+                    return executeAsync(unchecked(() -> buildVectorSearchRequest(vectorQuery, vectorWindow)), query.getType(), inFlight)
+                            .thenCombine(keywordLeg, (vectorHits, keywordHits) -> fuse(query, keywordHits, vectorHits));
+                });
+    }
+
+    /**
+     * Attaches the query embedding, or completes with {@code null} when it missed its deadline or was rejected by
+     * the embedding limiter and the search should fall back to keyword results.
+     */
+    private CompletableFuture<SearchQuery> withQueryVectorAsync(SearchQuery query, Duration embeddingDeadline, InFlight inFlight) {
+        if (!needsQueryVector(query)) {
+            return CompletableFuture.completedFuture(query);
+        }
+        boolean fallback = searchProperties.getAsync().isKeywordFallback();
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        return inFlight.track(embeddingService.embedAsync(query.getQueryText()))
+                .orTimeout(embeddingDeadline.toMillis(), TimeUnit.MILLISECONDS)
+                .thenApply(vector -> {
+                    searchMetrics.record(SearchMetrics.EMBEDDING, query.getType(), stopwatch);
+                    return query.withQueryVector(vector);
                 })
+                .exceptionally(error -> {
+                    Throwable cause = error instanceof CompletionException ? error.getCause() : error;
+                    if (fallback && cause instanceof TimeoutException) {
+                        log.warn("Query embedding missed its {} deadline, '{}' falls back to keyword search", embeddingDeadline, query.getQueryText());
+                        return null;
+                    }
+                    if (fallback && cause instanceof EmbeddingUnavailableException) {
+                        log.warn("Query embedding rejected ({}), '{}' falls back to keyword search", cause.getMessage(), query.getQueryText());
+                        return null;
+                    }
+                    throw cause instanceof RuntimeException runtimeException ? runtimeException : new CompletionException(cause);
+                });
+    }
+
+    protected CompletableFuture<List<Conference>> executeAsync(SearchRequest request, String type, InFlight inFlight) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        return inFlight.track(asyncClient.search(request, Conference.class))
+                .thenApply(response -> {
+                    searchMetrics.record(SearchMetrics.ELASTICSEARCH, type, stopwatch);
+                    searchMetrics.recordTook(type, response.took());
+                    return toConferences(response.hits().hits(), type);
+                });
+    }
+
+    private static SearchRequest unchecked(Callable<SearchRequest> request) {
+        try {
+            return request.call();
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Elasticsearch and embedding calls of one asynchronous search, cancelled together once it fails or times out.
+     */
+    protected static final class InFlight {
+        private final List<CompletableFuture<?>> futures = new CopyOnWriteArrayList<>();
+
+        <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+            futures.add(future);
+            return future;
+        }
+
+        void cancelAll() {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Runs several searches with one embedding call for all query texts and one {@code _msearch}.
+     * HYBRID queries are sent as the compound request, since their embedding is already computed there is nothing
+     * to pipeline; HYBRID_RRF queries are sent as their two legs and fused afterwards.
+     * A failing query is reported in its item and does not fail the batch.
+     */
+    public BatchSearchResult searchBatch(List<SearchQuery> queries) throws IOException, InterruptedException {
+        int maxQueries = searchProperties.getBatch().getMaxQueries();
+        if (queries.size() > maxQueries) {
+            throw new InvalidSearchRequestException("Batch of %d queries exceeds the limit of %d".formatted(queries.size(), maxQueries));
+        }
+
+        Stopwatch embeddingStopwatch = Stopwatch.createStarted();
+        List<SearchQuery> embedded = withQueryVectors(queries);
+        long embeddingMillis = embeddingStopwatch.elapsed(TimeUnit.MILLISECONDS);
+        searchMetrics.record(SearchMetrics.EMBEDDING, SearchMetrics.BATCH, embeddingStopwatch);
+
+        List<Integer> legCounts = new ArrayList<>(embedded.size());
+        List<RequestItem> searches = new ArrayList<>();
+        for (SearchQuery query : embedded) {
+            List<SearchRequest> legs = isBlank(query.getQueryText()) ? List.of() : batchLegs(query);
+            legCounts.add(legs.size());
+            for (SearchRequest leg : legs) {
+                searches.add(RequestItem.of(item -> item
+                        .header(header -> header.index(indexName))
+                        .body(toMultisearchBody(leg))));
+            }
+        }
+
+        Stopwatch searchStopwatch = Stopwatch.createStarted();
+        List<MultiSearchResponseItem<Conference>> responses = List.of();
+        if (!searches.isEmpty()) {
+            MsearchResponse<Conference> response = client.msearch(m -> m.searches(searches), Conference.class);
+            searchMetrics.record(SearchMetrics.ELASTICSEARCH, SearchMetrics.BATCH, searchStopwatch);
+            searchMetrics.recordTook(SearchMetrics.BATCH, response.took());
+            responses = response.responses();
+        }
+        long searchMillis = searchStopwatch.elapsed(TimeUnit.MILLISECONDS);
+
+        List<BatchSearchResult.Item> items = new ArrayList<>(embedded.size());
+        int next = 0;
+        for (int i = 0; i < embedded.size(); i++) {
+            int legCount = legCounts.get(i);
+            items.add(batchItem(embedded.get(i), responses.subList(next, next + legCount)));
+            next += legCount;
+        }
+        log.info("Batch of {} searches ({} requests) returned in {} ms, embedding took {} ms",
+                queries.size(), searches.size(), searchMillis, embeddingMillis);
+        return new BatchSearchResult(items, embeddingMillis, searchMillis);
+    }
+
+    private List<SearchRequest> batchLegs(SearchQuery query) throws IOException, InterruptedException {
+        if (!HYBRID_RRF.equals(query.getType())) {
+            return List.of(buildSearchRequest(query));
+        }
+        SearchProperties.RrfProperties rrf = searchProperties.getRrf();
+        int pageEnd = query.getOffset() + query.getLimit();
+        SearchQuery keywordQuery = query.withOffset(0).withLimit(Math.max(rrf.getKeywordWindowSize(), pageEnd));
+        SearchQuery vectorQuery = query.withOffset(0).withLimit(Math.max(rrf.getVectorWindowSize(), pageEnd));
+        return List.of(buildKeywordSearchRequest(keywordQuery), buildVectorSearchRequest(vectorQuery, vectorQuery.getLimit()));
+    }
+
+    private BatchSearchResult.Item batchItem(SearchQuery query, List<MultiSearchResponseItem<Conference>> legs) {
+        long took = 0;
+        List<List<Conference>> hits = new ArrayList<>(legs.size());
+        for (MultiSearchResponseItem<Conference> leg : legs) {
+            if (leg.isFailure()) {
+                return new BatchSearchResult.Item(List.of(), took, leg.failure().error().reason());
+            }
+            MultiSearchItem<Conference> result = leg.result();
+            took = Math.max(took, result.took());
+            hits.add(toConferences(result.hits().hits(), SearchMetrics.BATCH));
+        }
+        if (hits.isEmpty()) {
+            return new BatchSearchResult.Item(List.of(), took, null);
+        }
+        List<Conference> conferences = HYBRID_RRF.equals(query.getType())
+                ? fuse(query, hits.get(0), hits.get(1))
+                : hits.get(0);
+        return new BatchSearchResult.Item(conferences, took, null);
+    }
+
+    private MultisearchBody toMultisearchBody(SearchRequest request) {
+        String json = JsonpUtils.toJsonString(request, client._jsonpMapper());
+        return MultisearchBody.of(body -> body.withJson(new StringReader(json)));
+    }
+
+    /**
+     * Embeds the texts of all queries that need a vector in one call, each distinct text once.
+     */
+    protected List<SearchQuery> withQueryVectors(List<SearchQuery> queries) {
+        List<String> texts = queries.stream()
+                .filter(this::needsQueryVector)
+                .map(SearchQuery::getQueryText)
+                .distinct()
                 .toList();
-        log.info("Search '{}' with type '{}' returned {} results in {}", queryText, type, conferences.size(), stopwatch);
+        if (texts.isEmpty()) {
+            return queries;
+        }
+        List<float[]> vectors = embeddingService.embedQueries(texts);
+        Map<String, float[]> vectorsByText = new HashMap<>(texts.size() * 2);
+        for (int i = 0; i < texts.size(); i++) {
+            vectorsByText.put(texts.get(i), vectors.get(i));
+        }
+        return queries.stream()
+                .map(query -> needsQueryVector(query) ? query.withQueryVector(vectorsByText.get(query.getQueryText())) : query)
+                .toList();
+    }
+
+    protected boolean needsQueryVector(SearchQuery query) {
+        return !isBlank(query.getQueryText()) && !KEYWORD.equals(query.getType()) && query.getQueryVector() == null;
+    }
+
+    protected float[] queryVector(SearchQuery query) {
+        if (query.getQueryVector() != null) {
+            return query.getQueryVector();
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        float[] vector = embeddingService.embed(query.getQueryText());
+        searchMetrics.record(SearchMetrics.EMBEDDING, query.getType(), stopwatch);
+        return vector;
+    }
+
+    /**
+     * Attaches the query embedding up front, so the embedding call is timed apart from building the request.
+     */
+    protected SearchQuery embedded(SearchQuery query) {
+        return needsQueryVector(query) ? query.withQueryVector(queryVector(query)) : query;
+    }
+
+    /**
+     * Returns one page of a point-in-time search. The first call opens the point in time; following calls pass
+     * the returned cursor so Elasticsearch resumes with {@code search_after} instead of skipping {@code from} hits.
+     * The point in time is closed once the result set is exhausted.
+     */
+    public SearchPage searchPage(SearchQuery query) throws IOException, InterruptedException {
+        if (isBlank(query.getQueryText())) {
+            return new SearchPage(List.of(), null);
+        }
+        if (HYBRID_RRF.equals(query.getType())) {
+            throw new InvalidSearchRequestException("Cursor paging is not supported for search type: " + HYBRID_RRF);
+        }
+
+        SearchCursor cursor = query.getCursor() == null ? openPointInTime() : query.getCursor();
+        SearchQuery pageQuery = query.withCursor(cursor);
+
+        SearchRequest request = buildSearchRequest(embedded(pageQuery));
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        SearchResponse<Conference> response = client.search(request, Conference.class);
+        searchMetrics.record(SearchMetrics.ELASTICSEARCH, query.getType(), stopwatch);
+        searchMetrics.recordTook(query.getType(), response.took());
+        List<Hit<Conference>> hits = response.hits().hits();
+        List<Conference> conferences = toConferences(hits, query.getType());
+        log.info("Cursor search '{}' with type '{}' returned {} results in {}", query.getQueryText(), query.getType(), conferences.size(), stopwatch);
+
+        String pitId = Optional.ofNullable(response.pitId()).orElse(cursor.pitId());
+        if (hits.size() < query.getLimit()) {
+            closePointInTime(pitId);
+            return new SearchPage(conferences, null);
+        }
+        List<FieldValue> sort = hits.getLast().sort();
+        return new SearchPage(conferences, new SearchCursor(pitId, sort.get(0).doubleValue(), sort.get(1).stringValue()));
+    }
+
+    protected SearchRequest buildSearchRequest(SearchQuery query) throws IOException, InterruptedException {
+        return switch (query.getType()) {
+            case VECTOR -> buildVectorSearchRequest(query);
+            case KEYWORD -> buildKeywordSearchRequest(query);
+            case HYBRID -> buildHybridSearchRequest(query);
+            default -> throw new InvalidSearchRequestException("Unknown search type: " + query.getType());
+        };
+    }
+
+    /**
+     * Runs the keyword and vector legs concurrently and fuses them with Reciprocal Rank Fusion.
+     * Each leg retrieves at least its configured window, and never less than the requested page end.
+     */
+    protected List<Conference> searchHybridRrf(SearchQuery query) throws IOException, InterruptedException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        SearchProperties.RrfProperties rrf = searchProperties.getRrf();
+        int pageEnd = query.getOffset() + query.getLimit();
+        SearchQuery keywordQuery = query.withOffset(0).withLimit(Math.max(rrf.getKeywordWindowSize(), pageEnd));
+        SearchQuery vectorQuery = query.withOffset(0).withLimit(Math.max(rrf.getVectorWindowSize(), pageEnd));
+
+        CompletableFuture<List<Conference>> keywordLeg = supplyAsync(() ->
+                execute(buildKeywordSearchRequest(keywordQuery), HYBRID_RRF));
+        CompletableFuture<List<Conference>> vectorLeg = supplyAsync(() -> {
+            SearchQuery embeddedQuery = embedded(vectorQuery);
+            return searchesLocally(embeddedQuery)
+                    ? searchLocalVectors(embeddedQuery, vectorQuery.getLimit())
+                    : execute(buildVectorSearchRequest(embeddedQuery, vectorQuery.getLimit()), HYBRID_RRF);
+        });
+
+        List<Conference> conferences = fuse(query, await(keywordLeg), await(vectorLeg));
+        log.info("Search '{}' with type '{}' returned {} results in {}", query.getQueryText(), HYBRID_RRF, conferences.size(), stopwatch);
         return conferences;
     }
 
-    protected SearchRequest buildVectorSearchRequest(String queryText, int offset, int limit) throws IOException, InterruptedException {
-        List<Float> vectorizedQuery = embeddingService.embed(queryText);
+    /**
+     * Pipelined variant of the HYBRID search: the keyword leg is sent to Elasticsearch immediately while the
+     * query embedding is computed, then the kNN leg runs and both legs are merged by summing their scores,
+     * the same way Elasticsearch combines a query with a top-level knn section.
+     * Latency becomes roughly max(keyword, embedding + kNN) instead of embedding + compound search.
+     * <p>
+     * The keyword leg is bounded by {@code search.hybrid.keyword-window-size}, so a kNN hit that ranks below
+     * that window on BM25 contributes only its vector score.
+     */
+    protected List<Conference> searchHybridPipelined(SearchQuery query) throws IOException, InterruptedException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        int keywordWindow = Math.max(searchProperties.getHybrid().getKeywordWindowSize(), query.getOffset() + query.getLimit());
+        SearchQuery keywordQuery = query.withOffset(0).withLimit(keywordWindow);
+        int hybridK = knnK(query, searchProperties.getKnn().getHybridK());
+        SearchQuery vectorQuery = query.withOffset(0).withLimit(hybridK);
+
+        CompletableFuture<List<Conference>> keywordLeg = supplyAsync(() -> {
+            Stopwatch keywordStopwatch = Stopwatch.createStarted();
+            List<Conference> hits = execute(buildKeywordSearchRequest(keywordQuery), HYBRID);
+            log.info("Hybrid keyword leg returned {} hits in {}", hits.size(), keywordStopwatch);
+            return hits;
+        });
+        CompletableFuture<List<Conference>> vectorLeg = supplyAsync(() -> {
+            SearchQuery embeddedQuery = embedded(vectorQuery);
+            if (searchesLocally(embeddedQuery)) {
+                return searchLocalVectors(embeddedQuery, hybridK);
+            }
+            Stopwatch embeddingStopwatch = Stopwatch.createStarted();
+            SearchRequest knnRequest = buildVectorSearchRequest(embeddedQuery, hybridK);
+            log.info("Hybrid vector leg request (including query embedding) built in {}", embeddingStopwatch);
+
+            Stopwatch knnStopwatch = Stopwatch.createStarted();
+            List<Conference> hits = execute(knnRequest, HYBRID);
+            log.info("Hybrid kNN leg returned {} hits in {}", hits.size(), knnStopwatch);
+            return hits;
+        });
+
+        List<Conference> keywordHits = await(keywordLeg);
+        List<Conference> vectorHits = await(vectorLeg);
+
+        List<Conference> conferences = fuse(query, keywordHits, vectorHits);
+        log.info("Search '{}' with type '{}' returned {} results in {}", query.getQueryText(), HYBRID, conferences.size(), stopwatch);
+        return conferences;
+    }
+
+    protected boolean searchesLocally(SearchQuery query) {
+        return localVectorSearch != null && localVectorSearch.answers(query);
+    }
 
-        return SearchRequest.of(s -> s
+    /**
+     * kNN leg answered by the local vector index, see {@link LocalVectorSearch#search(SearchQuery, int, int, List)}.
+     */
+    protected List<Conference> searchLocalVectors(SearchQuery query, int k) throws IOException {
+        return localVectorSearch.search(query, k, numCandidates(query, k), filterQueries(query.getFilters()));
+    }
+
+    private List<Conference> fetchByIds(SearchQuery query, List<String> ids, List<Query> filters) throws IOException {
+        SearchRequest request = SearchRequest.of(s -> project(s, query)
                 .index(indexName)
-                .from(offset)
-                .size(limit)
-                .explain(true)
-                .source(sourceBuilder -> sourceBuilder
-                        .filter(f -> f.includes(ALL_FIELDS)))
+                .size(ids.size())
+                .trackTotalHits(trackHits -> trackHits.enabled(false))
+                .query(q -> q.bool(b -> b
+                        .filter(f -> f.ids(i -> i.values(ids)))
+                        .filter(filters))));
+        return execute(request, query.getType());
+    }
+
+    /**
+     * Combines the keyword and vector legs: Reciprocal Rank Fusion for HYBRID_RRF, score sum for HYBRID.
+     */
+    protected List<Conference> fuse(SearchQuery query, List<Conference> keywordHits, List<Conference> vectorHits) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<Conference> conferences = HYBRID_RRF.equals(query.getType())
+                ? reciprocalRankFusion.fuse(keywordHits, vectorHits, query.getOffset(), query.getLimit())
+                : mergeByScoreSum(keywordHits, vectorHits, query.getOffset(), query.getLimit());
+        searchMetrics.record(SearchMetrics.FUSION, query.getType(), stopwatch);
+        log.debug("Hybrid legs merged in {}", stopwatch);
+        return conferences;
+    }
+
+    protected static List<Conference> mergeByScoreSum(List<Conference> keywordHits, List<Conference> vectorHits, int offset, int limit) {
+        Map<String, Conference> merged = new HashMap<>((keywordHits.size() + vectorHits.size()) * 2);
+        for (Conference hit : keywordHits) {
+            merged.put(hit.getId(), hit);
+        }
+        for (Conference hit : vectorHits) {
+            merged.merge(hit.getId(), hit, (keywordHit, vectorHit) -> {
+                keywordHit.setScore(scoreOf(keywordHit) + scoreOf(vectorHit));
+                return keywordHit;
+            });
+        }
+        return merged.values()
+                .stream()
+                .sorted(Comparator.comparingDouble(DefaultSearchService::scoreOf).reversed())
+                .skip(offset)
+                .limit(limit)
+                .toList();
+    }
+
+    private static double scoreOf(Conference conference) {
+        return conference.getScore() == null ? 0 : conference.getScore();
+    }
+
+    protected List<Conference> execute(SearchRequest request, String type) throws IOException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        SearchResponse<Conference> response = client.search(request, Conference.class);
+        searchMetrics.record(SearchMetrics.ELASTICSEARCH, type, stopwatch);
+        searchMetrics.recordTook(type, response.took());
+        return toConferences(response.hits().hits(), type);
+    }
+
+    protected List<Conference> toConferences(List<Hit<Conference>> hits, String type) {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<Conference> conferences = hits.stream()
+                .map(this::toConference)
+                .toList();
+        searchMetrics.record(SearchMetrics.MAPPING, type, stopwatch);
+        return conferences;
+    }
+
+    protected Conference toConference(Hit<Conference> hit) {
+        Conference conference = hit.source() != null ? hit.source() : fromFields(hit);
+        Optional.ofNullable(hit.score())
+                .ifPresent(conference::setScore);
+        if (hit.explanation() != null) {
+            conference.setExplanation(JsonpUtils.toJsonString(hit.explanation(), client._jsonpMapper()));
+        }
+        return conference;
+    }
+
+    /**
+     * Builds a conference from the doc value fields of a hit fetched without {@code _source}.
+     */
+    private static Conference fromFields(Hit<Conference> hit) {
+        Map<String, JsonData> fields = hit.fields();
+        return Conference.builder()
+                .id(hit.id())
+                .name(stringField(fields, NAME_FIELD))
+                .groupId(integerField(fields, GROUP_ID_FIELD))
+                .startDate(Optional.ofNullable(stringField(fields, START_DATE_FIELD)).map(LocalDate::parse).orElse(null))
+                .endDate(Optional.ofNullable(stringField(fields, END_DATE_FIELD)).map(LocalDate::parse).orElse(null))
+                .formattedLocation(stringField(fields, FORMATTED_LOCATION_FIELD))
+                .countryDescription(stringField(fields, COUNTRY_DESCRIPTION_FIELD))
+                .attendeesCount(integerField(fields, ATTENDEES_COUNT_FIELD))
+                .companyAttendeesCount(integerField(fields, COMPANY_ATTENDEES_COUNT_FIELD))
+                .investorAttendeesCount(integerField(fields, INVESTOR_ATTENDEES_COUNT_FIELD))
+                .build();
+    }
+
+    private static JsonValue firstValue(Map<String, JsonData> fields, String field) {
+        JsonData values = fields.get(field);
+        if (values == null) {
+            return null;
+        }
+        JsonArray array = values.toJson().asJsonArray();
+        return array.isEmpty() ? null : array.get(0);
+    }
+
+    private static String stringField(Map<String, JsonData> fields, String field) {
+        return firstValue(fields, field) instanceof JsonString value ? value.getString() : null;
+    }
+
+    private static Integer integerField(Map<String, JsonData> fields, String field) {
+        return firstValue(fields, field) instanceof JsonNumber value ? value.intValue() : null;
+    }
+
+    /**
+     * Applies the requested {@link FieldSet} and turns on explain only for debug queries, explanations
+     * multiply the response size and the scoring work of every hit.
+     */
+    protected SearchRequest.Builder project(SearchRequest.Builder builder, SearchQuery query) {
+        if (query.isExplain()) {
+            builder.explain(true);
+        }
+        FieldSet fieldSet = query.getFieldSet() == null ? FieldSet.FULL : query.getFieldSet();
+        return switch (fieldSet) {
+            case IDS -> builder.source(source -> source.fetch(false));
+            case SUMMARY -> builder.source(source -> source.fetch(false)).docvalueFields(SUMMARY_FIELDS);
+            case FULL -> builder.source(source -> source.filter(f -> f.includes(ALL_FIELDS)));
+        };
+    }
+
+    /**
+     * Applies either offset paging or, for cursor queries, point-in-time paging sorted by
+     * {@code _score desc, id asc} so that equal scores still have a stable order.
+     */
+    protected SearchRequest.Builder page(SearchRequest.Builder builder, SearchQuery query) {
+        SearchCursor cursor = query.getCursor();
+        if (cursor == null) {
+            return builder
+                    .index(indexName)
+                    .from(query.getOffset())
+                    .size(query.getLimit());
+        }
+
+        builder.pit(pit -> pit
+                        .id(cursor.pitId())
+                        .keepAlive(Time.of(t -> t.time(searchProperties.getCursor().getKeepAlive()))))
+                .size(query.getLimit())
+                .trackTotalHits(trackHits -> trackHits.enabled(false))
+                .sort(sort -> sort.score(score -> score.order(SortOrder.Desc)))
+                .sort(sort -> sort.field(field -> field.field(ID_FIELD).order(SortOrder.Asc)));
+        if (cursor.hasPosition()) {
+            builder.searchAfter(FieldValue.of(cursor.score()), FieldValue.of(cursor.id()));
+        }
+        return builder;
+    }
+
+    /**
+     * kNN retrieves exactly {@code k} hits before paging. A {@code k} set on the request is used as is,
+     * otherwise it is the profile default raised to {@code offset + limit} so the requested page is covered.
+     * Cursor pages walk a window of {@code search.cursor.knn-window-size} nearest neighbours instead. Either way
+     * {@code k} is at least 1 and at most {@code search.knn.max-num-candidates}.
+     */
+    protected int knnK(SearchQuery query, Integer profileK) {
+        int k;
+        if (query.getCursor() != null) {
+            int window = query.getK() != null ? query.getK() : searchProperties.getCursor().getKnnWindowSize();
+            k = Math.max(window, query.getLimit());
+        } else if (query.getK() != null) {
+            k = query.getK();
+        } else {
+            int pageEnd = query.getOffset() + query.getLimit();
+            k = profileK == null ? pageEnd : Math.max(profileK, pageEnd);
+        }
+        return Math.clamp(k, 1, searchProperties.getKnn().getMaxNumCandidates());
+    }
+
+    /**
+     * Candidates explored per shard: the request value, or {@code k} times
+     * {@code search.knn.num-candidates-factor}, bounded by the configured min and max and never below {@code k}.
+     * The request value is bounded by the max as well.
+     */
+    protected int numCandidates(SearchQuery query, int k) {
+        SearchProperties.KnnProperties knn = searchProperties.getKnn();
+        int candidates = query.getNumCandidates() != null
+                ? Math.min(query.getNumCandidates(), knn.getMaxNumCandidates())
+                : (int) Math.min(Math.max((long) Math.ceil(k * knn.getNumCandidatesFactor()), knn.getMinNumCandidates()),
+                knn.getMaxNumCandidates());
+        return Math.max(candidates, k);
+    }
+
+    private SearchCursor openPointInTime() throws IOException {
+        String pitId = client.openPointInTime(request -> request
+                        .index(indexName)
+                        .keepAlive(Time.of(t -> t.time(searchProperties.getCursor().getKeepAlive()))))
+                .id();
+        return SearchCursor.start(pitId);
+    }
+
+    private void closePointInTime(String pitId) {
+        try {
+            client.closePointInTime(request -> request.id(pitId));
+        } catch (IOException | RuntimeException e) {
+            // the point in time expires by itself after its keep-alive
+            log.warn("Failed to close point in time: {}", e.getMessage());
+        }
+    }
+
+    protected <T> CompletableFuture<T> supplyAsync(Callable<T> task) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return task.call();
+            } catch (Exception e) {
+                throw new CompletionException(e);
+            }
+        }, searchTaskExecutor);
+    }
+
+    protected static <T> T await(CompletableFuture<T> future) throws IOException, InterruptedException {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            if (cause instanceof IOException ioException) {
+                throw ioException;
+            }
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new RuntimeException(cause);
+        }
+    }
+
+    protected SearchRequest buildVectorSearchRequest(SearchQuery query) throws IOException, InterruptedException {
+        return buildVectorSearchRequest(query, knnK(query, searchProperties.getKnn().getVectorK()));
+    }
+
+    protected SearchRequest buildVectorSearchRequest(SearchQuery query, int topK) throws IOException, InterruptedException {
+        float[] vectorizedQuery = queryVector(query);
+
+        return SearchRequest.of(s -> project(page(s, query), query)
                 .knn(k -> k
                         .field(EMBEDDING_FIELD)
-                        .queryVector(vectorizedQuery)
-                        .k(10)
-                        .numCandidates(100)
+                        .queryVector(Floats.asList(vectorizedQuery))
+                        .filter(filterQueries(query.getFilters()))
+                        .k(topK)
+                        .numCandidates(numCandidates(query, topK))
                 ));
     }
 
-    protected SearchRequest buildKeywordSearchRequest(String queryText, int offset, int limit) {
+    protected SearchRequest buildKeywordSearchRequest(SearchQuery query) {
         Query multiFieldTextSearchQuery = Query.of(q -> q
                 .multiMatch(multiMatchQuery -> multiMatchQuery
                         .fields(getTextFieldsForSearch())
-                        .query(queryText)
+                        .query(query.getQueryText())
                         .type(TextQueryType.BestFields)
                 )
         );
 
-        return SearchRequest.of(s -> s
-                .index(indexName)
-                .from(offset)
-                .size(limit)
-                .source(sourceBuilder -> sourceBuilder
-                        .filter(f -> f.includes(ALL_FIELDS)))
+        return SearchRequest.of(s -> project(page(s, query), query)
                 .query(Query.of(queryBuilder -> queryBuilder
                         .bool(boolQueryBuilder ->
                                 boolQueryBuilder
-                                        .must(multiFieldTextSearchQuery)))));
+                                        .must(multiFieldTextSearchQuery)
+                                        .filter(filterQueries(query.getFilters()))))));
+    }
+
+    /**
+     * Translates structured filters to filter-context queries. They go to {@code bool.filter} of the keyword leg
+     * and to {@code knn.filter}, where they prune HNSW candidates instead of hits after retrieval.
+     *
+     * @param filters structured filters
+     * @return queries to AND together, empty when there is nothing to filter
+     */
+    protected static List<Query> filterQueries(SearchFilters filters) {
+        if (filters == null || filters.isEmpty()) {
+            return List.of();
+        }
+        List<Query> queries = new ArrayList<>();
+        // date range overlap: the conference ends after the range starts and starts before the range ends
+        if (filters.dateFrom() != null) {
+            queries.add(Query.of(q -> q.range(r -> r.date(d -> d
+                    .field(END_DATE_FIELD)
+                    .gte(filters.dateFrom().toString())))));
+        }
+        if (filters.dateTo() != null) {
+            queries.add(Query.of(q -> q.range(r -> r.date(d -> d
+                    .field(START_DATE_FIELD)
+                    .lte(filters.dateTo().toString())))));
+        }
+        if (filters.countries() != null && !filters.countries().isEmpty()) {
+            List<FieldValue> countries = filters.countries().stream().map(FieldValue::of).toList();
+            queries.add(Query.of(q -> q.terms(t -> t
+                    .field(COUNTRY_DESCRIPTION_FIELD)
+                    .terms(v -> v.value(countries)))));
+        }
+        if (filters.minAttendees() != null || filters.maxAttendees() != null) {
+            queries.add(Query.of(q -> q.range(r -> r.number(n -> n
+                    .field(ATTENDEES_COUNT_FIELD)
+                    .gte(filters.minAttendees() == null ? null : filters.minAttendees().doubleValue())
+                    .lte(filters.maxAttendees() == null ? null : filters.maxAttendees().doubleValue())))));
+        }
+        if (filters.industrySectors() != null && !filters.industrySectors().isEmpty()) {
+            List<FieldValue> sectors = filters.industrySectors().stream().map(FieldValue::of).toList();
+            queries.add(Query.of(q -> q.terms(t -> t
+                    .field(INDUSTRY_SECTORS_FIELD)
+                    .terms(v -> v.value(sectors)))));
+        }
+        return queries;
     }
 
     protected static List<String> getTextFieldsForSearch() {
@@ -192,119 +961,57 @@ public class DefaultSearchService implements SearchService {
         );
     }
 
-    protected SearchRequest buildHybridSearchRequest(String queryText, int offset, int limit) throws IOException, InterruptedException {
-        List<Float> vectorizedQuery = embeddingService.embed(queryText);
+    protected SearchRequest buildHybridSearchRequest(SearchQuery query) throws IOException, InterruptedException {
+        float[] vectorizedQuery = queryVector(query);
+        int topK = knnK(query, searchProperties.getKnn().getHybridK());
 
         Query multiFieldTextSearchQuery = Query.of(q -> q
                 .multiMatch(multiMatchQuery -> multiMatchQuery
                         .fields(getTextFieldsForSearch())
-                        .query(queryText)
+                        .query(query.getQueryText())
                         .type(TextQueryType.BestFields)
                 )
         );
 
-        return SearchRequest.of(s -> s
-                .index(indexName)
-                .from(offset)
-                .size(limit)
-                .explain(true)
-                .source(sourceBuilder -> sourceBuilder
-                        .filter(f -> f.includes(ALL_FIELDS)))
+        return SearchRequest.of(s -> project(page(s, query), query)
                 .query(Query.of(queryBuilder -> queryBuilder
                         .bool(boolQueryBuilder ->
                                 boolQueryBuilder
-                                        .must(multiFieldTextSearchQuery))))
+                                        .must(multiFieldTextSearchQuery)
+                                        .filter(filterQueries(query.getFilters())))))
                 .knn(k -> k
                         .field(EMBEDDING_FIELD)
-                        .queryVector(vectorizedQuery)
-                        .k(5)
-                        .numCandidates(100)
+                        .queryVector(Floats.asList(vectorizedQuery))
+                        .filter(filterQueries(query.getFilters()))
+                        .k(topK)
+                        .numCandidates(numCandidates(query, topK))
                 ));
     }
 
-    protected void perform(List<BulkOperation> operations) {
-        try {
-            BulkRequest request = new BulkRequest.Builder().index(indexName)
-                    .operations(operations)
-                    .build();
-
-            BulkResponse bulkResponse = client.bulk(request);
-            if (bulkResponse.errors()) {
-                throw new RuntimeException(String.format("Couldn't update beans in '%s'", indexName));
-            }
-        } catch (IOException e) {
-            throw new RuntimeException(String.format("Couldn't update beans in '%s'", indexName), e);
-        }
-    }
-
     protected List<BulkOperation> toBulkOperations(List<Conference> beans) {
         return beans.stream()
                 .map(this::toBulkOperation)
                 .toList();
     }
 
+    /**
+     * The document is serialized right away, its bytes size the bulk request and are sent as is.
+     */
     protected BulkOperation toBulkOperation(Conference bean) {
         return new BulkOperation.Builder().index(operation -> new IndexOperation.Builder<>()
-                        .document(bean)
+                        .document(BinaryData.of(bean, client._jsonpMapper()))
                         .id(bean.getId()))
                 .build();
     }
 
     public void deleteData() {
-        if (!indexExists()) {
-            return;
-        }
-
-        try {
-            DeleteIndexResponse response = client.indices().delete(DeleteIndexRequest.of(b -> b.index(indexName)));
-            if (!response.acknowledged()) {
-                throw new RuntimeException("Index deletion not acknowledged");
-            }
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to delete index: '%s'".formatted(indexName), e);
-        }
-    }
-
-    public void createIndexIfNeeded() {
-        if (indexExists()) {
-            return;
-        }
-
-        CreateIndexResponse response;
-        try {
-            InputStream indexJsonConfigInputStream = getIndexConfig();
-            CreateIndexRequest request = CreateIndexRequest.of(requestBuilder -> requestBuilder
-                    .index(indexName)
-                    .withJson(indexJsonConfigInputStream)
-            );
-
-            response = client.indices()
-                    .create(request);
-        } catch (Exception ex) {
-            throw new RuntimeException("Failed to create index: '%s'".formatted(indexName), ex);
-        }
-
-        if (!response.acknowledged()) {
-            throw new RuntimeException("Failed to create index: '%s'".formatted(indexName));
-        }
-
-        log.info("Index '{}' has been created", indexName);
-    }
-
-    private boolean indexExists() {
-        try {
-            BooleanResponse exists = client.indices().exists(ExistsRequest.of(b -> b.index(indexName)));
-            return exists.value();
-        } catch (IOException ex) {
-            throw new RuntimeException("Failed to check if index exists: '%s'".formatted(indexName), ex);
+        indexAdmin.deleteAll();
+        if (localVectorSearch != null) {
+            localVectorSearch.clear();
         }
     }
 
-    private InputStream getIndexConfig() throws IOException {
-        String indexJsonConfig = new String(resourceLoader.getResource(indexConfigPath)
-                .getInputStream()
-                .readAllBytes(), StandardCharsets.UTF_8);
-
-        return new ByteArrayInputStream(indexJsonConfig.getBytes(StandardCharsets.UTF_8));
+    public boolean createIndexIfNeeded() {
+        return indexAdmin.createIfNeeded();
     }
 }
@@ -0,0 +1,173 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import com.google.common.base.Throwables;
+import com.liashenko.v.hybrid.search.model.BatchSearchResult;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.model.SearchPage;
+import com.liashenko.v.hybrid.search.model.SearchQuery;
+import com.liashenko.v.hybrid.search.service.EmbeddingService;
+import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.embedding.EmbeddingUnavailableException;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingReport;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static com.liashenko.v.hybrid.search.service.search.DefaultSearchService.KEYWORD;
+
+/**
+ * Turns VECTOR, HYBRID and HYBRID_RRF searches into KEYWORD searches while the embedding backend is unavailable,
+ * so an overloaded or failing model costs relevance instead of availability.
+ * <p>
+ * Searches are rewritten up front while {@link EmbeddingService#isAvailable()} is {@code false}, and retried as
+ * keyword searches when the embedding call is rejected with {@link EmbeddingUnavailableException} on the way.
+ * It sits in front of the result cache, so degraded results are cached under the KEYWORD key only.
+ */
+@Slf4j
+public class DegradingSearchService implements SearchService {
+    static final String METRIC_NAME = "search.degraded";
+
+    private final SearchService delegate;
+    private final EmbeddingService embeddingService;
+    private final MeterRegistry meterRegistry;
+
+    public DegradingSearchService(SearchService delegate, EmbeddingService embeddingService, MeterRegistry meterRegistry) {
+        this.delegate = delegate;
+        this.embeddingService = embeddingService;
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * @param delegate         service performing the actual search
+     * @param embeddingService embedding service whose availability decides on the fallback
+     * @param meterRegistry    registry the fallback counter is exported to
+     * @return degrading decorator
+     */
+    public static SearchService decorate(SearchService delegate, EmbeddingService embeddingService, MeterRegistry meterRegistry) {
+        return new DegradingSearchService(delegate, embeddingService, meterRegistry);
+    }
+
+    @Override
+    public List<Conference> search(SearchQuery query) throws IOException, InterruptedException {
+        if (degrades(query)) {
+            return delegate.search(keyword(query));
+        }
+        try {
+            return delegate.search(query);
+        } catch (RuntimeException | IOException e) {
+            if (!unavailable(e)) {
+                throw e;
+            }
+            return delegate.search(keyword(query));
+        }
+    }
+
+    @Override
+    public CompletableFuture<List<Conference>> searchAsync(SearchQuery query) {
+        if (degrades(query)) {
+            return delegate.searchAsync(keyword(query));
+        }
+        return delegate.searchAsync(query)
+                .exceptionallyCompose(error -> unavailable(error)
+                        ? delegate.searchAsync(keyword(query))
+                        : CompletableFuture.failedFuture(error));
+    }
+
+    @Override
+    public SearchPage searchPage(SearchQuery query) throws IOException, InterruptedException {
+        if (degrades(query)) {
+            return delegate.searchPage(keyword(query));
+        }
+        try {
+            return delegate.searchPage(query);
+        } catch (RuntimeException | IOException e) {
+            if (!unavailable(e)) {
+                throw e;
+            }
+            return delegate.searchPage(keyword(query));
+        }
+    }
+
+    @Override
+    public BatchSearchResult searchBatch(List<SearchQuery> queries) throws IOException, InterruptedException {
+        if (queries.stream().anyMatch(this::degrades)) {
+            return delegate.searchBatch(keyword(queries));
+        }
+        try {
+            return delegate.searchBatch(queries);
+        } catch (RuntimeException | IOException e) {
+            if (!unavailable(e)) {
+                throw e;
+            }
+            return delegate.searchBatch(keyword(queries));
+        }
+    }
+
+    @Override
+    public IndexingReport index(List<Conference> docs) {
+        return delegate.index(docs);
+    }
+
+    @Override
+    public IndexingReport index(String targetIndex, List<Conference> docs) {
+        return delegate.index(targetIndex, docs);
+    }
+
+    @Override
+    public IndexingReport delete(List<String> ids) {
+        return delegate.delete(ids);
+    }
+
+    @Override
+    public void deleteData() {
+        delegate.deleteData();
+    }
+
+    @Override
+    public void warmUp() {
+        delegate.warmUp();
+    }
+
+    @Override
+    public void close() {
+        delegate.close();
+    }
+
+    @Override
+    public boolean createIndexIfNeeded() {
+        return delegate.createIndexIfNeeded();
+    }
+
+    private boolean degrades(SearchQuery query) {
+        return needsEmbedding(query) && !embeddingService.isAvailable();
+    }
+
+    private static boolean needsEmbedding(SearchQuery query) {
+        return query.getType() != null && !KEYWORD.equals(query.getType()) && query.getQueryVector() == null;
+    }
+
+    private List<SearchQuery> keyword(List<SearchQuery> queries) {
+        return queries.stream()
+                .map(query -> needsEmbedding(query) ? keyword(query) : query)
+                .toList();
+    }
+
+    private SearchQuery keyword(SearchQuery query) {
+        Counter.builder(METRIC_NAME)
+                .description("Searches served as keyword searches while the embedding backend is unavailable")
+                .tag("type", query.getType())
+                .register(meterRegistry)
+                .increment();
+        log.warn("Embedding backend unavailable, '{}' search '{}' falls back to keyword search", query.getType(), query.getQueryText());
+        return query.withType(KEYWORD);
+    }
+
+    private static boolean unavailable(Throwable error) {
+        return Throwables.getCausalChain(error).stream()
+                .anyMatch(EmbeddingUnavailableException.class::isInstance);
+    }
+}
@@ -5,11 +5,15 @@ import co.elastic.clients.elasticsearch._types.query_dsl.Query;
 import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
 import co.elastic.clients.elasticsearch.core.SearchRequest;
 import com.google.common.base.Stopwatch;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
 import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.model.SearchQuery;
 import com.liashenko.v.hybrid.search.service.EmbeddingService;
 import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingScheduler;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.core.io.ResourceLoader;
 
 import java.io.IOException;
 import java.util.List;
@@ -20,63 +24,63 @@ import static com.liashenko.v.hybrid.search.model.Conference.EMBEDDING_FIELD;
 @Slf4j
 public class InferenceSearchService extends DefaultSearchService implements SearchService {
 
-    public InferenceSearchService(ElasticsearchClient client, String indexName, EmbeddingService embeddingService, ResourceLoader resourceLoader, String indexConfigPath, int indexBatchSize, Executor taskExecutor) {
-        super(client, indexName, embeddingService, resourceLoader, indexConfigPath, indexBatchSize, taskExecutor);
+    public InferenceSearchService(ElasticsearchClient client, String indexName, EmbeddingService embeddingService, IndexAdmin indexAdmin, int indexBatchSize, IndexingScheduler indexingScheduler, SearchProperties searchProperties, Executor searchTaskExecutor, MeterRegistry meterRegistry) {
+        super(client, indexName, embeddingService, indexAdmin, indexBatchSize, indexingScheduler, searchProperties, searchTaskExecutor, meterRegistry);
     }
 
-    protected SearchRequest buildVectorSearchRequest(String queryText, int offset, int limit) throws IOException, InterruptedException {
+    /**
+     * Queries are embedded by the Elasticsearch inference endpoint.
+     */
+    @Override
+    protected boolean needsQueryVector(SearchQuery query) {
+        return false;
+    }
+
+    protected SearchRequest buildVectorSearchRequest(SearchQuery query, int topK) throws IOException, InterruptedException {
 //        List<Float> vectorizedQuery = embeddingService.embed(queryText); //no need to call embedding service when use inference in ES
 
-        return SearchRequest.of(s -> s
-                .index(indexName)
-                .from(offset)
-                .size(limit)
-                .explain(true)
-                .source(sourceBuilder -> sourceBuilder
-                        .filter(f -> f.includes(ALL_FIELDS)))
+        return SearchRequest.of(s -> project(page(s, query), query)
                 .knn(k -> k
                                 .field(EMBEDDING_FIELD)
+                                .filter(filterQueries(query.getFilters()))
 //                        .queryVector(vectorizedQuery) //no need to call embedding service when use inference in ES
                                 .queryVectorBuilder(builder -> builder
                                         .textEmbedding(textEmbeddingBuilder -> textEmbeddingBuilder
                                                 .modelId("embeddinggemma") //name of created inference_id in ES
-                                                .modelText(queryText)))
-                                .k(10)
-                                .numCandidates(100)
+                                                .modelText(query.getQueryText())))
+                                .k(topK)
+                                .numCandidates(numCandidates(query, topK))
                 ));
     }
 
-    protected SearchRequest buildHybridSearchRequest(String queryText, int offset, int limit) throws IOException, InterruptedException {
+    protected SearchRequest buildHybridSearchRequest(SearchQuery query) throws IOException, InterruptedException {
 //        List<Float> vectorizedQuery = embeddingService.embed(queryText); //no need to call embedding service when use inference in ES
+        int topK = knnK(query, searchProperties.getKnn().getHybridK());
 
         Query multiFieldTextSearchQuery = Query.of(q -> q
                 .multiMatch(multiMatchQuery -> multiMatchQuery
                         .fields(getTextFieldsForSearch())
-                        .query(queryText)
+                        .query(query.getQueryText())
                         .type(TextQueryType.BestFields)
                 )
         );
 
-        return SearchRequest.of(s -> s
-                .index(indexName)
-                .from(offset)
-                .size(limit)
-                .explain(true)
-                .source(sourceBuilder -> sourceBuilder
-                        .filter(f -> f.includes(ALL_FIELDS)))
+        return SearchRequest.of(s -> project(page(s, query), query)
                 .query(Query.of(queryBuilder -> queryBuilder
                         .bool(boolQueryBuilder ->
                                 boolQueryBuilder
-                                        .must(multiFieldTextSearchQuery))))
+                                        .must(multiFieldTextSearchQuery)
+                                        .filter(filterQueries(query.getFilters())))))
                 .knn(k -> k
                                 .field(EMBEDDING_FIELD)
+                                .filter(filterQueries(query.getFilters()))
 //                              .queryVector(vectorizedQuery)
                                 .queryVectorBuilder(builder -> builder
                                         .textEmbedding(textEmbeddingBuilder -> textEmbeddingBuilder
                                                 .modelId("hugging_face_embeddings")
-                                                .modelText(queryText)))
-                                .k(5)
-                                .numCandidates(100)
+                                                .modelText(query.getQueryText())))
+                                .k(topK)
+                                .numCandidates(numCandidates(query, topK))
                 ));
     }
 }
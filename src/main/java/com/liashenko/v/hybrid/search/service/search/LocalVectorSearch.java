@@ -0,0 +1,323 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.FieldValue;
+import co.elastic.clients.elasticsearch._types.SortOrder;
+import co.elastic.clients.elasticsearch._types.query_dsl.Query;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import com.google.common.base.Stopwatch;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.model.SearchQuery;
+import com.liashenko.v.hybrid.search.service.indexing.IndexAdmin;
+import com.liashenko.v.hybrid.search.service.snapshot.SnapshotFile;
+import com.liashenko.v.hybrid.search.service.vector.LocalVectorIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+
+import static com.liashenko.v.hybrid.search.model.Conference.EMBEDDING_FIELD;
+import static com.liashenko.v.hybrid.search.model.Conference.ID_FIELD;
+
+/**
+ * kNN legs answered by the in-process {@link LocalVectorIndex}. Owns the index: keeps it in step with the writes
+ * through the alias, loads it from Elasticsearch or from its snapshot at warm-up, writes the snapshot and turns
+ * the nearest ids into scored documents.
+ * <p>
+ * Writes into a concrete index, e.g. the next version filled by a reindex, are not applied. When the alias is
+ * swapped to such an index the local index is emptied and reloaded from Elasticsearch in the background; kNN legs
+ * go to Elasticsearch until then.
+ */
+@Slf4j
+public class LocalVectorSearch {
+    private static final String SNAPSHOT = "local-vectors";
+    private static final int SNAPSHOT_VERSION = 1;
+
+    private final ElasticsearchClient client;
+    private final String indexName;
+    private final IndexAdmin indexAdmin;
+    private final SearchProperties.LocalVectorProperties properties;
+    private final SearchMetrics searchMetrics;
+    private final Hydrator hydrator;
+    private final Executor executor;
+    private final LocalVectorIndex index;
+    /**
+     * Incremented by every alias swap, a warm-up started before the swap stops writing into the index.
+     */
+    private long epoch;
+
+    /**
+     * Fetches documents by id for {@link #search(SearchQuery, int, int, List)}.
+     */
+    @FunctionalInterface
+    public interface Hydrator {
+        /**
+         * @param query   search the documents are projected for
+         * @param ids     ids of the nearest neighbours
+         * @param filters filters of the query, applied by Elasticsearch
+         * @return the documents among {@code ids} that pass the filters, in any order
+         */
+        List<Conference> fetch(SearchQuery query, List<String> ids, List<Query> filters) throws IOException;
+    }
+
+    public LocalVectorSearch(ElasticsearchClient client,
+                             String indexName,
+                             IndexAdmin indexAdmin,
+                             SearchProperties.LocalVectorProperties properties,
+                             SearchMetrics searchMetrics,
+                             Hydrator hydrator,
+                             Executor executor,
+                             MeterRegistry meterRegistry) {
+        this.client = client;
+        this.indexName = indexName;
+        this.indexAdmin = indexAdmin;
+        this.properties = properties;
+        this.searchMetrics = searchMetrics;
+        this.hydrator = hydrator;
+        this.executor = executor;
+        this.index = new LocalVectorIndex(properties, meterRegistry);
+        indexAdmin.onAliasSwap(this::aliasSwapped);
+    }
+
+    /**
+     * The local index answers offset-paged kNN legs once it is loaded, when the query vector is computed by the
+     * application rather than by an Elasticsearch inference endpoint.
+     */
+    public boolean answers(SearchQuery query) {
+        return index.isReady()
+                && query.getCursor() == null
+                && query.getQueryVector() != null;
+    }
+
+    /**
+     * @param targetIndex index the document was written to, only writes through the alias are applied
+     * @param id          id of the document Elasticsearch acknowledged
+     * @param embedding   embedding of the document
+     */
+    public void indexed(String targetIndex, String id, float[] embedding) {
+        if (indexName.equals(targetIndex)) {
+            index.add(id, embedding);
+        }
+    }
+
+    public void deleted(String id) {
+        index.remove(id);
+    }
+
+    public void clear() {
+        index.clear();
+    }
+
+    /**
+     * Restores the index from its snapshot or, without a matching one, loads the embeddings of all indexed
+     * documents page by page in id order and writes a new snapshot. kNN legs keep going to Elasticsearch until it
+     * is done; a failed load is logged and leaves it that way.
+     */
+    public void warmUp() {
+        if (index.isReady()) {
+            return;
+        }
+        long started = epoch();
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        if (restore(started) && markReady(started)) {
+            log.info("Restored {} vectors of the local vector index from its snapshot in {}", index.size(), stopwatch);
+            return;
+        }
+        int pageSize = properties.getWarmUpPageSize();
+        try {
+            List<FieldValue> searchAfter = null;
+            long loaded = 0;
+            while (true) {
+                List<FieldValue> after = searchAfter;
+                List<Hit<Conference>> hits = client.search(s -> {
+                    s.index(indexName)
+                            .size(pageSize)
+                            .trackTotalHits(trackHits -> trackHits.enabled(false))
+                            .source(source -> source.filter(f -> f.includes(EMBEDDING_FIELD)))
+                            .sort(sort -> sort.field(field -> field.field(ID_FIELD).order(SortOrder.Asc)));
+                    return after == null ? s : s.searchAfter(after);
+                }, Conference.class).hits().hits();
+                int added = add(started, hits);
+                if (added < 0) {
+                    log.info("Alias swapped while loading the local vector index, abandoning this load");
+                    return;
+                }
+                loaded += added;
+                if (hits.size() < pageSize) {
+                    break;
+                }
+                searchAfter = hits.getLast().sort();
+            }
+            if (!markReady(started)) {
+                return;
+            }
+            log.info("Loaded {} vectors into the local vector index in {}", loaded, stopwatch);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to load the local vector index, kNN stays on Elasticsearch: {}", e.getMessage());
+            return;
+        }
+        save();
+    }
+
+    /**
+     * Writes the snapshot so the next instance starts warm.
+     */
+    public void close() {
+        if (index.isReady()) {
+            save();
+        }
+    }
+
+    /**
+     * The {@code k} nearest ids come from memory, the documents from the {@link Hydrator}, scored like the
+     * {@code cosine} similarity of Elasticsearch ({@code (1 + cos) / 2}).
+     * <p>
+     * With filters, {@code candidates} neighbours are fetched and the filters applied by Elasticsearch while
+     * hydrating, so a very selective filter can return fewer hits than the filtered kNN of Elasticsearch.
+     * Ids that are no longer in the index are dropped the same way.
+     *
+     * @return the requested page of the {@code k} nearest documents
+     */
+    public List<Conference> search(SearchQuery query, int k, int candidates, List<Query> filters) throws IOException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<LocalVectorIndex.Neighbour> neighbours = index.search(query.getQueryVector(), filters.isEmpty() ? k : candidates, candidates);
+        searchMetrics.record(SearchMetrics.LOCAL_KNN, query.getType(), stopwatch);
+        if (neighbours.isEmpty()) {
+            return List.of();
+        }
+
+        Map<String, Float> similarities = new HashMap<>(neighbours.size() * 2);
+        neighbours.forEach(neighbour -> similarities.put(neighbour.id(), neighbour.similarity()));
+        List<String> ids = neighbours.stream().map(LocalVectorIndex.Neighbour::id).toList();
+        return hydrator.fetch(query, ids, filters).stream()
+                .filter(hit -> similarities.containsKey(hit.getId()))
+                .map(hit -> hit.withScore((1 + similarities.get(hit.getId())) / 2.0))
+                .sorted(Comparator.comparingDouble(Conference::getScore).reversed())
+                .limit(k)
+                .skip(query.getOffset())
+                .limit(query.getLimit())
+                .toList();
+    }
+
+    private synchronized long epoch() {
+        return epoch;
+    }
+
+    private synchronized void aliasSwapped() {
+        epoch++;
+        index.reset();
+        log.info("Alias '{}' swapped, reloading the local vector index", indexName);
+        executor.execute(this::warmUp);
+    }
+
+    /**
+     * @return number of vectors added, {@code -1} if the alias was swapped since the load started
+     */
+    private synchronized int add(long started, List<Hit<Conference>> hits) {
+        if (epoch != started) {
+            return -1;
+        }
+        int added = 0;
+        for (Hit<Conference> hit : hits) {
+            if (hit.source() != null && hit.source().getEmbedding() != null) {
+                index.add(hit.id(), hit.source().getEmbedding());
+                added++;
+            }
+        }
+        return added;
+    }
+
+    private synchronized boolean markReady(long started) {
+        if (epoch != started) {
+            return false;
+        }
+        index.markReady();
+        return true;
+    }
+
+    /**
+     * The snapshot is used only while the indices behind the alias and their document count are the ones it was
+     * taken from; the count is checked again afterwards, as documents indexed during the restore are overwritten.
+     */
+    private boolean restore(long started) {
+        Path file = properties.getSnapshotFile();
+        if (file == null) {
+            return false;
+        }
+        Optional<SnapshotFile.Snapshot> snapshot = SnapshotFile.read(file, SNAPSHOT, SNAPSHOT_VERSION);
+        if (snapshot.isEmpty()) {
+            return false;
+        }
+        try {
+            ByteBuffer payload = snapshot.get().payload();
+            String indices = SnapshotFile.readString(payload);
+            long count = payload.getLong();
+            if (!indices.equals(aliasedIndices()) || count != documentCount()) {
+                log.info("Ignoring local vector snapshot {} of {} with {} documents, the index has changed since", file, indices, count);
+                return false;
+            }
+            if (!restore(started, payload)) {
+                log.info("Ignoring local vector snapshot {}, taken with another algorithm or m", file);
+                return false;
+            }
+            if (count != documentCount()) {
+                log.info("Documents were indexed while restoring the local vector snapshot, loading from Elasticsearch");
+                clear(started);
+                return false;
+            }
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to restore local vector snapshot {}: {}", file, e.toString());
+            clear(started);
+            return false;
+        }
+    }
+
+    private synchronized boolean restore(long started, ByteBuffer payload) {
+        return epoch == started && index.restore(payload);
+    }
+
+    private synchronized void clear(long started) {
+        if (epoch == started) {
+            index.clear();
+        }
+    }
+
+    private void save() {
+        Path file = properties.getSnapshotFile();
+        if (file == null) {
+            return;
+        }
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        try {
+            String indices = aliasedIndices();
+            long count = documentCount();
+            SnapshotFile.write(file, SNAPSHOT, SNAPSHOT_VERSION, out -> {
+                SnapshotFile.writeString(out, indices);
+                out.writeLong(count);
+                index.write(out);
+            });
+            log.info("Wrote local vector snapshot {} of {} in {}", file, indices, stopwatch);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Failed to write local vector snapshot {}: {}", file, e.toString());
+        }
+    }
+
+    private String aliasedIndices() {
+        return String.join(",", new TreeSet<>(indexAdmin.resolve()));
+    }
+
+    private long documentCount() throws IOException {
+        return client.count(c -> c.index(indexName)).count();
+    }
+}
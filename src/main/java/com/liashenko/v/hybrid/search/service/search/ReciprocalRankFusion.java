@@ -0,0 +1,97 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fuses keyword and vector result lists with weighted Reciprocal Rank Fusion:
+ * {@code score(d) = sum(weight / (rankConstant + rank(d)))} over the legs containing {@code d}.
+ * Only ranks are used, so the raw BM25 and similarity score scales never mix.
+ */
+public class ReciprocalRankFusion {
+
+    private final int rankConstant;
+    private final double keywordWeight;
+    private final double vectorWeight;
+
+    public ReciprocalRankFusion(SearchProperties.RrfProperties properties) {
+        this.rankConstant = properties.getRankConstant();
+        this.keywordWeight = properties.getKeywordWeight();
+        this.vectorWeight = properties.getVectorWeight();
+    }
+
+    /**
+     * Fuses two ranked lists and returns the requested page of the fused ranking.
+     *
+     * @param keywordHits hits of the keyword leg, best first
+     * @param vectorHits  hits of the vector leg, best first
+     * @param offset      number of fused hits to skip
+     * @param limit       maximum number of fused hits to return
+     * @return fused hits with {@code score} set to their RRF score
+     */
+    public List<Conference> fuse(List<Conference> keywordHits, List<Conference> vectorHits, int offset, int limit) {
+        int capacity = keywordHits.size() + vectorHits.size();
+        Conference[] documents = new Conference[capacity];
+        double[] scores = new double[capacity];
+        Map<String, Integer> slots = new HashMap<>(capacity * 2);
+
+        int size = accumulate(keywordHits, keywordWeight, documents, scores, slots, 0);
+        size = accumulate(vectorHits, vectorWeight, documents, scores, slots, size);
+
+        int top = Math.min(size, offset + limit);
+        int[] ranking = topSlots(scores, size, top);
+
+        List<Conference> fused = new ArrayList<>(Math.max(0, top - offset));
+        for (int i = offset; i < top; i++) {
+            Conference conference = documents[ranking[i]];
+            conference.setScore(scores[ranking[i]]);
+            fused.add(conference);
+        }
+        return fused;
+    }
+
+    private int accumulate(List<Conference> hits, double weight, Conference[] documents, double[] scores,
+                           Map<String, Integer> slots, int size) {
+        for (int rank = 0; rank < hits.size(); rank++) {
+            Conference hit = hits.get(rank);
+            double score = weight / (rankConstant + rank + 1);
+            Integer slot = slots.putIfAbsent(hit.getId(), size);
+            if (slot == null) {
+                documents[size] = hit;
+                scores[size++] = score;
+            } else {
+                scores[slot] += score;
+            }
+        }
+        return size;
+    }
+
+    /**
+     * Selects the best {@code top} slots by bounded insertion, which avoids sorting (and boxing) the whole
+     * candidate set when only the first page is requested.
+     */
+    private static int[] topSlots(double[] scores, int size, int top) {
+        int[] ranking = new int[top];
+        if (top == 0) {
+            return ranking;
+        }
+        int filled = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (filled == top && scores[slot] <= scores[ranking[top - 1]]) {
+                continue;
+            }
+            int position = filled < top ? filled++ : top - 1;
+            while (position > 0 && scores[ranking[position - 1]] < scores[slot]) {
+                ranking[position] = ranking[position - 1];
+                position--;
+            }
+            ranking[position] = slot;
+        }
+        return ranking;
+    }
+}
@@ -0,0 +1,61 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import com.google.common.base.Stopwatch;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+import java.time.Duration;
+
+/**
+ * Per-stage search latency as Micrometer timers, tagged by {@code stage} and search {@code type}.
+ * <p>
+ * {@code search.stage} with {@code stage=elasticsearch} is the latency observed by the client, including the
+ * network and (de)serialization; {@code search.elasticsearch.took} is the {@code took} reported by the cluster
+ * for the same calls, so the gap between both is spent outside of Elasticsearch.
+ */
+public class SearchMetrics {
+    static final String STAGE_TIMER = "search.stage";
+    static final String TOOK_TIMER = "search.elasticsearch.took";
+
+    static final String EMBEDDING = "embedding";
+    static final String BUILD = "build";
+    static final String ELASTICSEARCH = "elasticsearch";
+    static final String MAPPING = "mapping";
+    static final String FUSION = "fusion";
+    /**
+     * Nearest neighbour search in the in-process vector index.
+     */
+    static final String LOCAL_KNN = "local_knn";
+
+    /**
+     * Type tag of {@code _msearch} calls, which mix search types.
+     */
+    static final String BATCH = "BATCH";
+
+    private final MeterRegistry meterRegistry;
+
+    public SearchMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    void record(String stage, String type, Stopwatch stopwatch) {
+        record(stage, type, stopwatch.elapsed());
+    }
+
+    void record(String stage, String type, Duration duration) {
+        Timer.builder(STAGE_TIMER)
+                .description("Latency of one search stage")
+                .tag("stage", stage)
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(duration);
+    }
+
+    void recordTook(String type, long tookMillis) {
+        Timer.builder(TOOK_TIMER)
+                .description("Search time reported by Elasticsearch")
+                .tag("type", type)
+                .register(meterRegistry)
+                .record(Duration.ofMillis(tookMillis));
+    }
+}
@@ -0,0 +1,145 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import co.elastic.clients.elasticsearch.ElasticsearchClient;
+import co.elastic.clients.elasticsearch._types.query_dsl.Operator;
+import co.elastic.clients.elasticsearch._types.query_dsl.TextQueryType;
+import co.elastic.clients.elasticsearch.core.SearchRequest;
+import co.elastic.clients.elasticsearch.core.search.Hit;
+import co.elastic.clients.json.JsonData;
+import com.google.common.base.Stopwatch;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.Suggestion;
+import com.liashenko.v.hybrid.search.service.indexing.IndexGeneration;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.GuavaCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+import java.util.regex.Pattern;
+
+import static com.liashenko.v.hybrid.search.model.Conference.COUNTRY_DESCRIPTION_FIELD;
+import static com.liashenko.v.hybrid.search.model.Conference.DESCRIPTION_FIELD;
+import static com.liashenko.v.hybrid.search.model.Conference.FORMATTED_LOCATION_FIELD;
+import static com.liashenko.v.hybrid.search.model.Conference.INDUSTRY_CODES_CONCAT_STRING_FIELD;
+import static com.liashenko.v.hybrid.search.model.Conference.INDUSTRY_GROUPS_CONCAT_STRING_FIELD;
+import static com.liashenko.v.hybrid.search.model.Conference.INDUSTRY_SECTORS_CONCAT_STRING_FIELD;
+import static com.liashenko.v.hybrid.search.model.Conference.NAME_FIELD;
+import static org.apache.commons.lang3.StringUtils.isBlank;
+
+/**
+ * Search-as-you-type over the edge n-gram {@code prefix_text} subfields.
+ * <p>
+ * Every term of the input must match the start of a word in one of the fields. No embedding is computed,
+ * {@code _source} is not loaded (names come from doc values) and total hits are not counted. Results are cached
+ * for a short TTL, keyed by the normalized input, since consecutive keystrokes of many users repeat the same prefixes.
+ * Like the search result cache, entries belong to the current {@link IndexGeneration} and are dropped when it
+ * advances after a load, delete or alias swap.
+ */
+@Slf4j
+public class SuggestService {
+    static final String CACHE_NAME = "search.suggest";
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final String PREFIX_SUBFIELD = ".prefix_text";
+    private static final List<String> PREFIX_FIELDS = List.of(
+            NAME_FIELD + PREFIX_SUBFIELD + "^3",
+            FORMATTED_LOCATION_FIELD + PREFIX_SUBFIELD + "^2",
+            COUNTRY_DESCRIPTION_FIELD + PREFIX_SUBFIELD + "^2",
+            INDUSTRY_SECTORS_CONCAT_STRING_FIELD + PREFIX_SUBFIELD,
+            INDUSTRY_GROUPS_CONCAT_STRING_FIELD + PREFIX_SUBFIELD,
+            INDUSTRY_CODES_CONCAT_STRING_FIELD + PREFIX_SUBFIELD,
+            DESCRIPTION_FIELD + PREFIX_SUBFIELD + "^0.5"
+    );
+
+    private final ElasticsearchClient client;
+    private final String indexName;
+    private final SearchProperties.SuggestProperties properties;
+    private final IndexGeneration indexGeneration;
+    private final Cache<String, List<Suggestion>> cache;
+
+    public SuggestService(ElasticsearchClient client,
+                          String indexName,
+                          SearchProperties.SuggestProperties properties,
+                          IndexGeneration indexGeneration,
+                          MeterRegistry meterRegistry) {
+        this.client = client;
+        this.indexName = indexName;
+        this.properties = properties;
+        this.indexGeneration = indexGeneration;
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(properties.getCacheMaximumSize())
+                .expireAfterWrite(properties.getCacheTtl())
+                .recordStats()
+                .build();
+        indexGeneration.onAdvance(cache::invalidateAll);
+        GuavaCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    }
+
+    /**
+     * @param prefix text typed so far
+     * @param limit  suggestions to return, {@code null} for {@code search.suggest.default-limit}
+     * @return matching conferences, best first
+     */
+    public List<Suggestion> suggest(String prefix, Integer limit) {
+        if (isBlank(prefix)) {
+            return List.of();
+        }
+        String text = normalize(prefix);
+        int size = Math.min(limit == null ? properties.getDefaultLimit() : limit, properties.getMaxLimit());
+        if (text.length() < properties.getMinPrefixLength() || size <= 0) {
+            return List.of();
+        }
+        try {
+            // the generation in the key keeps a fetch that raced with an advance from being served afterwards
+            String key = indexGeneration.current() + ":" + size + ":" + text;
+            return cache.get(key, () -> fetch(text, size));
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Failed to suggest conferences for: '%s'".formatted(prefix), e.getCause());
+        }
+    }
+
+    private List<Suggestion> fetch(String text, int size) throws IOException {
+        Stopwatch stopwatch = Stopwatch.createStarted();
+        List<Suggestion> suggestions = client.search(buildSuggestRequest(text, size), Void.class)
+                .hits()
+                .hits()
+                .stream()
+                .map(SuggestService::toSuggestion)
+                .toList();
+        log.debug("Suggest '{}' returned {} results in {}", text, suggestions.size(), stopwatch);
+        return suggestions;
+    }
+
+    SearchRequest buildSuggestRequest(String text, int size) {
+        return SearchRequest.of(s -> s
+                .index(indexName)
+                .size(size)
+                .source(source -> source.fetch(false))
+                .docvalueFields(f -> f.field(NAME_FIELD))
+                .trackTotalHits(trackHits -> trackHits.enabled(false))
+                .query(q -> q
+                        .multiMatch(multiMatch -> multiMatch
+                                .fields(PREFIX_FIELDS)
+                                .query(text)
+                                .type(TextQueryType.CrossFields)
+                                .operator(Operator.And))));
+    }
+
+    private static Suggestion toSuggestion(Hit<Void> hit) {
+        JsonData names = hit.fields().get(NAME_FIELD);
+        String name = names == null || names.toJson().asJsonArray().isEmpty()
+                ? null
+                : names.toJson().asJsonArray().getString(0);
+        return new Suggestion(hit.id(), name);
+    }
+
+    static String normalize(String text) {
+        return WHITESPACE.matcher(text.strip())
+                .replaceAll(" ")
+                .toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,138 @@
+package com.liashenko.v.hybrid.search.service.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Versioned, checksummed snapshot of local state, written once and read back through a memory mapping so a
+ * restarted instance pays for page faults instead of rebuilding the state from Elasticsearch or the model.
+ * <p>
+ * Layout (big endian): {@code magic:int | format:int | kind:string | version:int | createdAt:long | payload | crc32c:int},
+ * strings are {@code length:int | utf-8 bytes}. The checksum covers everything before it. A snapshot is written to
+ * a temporary file and moved over the previous one, so readers never see a partial file.
+ */
+@Slf4j
+public final class SnapshotFile {
+    private static final int MAGIC = 0x48534E50;
+    private static final int FORMAT = 1;
+
+    private SnapshotFile() {
+    }
+
+    @FunctionalInterface
+    public interface PayloadWriter {
+        void write(DataOutput out) throws IOException;
+    }
+
+    /**
+     * @param file    snapshot file, replaced atomically
+     * @param kind    what the snapshot holds, checked when reading
+     * @param version version of the payload layout, checked when reading
+     * @param payload writes the payload
+     */
+    public static void write(Path file, String kind, int version, PayloadWriter payload) throws IOException {
+        Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+        try {
+            CRC32C crc = new CRC32C();
+            try (OutputStream stream = Files.newOutputStream(temporary)) {
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new CheckedOutputStream(stream, crc), 1 << 16));
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                writeString(out, kind);
+                out.writeInt(version);
+                out.writeLong(System.currentTimeMillis());
+                payload.write(out);
+                out.flush();
+                new DataOutputStream(stream).writeInt((int) crc.getValue());
+            }
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    /**
+     * Maps a snapshot and verifies its header and checksum. A missing, foreign, outdated or corrupted snapshot is
+     * reported as absent, the caller then rebuilds its state the slow way.
+     *
+     * @return the snapshot, positioned at the start of the payload
+     */
+    public static Optional<Snapshot> read(Path file, String kind, int version) {
+        if (!Files.isRegularFile(file)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < 3 * Integer.BYTES) {
+                log.warn("Ignoring snapshot {}: truncated", file);
+                return Optional.empty();
+            }
+            if (size > Integer.MAX_VALUE) {
+                log.warn("Ignoring snapshot {}: {} bytes exceed a single mapping", file, size);
+                return Optional.empty();
+            }
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            if (buffer.getInt() != MAGIC || buffer.getInt() != FORMAT) {
+                log.warn("Ignoring snapshot {}: not a snapshot of this format", file);
+                return Optional.empty();
+            }
+            int end = (int) size - Integer.BYTES;
+            CRC32C crc = new CRC32C();
+            crc.update(buffer.duplicate().position(0).limit(end));
+            if ((int) crc.getValue() != buffer.getInt(end)) {
+                log.warn("Ignoring snapshot {}: checksum mismatch", file);
+                return Optional.empty();
+            }
+            String actualKind = readString(buffer);
+            int actualVersion = buffer.getInt();
+            if (!kind.equals(actualKind) || version != actualVersion) {
+                log.warn("Ignoring snapshot {}: holds '{}' version {}, expected '{}' version {}", file, actualKind, actualVersion, kind, version);
+                return Optional.empty();
+            }
+            long createdAt = buffer.getLong();
+            return Optional.of(new Snapshot(createdAt, buffer.slice(buffer.position(), end - buffer.position())));
+        } catch (IOException | RuntimeException e) {
+            log.warn("Ignoring snapshot {}: {}", file, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    public static void writeString(DataOutput out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    public static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @param createdAt epoch millis the snapshot was written at
+     * @param payload   read-only view of the mapped payload
+     */
+    public record Snapshot(long createdAt, ByteBuffer payload) {
+    }
+}
@@ -0,0 +1,276 @@
+package com.liashenko.v.hybrid.search.service.vector;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Hierarchical Navigable Small World graph over the ordinals of {@link QuantizedVectors}, following Malkov and
+ * Yashunin: every node gets a random top level, links to {@code m} neighbours per level chosen by the diversity
+ * heuristic, up to {@code 2 * m} on level 0.
+ * <p>
+ * Scores are integer dot products of the quantized vectors, candidates are {@code score << 32 | ordinal} longs
+ * so the heaps need no objects. Not thread-safe, callers serialize inserts against searches.
+ */
+final class HnswGraph {
+    private final QuantizedVectors vectors;
+    private final int m;
+    private final int efConstruction;
+    private final double levelMultiplier;
+    private final SplittableRandom random = new SplittableRandom(42);
+    /**
+     * Links per node and level, {@code links[level][0]} is the number of neighbours that follow it.
+     */
+    private final List<int[][]> nodes = new ArrayList<>();
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    HnswGraph(QuantizedVectors vectors, int m, int efConstruction) {
+        this.vectors = vectors;
+        this.m = m;
+        this.efConstruction = efConstruction;
+        this.levelMultiplier = 1 / Math.log(Math.max(m, 2));
+    }
+
+    /**
+     * Links the next ordinal of the vector store into the graph.
+     */
+    void insert(int node) {
+        if (node != nodes.size()) {
+            throw new IllegalStateException("Nodes must be inserted in ordinal order, expected " + nodes.size() + " got " + node);
+        }
+        int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+        int[][] links = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            links[l] = new int[maxConnections(l) + 1];
+        }
+        nodes.add(links);
+        if (entryPoint < 0) {
+            entryPoint = node;
+            maxLevel = level;
+            return;
+        }
+
+        Scorer scorer = other -> vectors.dot(node, other);
+        int entry = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            entry = greedy(scorer, entry, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            long[] candidates = searchLayer(scorer, entry, efConstruction, l);
+            for (int neighbour : select(candidates, m)) {
+                append(links[l], neighbour);
+                connect(neighbour, node, l);
+            }
+            entry = ordinal(candidates[0]);
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = node;
+        }
+    }
+
+    /**
+     * @param query quantized query vector
+     * @param ef    size of the dynamic candidate list, larger is slower with better recall
+     * @return candidates in descending score order, at most {@code ef}
+     */
+    long[] search(byte[] query, int ef) {
+        if (entryPoint < 0) {
+            return new long[0];
+        }
+        Scorer scorer = other -> vectors.dot(query, other);
+        int entry = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            entry = greedy(scorer, entry, l);
+        }
+        return searchLayer(scorer, entry, ef, 0);
+    }
+
+    /**
+     * Writes {@code entryPoint | maxLevel | nodes | per node: levels | per level: count | links}.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(entryPoint);
+        out.writeInt(maxLevel);
+        out.writeInt(nodes.size());
+        for (int[][] links : nodes) {
+            out.writeInt(links.length);
+            for (int[] level : links) {
+                for (int i = 0; i <= level[0]; i++) {
+                    out.writeInt(level[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Restores a graph written by {@link #write(DataOutput)} over the same vectors; further inserts continue it.
+     */
+    static HnswGraph read(ByteBuffer in, QuantizedVectors vectors, int m, int efConstruction) {
+        HnswGraph graph = new HnswGraph(vectors, m, efConstruction);
+        graph.entryPoint = in.getInt();
+        graph.maxLevel = in.getInt();
+        int size = in.getInt();
+        if (size != vectors.size()) {
+            throw new IllegalStateException("Graph has " + size + " nodes, the vectors " + vectors.size());
+        }
+        for (int node = 0; node < size; node++) {
+            int[][] links = new int[in.getInt()][];
+            for (int l = 0; l < links.length; l++) {
+                links[l] = new int[graph.maxConnections(l) + 1];
+                int count = in.getInt();
+                if (count >= links[l].length) {
+                    throw new IllegalStateException("Node " + node + " has " + count + " links on level " + l);
+                }
+                links[l][0] = count;
+                for (int i = 1; i <= count; i++) {
+                    links[l][i] = in.getInt();
+                }
+            }
+            graph.nodes.add(links);
+        }
+        return graph;
+    }
+
+    static long encode(int score, int ordinal) {
+        return ((long) score << 32) | ordinal;
+    }
+
+    static int score(long candidate) {
+        return (int) (candidate >> 32);
+    }
+
+    static int ordinal(long candidate) {
+        return (int) candidate;
+    }
+
+    private int maxConnections(int level) {
+        return level == 0 ? 2 * m : m;
+    }
+
+    private int greedy(Scorer scorer, int entry, int level) {
+        int best = entry;
+        int bestScore = scorer.score(entry);
+        for (boolean improved = true; improved; ) {
+            improved = false;
+            int[] links = nodes.get(best)[level];
+            for (int i = 1; i <= links[0]; i++) {
+                int score = scorer.score(links[i]);
+                if (score > bestScore) {
+                    best = links[i];
+                    bestScore = score;
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    private long[] searchLayer(Scorer scorer, int entry, int ef, int level) {
+        BitSet visited = new BitSet(nodes.size());
+        // candidates to expand, best first (negated min-heap), and the ef best found so far, worst first
+        LongHeap candidates = new LongHeap(ef);
+        LongHeap found = new LongHeap(ef + 1);
+        long start = encode(scorer.score(entry), entry);
+        visited.set(entry);
+        candidates.push(-start);
+        found.push(start);
+
+        while (!candidates.isEmpty()) {
+            long candidate = -candidates.pop();
+            if (found.size() >= ef && score(candidate) < score(found.peek())) {
+                break;
+            }
+            int[] links = nodes.get(ordinal(candidate))[level];
+            for (int i = 1; i <= links[0]; i++) {
+                int neighbour = links[i];
+                if (visited.get(neighbour)) {
+                    continue;
+                }
+                visited.set(neighbour);
+                int score = scorer.score(neighbour);
+                if (found.size() < ef || score > score(found.peek())) {
+                    long next = encode(score, neighbour);
+                    candidates.push(-next);
+                    found.push(next);
+                    if (found.size() > ef) {
+                        found.pop();
+                    }
+                }
+            }
+        }
+        return found.drainDescending();
+    }
+
+    /**
+     * Diversity heuristic: a candidate is kept only when it is closer to the base node than to every neighbour
+     * kept before it, so links spread in different directions; the remaining slots are filled with the closest
+     * pruned candidates.
+     *
+     * @param candidates candidates in descending score order relative to the base node
+     */
+    private int[] select(long[] candidates, int max) {
+        int[] selected = new int[Math.min(max, candidates.length)];
+        int count = 0;
+        int[] pruned = new int[candidates.length];
+        int prunedCount = 0;
+        for (long candidate : candidates) {
+            if (count == selected.length) {
+                break;
+            }
+            int node = ordinal(candidate);
+            boolean diverse = true;
+            for (int i = 0; i < count && diverse; i++) {
+                diverse = vectors.dot(node, selected[i]) <= score(candidate);
+            }
+            if (diverse) {
+                selected[count++] = node;
+            } else {
+                pruned[prunedCount++] = node;
+            }
+        }
+        for (int i = 0; i < prunedCount && count < selected.length; i++) {
+            selected[count++] = pruned[i];
+        }
+        return count == selected.length ? selected : Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Adds a reverse link. A full neighbour list drops its least similar link instead of being re-selected by the
+     * heuristic, which would cost a quadratic number of dot products per insert.
+     */
+    private void connect(int node, int neighbour, int level) {
+        int[] links = nodes.get(node)[level];
+        if (links[0] < links.length - 1) {
+            append(links, neighbour);
+            return;
+        }
+        int worst = -1;
+        int worstScore = vectors.dot(node, neighbour);
+        for (int i = 1; i <= links[0]; i++) {
+            int score = vectors.dot(node, links[i]);
+            if (score < worstScore) {
+                worst = i;
+                worstScore = score;
+            }
+        }
+        if (worst > 0) {
+            links[worst] = neighbour;
+        }
+    }
+
+    private static void append(int[] links, int neighbour) {
+        links[++links[0]] = neighbour;
+    }
+
+    @FunctionalInterface
+    private interface Scorer {
+        int score(int ordinal);
+    }
+}
@@ -0,0 +1,356 @@
+package com.liashenko.v.hybrid.search.service.vector;
+
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.service.snapshot.SnapshotFile;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process nearest neighbour index over document embeddings keyed by document id, so the kNN leg of a search
+ * needs no Elasticsearch round trip.
+ * <p>
+ * Vectors are kept int8-quantized in {@link QuantizedVectors} and searched either by an {@link HnswGraph} or by an
+ * exact scan. A re-indexed document with a changed vector gets a new ordinal and its old one is tombstoned,
+ * deletes are tombstones as well; tombstoned ordinals are still traversed but never returned, so a graph search
+ * explores proportionally more candidates, and widens further while fewer than k of them are live. Once tombstones
+ * exceed {@code max-tombstone-ratio} of the vectors the index is compacted: the live vectors get new ordinals and
+ * the graph is rebuilt, searches wait meanwhile.
+ * <p>
+ * Searches run concurrently, adds and removes take an exclusive lock. The whole index, graph included, can be
+ * written to and restored from a snapshot, so a restart skips both the load from Elasticsearch and the graph build.
+ */
+@Slf4j
+public class LocalVectorIndex {
+    public static final String HNSW = "hnsw";
+    public static final String EXACT = "exact";
+
+    private final SearchProperties.LocalVectorProperties properties;
+    private final boolean hnsw;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<String> ids = new ArrayList<>();
+    private final BitSet deleted = new BitSet();
+    private int deletedCount;
+    private QuantizedVectors vectors;
+    private HnswGraph graph;
+    private volatile boolean ready;
+
+    public LocalVectorIndex(SearchProperties.LocalVectorProperties properties, MeterRegistry meterRegistry) {
+        if (!HNSW.equals(properties.getAlgorithm()) && !EXACT.equals(properties.getAlgorithm())) {
+            throw new IllegalArgumentException("Unknown search.local-vector.algorithm: " + properties.getAlgorithm());
+        }
+        this.properties = properties;
+        this.hnsw = HNSW.equals(properties.getAlgorithm());
+        this.ready = !properties.isWarmUp();
+        Gauge.builder("search.local.vectors", this, LocalVectorIndex::size)
+                .description("Documents in the in-process vector index")
+                .register(meterRegistry);
+        Gauge.builder("search.local.vectors.memory", this, LocalVectorIndex::bytes)
+                .description("Memory taken by the quantized vectors")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @return {@code true} once the index holds every indexed document and can answer kNN legs
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    public void markReady() {
+        ready = true;
+    }
+
+    /**
+     * Empties the index and marks it as not ready, e.g. before loading another Elasticsearch index into it.
+     */
+    public void reset() {
+        ready = false;
+        clear();
+    }
+
+    /**
+     * Adds or replaces the vector of a document. An unchanged vector is not added again.
+     */
+    public void add(String id, float[] vector) {
+        byte[] quantized = QuantizedVectors.quantize(vector);
+        lock.writeLock().lock();
+        try {
+            if (vectors == null) {
+                vectors = new QuantizedVectors(quantized.length);
+                graph = hnsw ? new HnswGraph(vectors, properties.getM(), properties.getEfConstruction()) : null;
+            } else if (vectors.dimensions() != quantized.length) {
+                throw new IllegalArgumentException("Vector of '%s' has %d dimensions, the index has %d"
+                        .formatted(id, quantized.length, vectors.dimensions()));
+            }
+            Integer previous = ordinals.get(id);
+            if (previous != null) {
+                if (vectors.matches(previous, quantized)) {
+                    return;
+                }
+                tombstone(previous);
+            }
+            int ordinal = vectors.add(quantized);
+            ids.add(id);
+            ordinals.put(id, ordinal);
+            if (graph != null) {
+                graph.insert(ordinal);
+            }
+            compactIfNeeded();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(String id) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.remove(id);
+            if (ordinal != null) {
+                tombstone(ordinal);
+                compactIfNeeded();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        lock.writeLock().lock();
+        try {
+            ordinals.clear();
+            ids.clear();
+            deleted.clear();
+            deletedCount = 0;
+            vectors = null;
+            graph = null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param vector query vector, normalized here
+     * @param k      neighbours to return
+     * @param ef     candidates explored by the graph search, ignored by the exact scan
+     * @return up to {@code k} nearest documents, most similar first
+     */
+    public List<Neighbour> search(float[] vector, int k, int ef) {
+        byte[] query = QuantizedVectors.quantize(vector);
+        lock.readLock().lock();
+        try {
+            if (vectors == null || k <= 0 || ordinals.isEmpty()) {
+                return List.of();
+            }
+            if (vectors.dimensions() != query.length) {
+                throw new IllegalArgumentException("Query vector has %d dimensions, the index has %d"
+                        .formatted(query.length, vectors.dimensions()));
+            }
+            if (graph == null) {
+                return live(scan(query, k), k);
+            }
+            // tombstones take candidate slots, widen the search until k live neighbours are found
+            int explored = explored(Math.max(ef, k));
+            List<Neighbour> neighbours = live(graph.search(query, explored), k);
+            while (neighbours.size() < Math.min(k, ordinals.size()) && explored < vectors.size()) {
+                explored = (int) Math.min(2L * explored, vectors.size());
+                neighbours = live(graph.search(query, explored), k);
+            }
+            return neighbours;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return ordinals.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes {@code algorithm | m | ids | tombstones | vectors | graph}; searches may run meanwhile, writes wait.
+     */
+    public void write(DataOutput out) throws IOException {
+        lock.readLock().lock();
+        try {
+            SnapshotFile.writeString(out, properties.getAlgorithm());
+            out.writeInt(properties.getM());
+            out.writeInt(ids.size());
+            for (String id : ids) {
+                SnapshotFile.writeString(out, id);
+            }
+            long[] tombstones = deleted.toLongArray();
+            out.writeInt(tombstones.length);
+            for (long word : tombstones) {
+                out.writeLong(word);
+            }
+            out.writeBoolean(vectors != null);
+            if (vectors != null) {
+                vectors.write(out);
+                if (graph != null) {
+                    graph.write(out);
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Replaces the content of the index with a snapshot written by {@link #write(DataOutput)}. A snapshot taken
+     * with another algorithm, or another {@code m} for HNSW, is rejected, its graph would not match the configuration.
+     *
+     * @return {@code false} if the snapshot does not match the configuration
+     */
+    public boolean restore(ByteBuffer in) {
+        String algorithm = SnapshotFile.readString(in);
+        int m = in.getInt();
+        if (!properties.getAlgorithm().equals(algorithm) || hnsw && properties.getM() != m) {
+            return false;
+        }
+        int count = in.getInt();
+        List<String> restoredIds = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            restoredIds.add(SnapshotFile.readString(in));
+        }
+        long[] tombstones = new long[in.getInt()];
+        in.asLongBuffer().get(tombstones);
+        in.position(in.position() + tombstones.length * Long.BYTES);
+        BitSet restoredDeleted = BitSet.valueOf(tombstones);
+        QuantizedVectors restoredVectors = null;
+        HnswGraph restoredGraph = null;
+        if (in.get() != 0) {
+            restoredVectors = QuantizedVectors.read(in);
+            if (restoredVectors.size() != count) {
+                throw new IllegalStateException("Snapshot has " + count + " ids but " + restoredVectors.size() + " vectors");
+            }
+            if (hnsw) {
+                restoredGraph = HnswGraph.read(in, restoredVectors, properties.getM(), properties.getEfConstruction());
+            }
+        }
+        Map<String, Integer> restoredOrdinals = new HashMap<>();
+        for (int ordinal = 0; ordinal < count; ordinal++) {
+            if (!restoredDeleted.get(ordinal)) {
+                restoredOrdinals.put(restoredIds.get(ordinal), ordinal);
+            }
+        }
+
+        lock.writeLock().lock();
+        try {
+            ids.clear();
+            ids.addAll(restoredIds);
+            ordinals.clear();
+            ordinals.putAll(restoredOrdinals);
+            deleted.clear();
+            deleted.or(restoredDeleted);
+            deletedCount = restoredDeleted.cardinality();
+            vectors = restoredVectors;
+            graph = restoredGraph;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return true;
+    }
+
+    private List<Neighbour> live(long[] candidates, int k) {
+        List<Neighbour> neighbours = new ArrayList<>(Math.min(k, candidates.length));
+        for (int i = 0; i < candidates.length && neighbours.size() < k; i++) {
+            int ordinal = HnswGraph.ordinal(candidates[i]);
+            if (!deleted.get(ordinal)) {
+                neighbours.add(new Neighbour(ids.get(ordinal), QuantizedVectors.cosine(HnswGraph.score(candidates[i]))));
+            }
+        }
+        return neighbours;
+    }
+
+    private void tombstone(int ordinal) {
+        deleted.set(ordinal);
+        deletedCount++;
+    }
+
+    /**
+     * Graph candidates to collect so that about {@code ef} of them are live.
+     */
+    private int explored(int ef) {
+        long scaled = (long) Math.ceil((double) ef * vectors.size() / ordinals.size());
+        return (int) Math.min(scaled, vectors.size());
+    }
+
+    private void compactIfNeeded() {
+        if (deletedCount == 0 || deletedCount <= properties.getMaxTombstoneRatio() * vectors.size()) {
+            return;
+        }
+        int before = vectors.size();
+        QuantizedVectors liveVectors = new QuantizedVectors(vectors.dimensions());
+        HnswGraph liveGraph = hnsw ? new HnswGraph(liveVectors, properties.getM(), properties.getEfConstruction()) : null;
+        List<String> liveIds = new ArrayList<>(ordinals.size());
+        for (int ordinal = 0; ordinal < before; ordinal++) {
+            if (deleted.get(ordinal)) {
+                continue;
+            }
+            int compacted = liveVectors.add(vectors.get(ordinal));
+            liveIds.add(ids.get(ordinal));
+            ordinals.put(ids.get(ordinal), compacted);
+            if (liveGraph != null) {
+                liveGraph.insert(compacted);
+            }
+        }
+        ids.clear();
+        ids.addAll(liveIds);
+        deleted.clear();
+        deletedCount = 0;
+        vectors = liveVectors;
+        graph = liveGraph;
+        log.info("Compacted the local vector index from {} to {} vectors", before, liveIds.size());
+    }
+
+    private long bytes() {
+        lock.readLock().lock();
+        try {
+            return vectors == null ? 0 : vectors.bytes();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long[] scan(byte[] query, int k) {
+        LongHeap best = new LongHeap(k + 1);
+        for (int ordinal = 0; ordinal < vectors.size(); ordinal++) {
+            if (deleted.get(ordinal)) {
+                continue;
+            }
+            long candidate = HnswGraph.encode(vectors.dot(query, ordinal), ordinal);
+            if (best.size() < k) {
+                best.push(candidate);
+            } else if (candidate > best.peek()) {
+                best.pop();
+                best.push(candidate);
+            }
+        }
+        return best.drainDescending();
+    }
+
+    /**
+     * @param id         document id
+     * @param similarity approximate cosine similarity to the query
+     */
+    public record Neighbour(String id, float similarity) {
+    }
+}
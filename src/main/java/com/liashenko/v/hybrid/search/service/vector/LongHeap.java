@@ -0,0 +1,75 @@
+package com.liashenko.v.hybrid.search.service.vector;
+
+import java.util.Arrays;
+
+/**
+ * Binary min-heap of primitive longs, used for {@code score << 32 | ordinal} pairs without boxing.
+ * A max-heap is a min-heap of negated values.
+ */
+final class LongHeap {
+    private long[] heap;
+    private int size;
+
+    LongHeap(int initialCapacity) {
+        this.heap = new long[Math.max(initialCapacity, 8)];
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    long peek() {
+        return heap[0];
+    }
+
+    void push(long value) {
+        if (size == heap.length) {
+            heap = Arrays.copyOf(heap, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (heap[parent] <= value) {
+                break;
+            }
+            heap[i] = heap[parent];
+            i = parent;
+        }
+        heap[i] = value;
+    }
+
+    long pop() {
+        long top = heap[0];
+        long last = heap[--size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && heap[child + 1] < heap[child]) {
+                child++;
+            }
+            if (last <= heap[child]) {
+                break;
+            }
+            heap[i] = heap[child];
+            i = child;
+        }
+        heap[i] = last;
+        return top;
+    }
+
+    /**
+     * @return the values in descending order, the heap is left empty
+     */
+    long[] drainDescending() {
+        long[] values = new long[size];
+        for (int i = values.length - 1; i >= 0; i--) {
+            values[i] = pop();
+        }
+        return values;
+    }
+}
@@ -0,0 +1,143 @@
+package com.liashenko.v.hybrid.search.service.vector;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Append-only store of int8 scalar-quantized unit vectors addressed by ordinal.
+ * <p>
+ * Vectors are normalized and every component is scaled by 127, so the dot product of two stored vectors is their
+ * cosine similarity times {@code 127 * 127}. They are packed into fixed-size chunks of 4096 vectors: 768
+ * dimensions take 768 bytes per vector instead of 3 KB of floats and no per-vector object.
+ * <p>
+ * The dot product is a plain int loop over byte arrays, which C2 compiles to SIMD instructions.
+ */
+final class QuantizedVectors {
+    static final float SCALE = 127f;
+    private static final int CHUNK_SHIFT = 12;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private final int dimensions;
+    private final List<byte[]> chunks = new ArrayList<>();
+    private int size;
+
+    QuantizedVectors(int dimensions) {
+        this.dimensions = dimensions;
+    }
+
+    /**
+     * @param vector vector of any length, normalized before quantization
+     * @return int8 components of the unit vector
+     */
+    static byte[] quantize(float[] vector) {
+        double norm = 0;
+        for (float component : vector) {
+            norm += component * component;
+        }
+        byte[] quantized = new byte[vector.length];
+        if (norm == 0) {
+            return quantized;
+        }
+        double scale = SCALE / Math.sqrt(norm);
+        for (int i = 0; i < vector.length; i++) {
+            quantized[i] = (byte) Math.max(-127, Math.min(127, Math.round(vector[i] * scale)));
+        }
+        return quantized;
+    }
+
+    /**
+     * @param dot dot product of two quantized vectors
+     * @return approximate cosine similarity
+     */
+    static float cosine(int dot) {
+        return dot / (SCALE * SCALE);
+    }
+
+    int dimensions() {
+        return dimensions;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long bytes() {
+        return (long) chunks.size() * (CHUNK_MASK + 1) * dimensions;
+    }
+
+    int add(byte[] vector) {
+        int ordinal = size;
+        int chunk = ordinal >>> CHUNK_SHIFT;
+        if (chunk == chunks.size()) {
+            chunks.add(new byte[(CHUNK_MASK + 1) * dimensions]);
+        }
+        System.arraycopy(vector, 0, chunks.get(chunk), offset(ordinal), dimensions);
+        size++;
+        return ordinal;
+    }
+
+    /**
+     * @return copy of the quantized vector
+     */
+    byte[] get(int ordinal) {
+        int offset = offset(ordinal);
+        return Arrays.copyOfRange(chunks.get(ordinal >>> CHUNK_SHIFT), offset, offset + dimensions);
+    }
+
+    boolean matches(int ordinal, byte[] vector) {
+        int offset = offset(ordinal);
+        return Arrays.equals(chunks.get(ordinal >>> CHUNK_SHIFT), offset, offset + dimensions, vector, 0, dimensions);
+    }
+
+    int dot(byte[] query, int ordinal) {
+        return dot(query, 0, chunks.get(ordinal >>> CHUNK_SHIFT), offset(ordinal), dimensions);
+    }
+
+    int dot(int a, int b) {
+        return dot(chunks.get(a >>> CHUNK_SHIFT), offset(a), chunks.get(b >>> CHUNK_SHIFT), offset(b), dimensions);
+    }
+
+    /**
+     * Writes {@code dimensions | size | vectors}, the vectors back to back without the unused tail of the last chunk.
+     */
+    void write(DataOutput out) throws IOException {
+        out.writeInt(dimensions);
+        out.writeInt(size);
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            int vectorsInChunk = Math.min(CHUNK_MASK + 1, size - (chunk << CHUNK_SHIFT));
+            out.write(chunks.get(chunk), 0, vectorsInChunk * dimensions);
+        }
+    }
+
+    /**
+     * Copies the vectors written by {@link #write(DataOutput)} into fresh chunks.
+     */
+    static QuantizedVectors read(ByteBuffer in) {
+        QuantizedVectors vectors = new QuantizedVectors(in.getInt());
+        int size = in.getInt();
+        while (vectors.size < size) {
+            int vectorsInChunk = Math.min(CHUNK_MASK + 1, size - vectors.size);
+            byte[] chunk = new byte[(CHUNK_MASK + 1) * vectors.dimensions];
+            in.get(chunk, 0, vectorsInChunk * vectors.dimensions);
+            vectors.chunks.add(chunk);
+            vectors.size += vectorsInChunk;
+        }
+        return vectors;
+    }
+
+    private int offset(int ordinal) {
+        return (ordinal & CHUNK_MASK) * dimensions;
+    }
+
+    private static int dot(byte[] a, int aOffset, byte[] b, int bOffset, int length) {
+        int sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,49 @@
+package com.liashenko.v.hybrid.search.model;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchCursorTest {
+
+    private static final SearchQuery QUERY = SearchQuery.builder()
+            .queryText("fintech")
+            .type("HYBRID")
+            .limit(20)
+            .build();
+
+    @Test
+    void decodesItsOwnToken() {
+        String hash = SearchCursor.queryHash(QUERY);
+        SearchCursor cursor = new SearchCursor("pit", 1.5, "42").withQueryHash(hash);
+
+        assertThat(SearchCursor.decode(cursor.encode(), hash)).isEqualTo(cursor);
+    }
+
+    @Test
+    void rejectsCursorOfAnotherQuery() {
+        String token = new SearchCursor("pit", 1.5, "42").withQueryHash(SearchCursor.queryHash(QUERY)).encode();
+
+        assertThatThrownBy(() -> SearchCursor.decode(token, SearchCursor.queryHash(QUERY.withType("KEYWORD"))))
+                .isInstanceOf(InvalidSearchRequestException.class);
+        assertThatThrownBy(() -> SearchCursor.decode(token, SearchCursor.queryHash(QUERY.withFilters(
+                new SearchFilters(null, null, List.of("Germany"), null, null, null)))))
+                .isInstanceOf(InvalidSearchRequestException.class);
+    }
+
+    @Test
+    void ignoresPageSizeAndFieldSet() {
+        assertThat(SearchCursor.queryHash(QUERY.withLimit(50).withFieldSet(FieldSet.SUMMARY)))
+                .isEqualTo(SearchCursor.queryHash(QUERY));
+    }
+
+    @Test
+    void rejectsMalformedToken() {
+        assertThatThrownBy(() -> SearchCursor.decode("not a cursor", SearchCursor.queryHash(QUERY)))
+                .isInstanceOf(InvalidSearchRequestException.class)
+                .hasMessageStartingWith("Invalid search cursor");
+    }
+}
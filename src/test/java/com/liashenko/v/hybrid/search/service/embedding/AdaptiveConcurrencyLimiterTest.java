@@ -0,0 +1,114 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static com.liashenko.v.hybrid.search.service.embedding.AdaptiveConcurrencyLimiter.Priority.BULK;
+import static com.liashenko.v.hybrid.search.service.embedding.AdaptiveConcurrencyLimiter.Priority.INTERACTIVE;
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdaptiveConcurrencyLimiterTest {
+
+    @Test
+    void growsAdditivelyUpToTheMaximum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 4, Duration.ofSeconds(1));
+
+        limiter.acquire(INTERACTIVE);
+        limiter.release(INTERACTIVE, false);
+        assertThat(limiter.limit()).isEqualTo(2.5);
+
+        for (int i = 0; i < 50; i++) {
+            limiter.acquire(INTERACTIVE);
+            limiter.acquire(INTERACTIVE);
+            limiter.release(INTERACTIVE, false);
+            limiter.release(INTERACTIVE, false);
+        }
+        assertThat(limiter.limit()).isEqualTo(4);
+        assertThat(limiter.inFlight()).isZero();
+    }
+
+    @Test
+    void backsOffMultiplicativelyDownToTheMinimum() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(2, 4, Duration.ofSeconds(1));
+
+        limiter.acquire(INTERACTIVE);
+        limiter.release(INTERACTIVE, true);
+        assertThat(limiter.limit()).isEqualTo(1);
+
+        limiter.acquire(INTERACTIVE);
+        limiter.release(INTERACTIVE, true);
+        assertThat(limiter.limit()).isEqualTo(1);
+    }
+
+    @Test
+    void interactiveCallGivesUpAfterTheQueueTimeout() throws InterruptedException {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofMillis(50));
+        limiter.acquire(INTERACTIVE);
+
+        assertThatThrownBy(() -> limiter.acquire(INTERACTIVE))
+                .isInstanceOf(EmbeddingUnavailableException.class);
+        assertThat(limiter.inFlight()).isEqualTo(1);
+    }
+
+    @Test
+    void interactiveCallsGoAheadOfWaitingBulkCalls() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(1, 1, Duration.ofSeconds(5));
+        limiter.acquire(INTERACTIVE);
+        CompletableFuture<Void> bulk = acquireAsync(limiter, BULK);
+        CompletableFuture<Void> interactive = acquireAsync(limiter, INTERACTIVE);
+        Thread.sleep(100);
+
+        limiter.release(INTERACTIVE, false);
+
+        interactive.get(1, TimeUnit.SECONDS);
+        assertThat(bulk).isNotDone();
+        limiter.release(INTERACTIVE, false);
+        bulk.get(1, TimeUnit.SECONDS);
+    }
+
+    @Test
+    void bulkCallsHoldAtMostTheirShareOfTheLimit() throws Exception {
+        AdaptiveConcurrencyLimiter limiter = limiter(4, 4, Duration.ofSeconds(1));
+        limiter.acquire(BULK);
+        limiter.acquire(BULK);
+        CompletableFuture<Void> third = acquireAsync(limiter, BULK);
+
+        assertThatThrownBy(() -> third.get(100, TimeUnit.MILLISECONDS)).isInstanceOf(TimeoutException.class);
+        limiter.acquire(INTERACTIVE);
+        assertThat(limiter.inFlight()).isEqualTo(3);
+
+        limiter.release(BULK, false);
+        third.get(1, TimeUnit.SECONDS);
+    }
+
+    private static CompletableFuture<Void> acquireAsync(AdaptiveConcurrencyLimiter limiter,
+                                                        AdaptiveConcurrencyLimiter.Priority priority) {
+        CompletableFuture<Void> acquired = new CompletableFuture<>();
+        Thread.ofVirtual().start(() -> {
+            try {
+                limiter.acquire(priority);
+                acquired.complete(null);
+            } catch (InterruptedException | RuntimeException e) {
+                acquired.completeExceptionally(e);
+            }
+        });
+        return acquired;
+    }
+
+    private static AdaptiveConcurrencyLimiter limiter(int initialLimit, int maxLimit, Duration queueTimeout) {
+        EmbeddingProperties.LimiterProperties properties = new EmbeddingProperties.LimiterProperties();
+        properties.setInitialLimit(initialLimit);
+        properties.setMinLimit(1);
+        properties.setMaxLimit(maxLimit);
+        properties.setBackoffRatio(0.5);
+        properties.setBulkShare(0.5);
+        properties.setQueueTimeout(queueTimeout);
+        return new AdaptiveConcurrencyLimiter(properties);
+    }
+}
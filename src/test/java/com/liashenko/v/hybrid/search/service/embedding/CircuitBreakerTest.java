@@ -0,0 +1,114 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static com.liashenko.v.hybrid.search.service.embedding.CircuitBreaker.Permit.CALL;
+import static com.liashenko.v.hybrid.search.service.embedding.CircuitBreaker.Permit.PROBE;
+import static com.liashenko.v.hybrid.search.service.embedding.CircuitBreaker.Permit.REJECTED;
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakerTest {
+
+    @Test
+    void opensOnceTheFailureRateIsReachedOverTheMinimumCalls() {
+        CircuitBreaker breaker = breaker(Duration.ofHours(1));
+        breaker.onSuccess(breaker.tryAcquire());
+        fail(breaker, 2);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+
+        fail(breaker, 1);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(REJECTED);
+        assertThat(breaker.isAvailable()).isFalse();
+    }
+
+    @Test
+    void staysClosedWhileTheFailureRateIsBelowTheThreshold() {
+        CircuitBreaker breaker = breaker(Duration.ofHours(1));
+        for (int i = 0; i < 20; i++) {
+            CircuitBreaker.Permit permit = breaker.tryAcquire();
+            if (i % 3 == 2) {
+                breaker.onFailure(permit);
+            } else {
+                breaker.onSuccess(permit);
+            }
+        }
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void letsASingleProbeThroughAndClosesOnItsSuccess() {
+        CircuitBreaker breaker = opened();
+
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertThat(probe).isEqualTo(PROBE);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.tryAcquire()).isEqualTo(REJECTED);
+        assertThat(breaker.isAvailable()).isFalse();
+
+        breaker.onSuccess(probe);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.CLOSED);
+        assertThat(breaker.tryAcquire()).isEqualTo(CALL);
+    }
+
+    @Test
+    void opensAgainWhenTheProbeFails() {
+        CircuitBreaker breaker = opened();
+
+        breaker.onFailure(breaker.tryAcquire());
+
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void ignoresASlowCallAdmittedBeforeTheCircuitOpened() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        CircuitBreaker.Permit slow = breaker.tryAcquire();
+        fail(breaker, 4);
+        CircuitBreaker.Permit probe = breaker.tryAcquire();
+        assertThat(probe).isEqualTo(PROBE);
+
+        breaker.onSuccess(slow);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.HALF_OPEN);
+        breaker.onIgnored(slow);
+        assertThat(breaker.tryAcquire()).isEqualTo(REJECTED);
+
+        breaker.onFailure(probe);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void letsAnotherProbeThroughWhenTheProbeWasNotSent() {
+        CircuitBreaker breaker = opened();
+
+        breaker.onIgnored(breaker.tryAcquire());
+
+        assertThat(breaker.isAvailable()).isTrue();
+        assertThat(breaker.tryAcquire()).isEqualTo(PROBE);
+    }
+
+    private static CircuitBreaker opened() {
+        CircuitBreaker breaker = breaker(Duration.ZERO);
+        fail(breaker, 4);
+        assertThat(breaker.state()).isEqualTo(CircuitBreaker.State.OPEN);
+        return breaker;
+    }
+
+    private static void fail(CircuitBreaker breaker, int calls) {
+        for (int i = 0; i < calls; i++) {
+            breaker.onFailure(breaker.tryAcquire());
+        }
+    }
+
+    private static CircuitBreaker breaker(Duration openDuration) {
+        EmbeddingProperties.CircuitBreakerProperties properties = new EmbeddingProperties.CircuitBreakerProperties();
+        properties.setWindowSize(10);
+        properties.setMinimumCalls(4);
+        properties.setFailureRateThreshold(0.5);
+        properties.setOpenDuration(openDuration);
+        return new CircuitBreaker(properties);
+    }
+}
@@ -0,0 +1,135 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import com.liashenko.v.hybrid.search.service.EmbeddingService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CoalescingEmbeddingServiceTest {
+
+    private final BlockingBackend backend = new BlockingBackend();
+    private final EmbeddingService service = new CoalescingEmbeddingService(backend, properties(), new SimpleMeterRegistry());
+
+    @Test
+    void sharesOneCallBetweenConcurrentCallers() throws Exception {
+        CompletableFuture<float[]> first = service.embedAsync("fintech");
+        CompletableFuture<float[]> second = service.embedAsync("fintech");
+        backend.awaitCall();
+        backend.release();
+
+        assertThat(first.get(1, TimeUnit.SECONDS)).containsExactly(7f);
+        assertThat(second.get(1, TimeUnit.SECONDS)).containsExactly(7f);
+        assertThat(backend.calls.get()).isEqualTo(1);
+    }
+
+    @Test
+    void keepsTheSharedCallWhileAnotherCallerWaits() throws Exception {
+        CompletableFuture<float[]> cancelled = service.embedAsync("fintech");
+        CompletableFuture<float[]> waiting = service.embedAsync("fintech");
+        backend.awaitCall();
+
+        cancelled.cancel(true);
+        backend.release();
+
+        assertThat(waiting.get(1, TimeUnit.SECONDS)).containsExactly(7f);
+        assertThat(backend.interrupted.getCount()).isEqualTo(1);
+    }
+
+    @Test
+    void interruptsTheBackendCallOnceEveryCallerCancelled() throws Exception {
+        CompletableFuture<float[]> first = service.embedAsync("fintech");
+        CompletableFuture<float[]> second = service.embedAsync("fintech");
+        backend.awaitCall();
+
+        first.cancel(true);
+        second.orTimeout(1, TimeUnit.MILLISECONDS);
+
+        assertThat(backend.interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+    }
+
+    @Test
+    void startsAFreshCallAfterTheSharedOneWasCancelled() throws Exception {
+        CompletableFuture<float[]> cancelled = service.embedAsync("fintech");
+        backend.awaitCall();
+        cancelled.cancel(true);
+        assertThat(backend.interrupted.await(1, TimeUnit.SECONDS)).isTrue();
+
+        backend.release();
+        assertThat(service.embedAsync("fintech").get(1, TimeUnit.SECONDS)).containsExactly(7f);
+        assertThat(backend.calls.get()).isEqualTo(2);
+    }
+
+    @Test
+    void dropsACancelledTextBeforeTheBatchIsSent() throws Exception {
+        EmbeddingService slowWindow = new CoalescingEmbeddingService(backend, properties(Duration.ofMillis(200)), new SimpleMeterRegistry());
+        slowWindow.embedAsync("fintech").cancel(true);
+        CompletableFuture<float[]> other = slowWindow.embedAsync("biotech");
+        backend.release();
+
+        assertThat(other.get(1, TimeUnit.SECONDS)).containsExactly(7f);
+        assertThat(backend.texts).containsExactly(List.of("biotech"));
+    }
+
+    private static EmbeddingProperties.CoalescingProperties properties() {
+        return properties(Duration.ofMillis(1));
+    }
+
+    private static EmbeddingProperties.CoalescingProperties properties(Duration window) {
+        EmbeddingProperties.CoalescingProperties properties = new EmbeddingProperties.CoalescingProperties();
+        properties.setWindow(window);
+        return properties;
+    }
+
+    /**
+     * Answers every text with {@code [7]} once released, recording whether a waiting call got interrupted.
+     */
+    private static final class BlockingBackend implements EmbeddingService {
+        private final AtomicInteger calls = new AtomicInteger();
+        private final List<List<String>> texts = new CopyOnWriteArrayList<>();
+        private final CountDownLatch called = new CountDownLatch(1);
+        private final CountDownLatch released = new CountDownLatch(1);
+        private final CountDownLatch interrupted = new CountDownLatch(1);
+
+        @Override
+        public float[] embed(String text) {
+            return embedQueries(List.of(text)).getFirst();
+        }
+
+        @Override
+        public List<float[]> embedQueries(List<String> texts) {
+            calls.incrementAndGet();
+            this.texts.add(texts);
+            called.countDown();
+            try {
+                released.await();
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new RuntimeException("Interrupted", e);
+            }
+            return texts.stream().map(text -> new float[]{7f}).toList();
+        }
+
+        @Override
+        public List<float[]> embedBatch(List<String> texts) {
+            return embedQueries(texts);
+        }
+
+        void awaitCall() throws InterruptedException {
+            assertThat(called.await(1, TimeUnit.SECONDS)).isTrue();
+        }
+
+        void release() {
+            released.countDown();
+        }
+    }
+}
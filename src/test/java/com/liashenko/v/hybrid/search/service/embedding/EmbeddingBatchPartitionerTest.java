@@ -0,0 +1,60 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmbeddingBatchPartitionerTest {
+
+    @Test
+    void returnsNoBatchForNoInputs() {
+        assertThat(new EmbeddingBatchPartitioner(4, 100).partition(List.of())).isEmpty();
+    }
+
+    @Test
+    void splitsByBatchSizeKeepingTheOrder() {
+        List<String> inputs = List.of("a", "b", "c", "d", "e");
+
+        assertThat(new EmbeddingBatchPartitioner(2, 100).partition(inputs))
+                .containsExactly(List.of("a", "b"), List.of("c", "d"), List.of("e"));
+    }
+
+    @Test
+    void fillsABatchUpToExactlyTheTokenBudget() {
+        // 8 chars are 2 tokens each
+        List<String> inputs = List.of("12345678", "12345678", "12345678");
+
+        assertThat(new EmbeddingBatchPartitioner(10, 4).partition(inputs))
+                .containsExactly(List.of("12345678", "12345678"), List.of("12345678"));
+        assertThat(new EmbeddingBatchPartitioner(10, 3).partition(inputs))
+                .containsExactly(List.of("12345678"), List.of("12345678"), List.of("12345678"));
+    }
+
+    @Test
+    void sendsAnInputOverTheTokenBudgetAsItsOwnBatch() {
+        String large = "x".repeat(40);
+
+        assertThat(new EmbeddingBatchPartitioner(10, 4).partition(List.of("a", large, "b")))
+                .containsExactly(List.of("a"), List.of(large), List.of("b"));
+        assertThat(new EmbeddingBatchPartitioner(10, 4).partition(List.of(large)))
+                .containsExactly(List.of(large));
+    }
+
+    @Test
+    void countsAtLeastOneTokenPerInput() {
+        assertThat(EmbeddingBatchPartitioner.estimateTokens("")).isEqualTo(1);
+        assertThat(EmbeddingBatchPartitioner.estimateTokens("12345")).isEqualTo(2);
+        assertThat(new EmbeddingBatchPartitioner(10, 2).partition(Collections.nCopies(5, "")))
+                .containsExactly(List.of("", ""), List.of("", ""), List.of(""));
+    }
+
+    @Test
+    void rejectsNonPositiveLimits() {
+        assertThatThrownBy(() -> new EmbeddingBatchPartitioner(0, 100)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> new EmbeddingBatchPartitioner(4, 0)).isInstanceOf(IllegalArgumentException.class);
+    }
+}
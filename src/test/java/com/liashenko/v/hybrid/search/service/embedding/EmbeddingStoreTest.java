@@ -0,0 +1,125 @@
+package com.liashenko.v.hybrid.search.service.embedding;
+
+import com.google.common.hash.HashCode;
+import com.liashenko.v.hybrid.search.config.property.EmbeddingProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class EmbeddingStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void returnsTheStoredVectors() throws IOException {
+        try (EmbeddingStore store = store("model-a")) {
+            store.putAll(List.of(store.key("fintech"), store.key("biotech")),
+                    List.of(new float[]{1f, 2f}, new float[]{3f, 4f, 5f}));
+
+            assertThat(store.get(store.key("fintech"))).containsExactly(1f, 2f);
+            assertThat(store.get(store.key("biotech"))).containsExactly(3f, 4f, 5f);
+            assertThat(store.get(store.key("medtech"))).isNull();
+            assertThat(store.size()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    void keepsTheFirstVectorOfAKey() throws IOException {
+        try (EmbeddingStore store = store("model-a")) {
+            HashCode key = store.key("fintech");
+            store.putAll(List.of(key, key), List.of(new float[]{1f}, new float[]{2f}));
+            store.putAll(List.of(key), List.of(new float[]{3f}));
+
+            assertThat(store.get(key)).containsExactly(1f);
+            // one record: key, dimensions and a single float
+            assertThat(Files.size(segment())).isEqualTo(32 + Integer.BYTES + Float.BYTES);
+        }
+    }
+
+    @Test
+    void rebuildsTheIndexFromTheSegmentOnReopen() throws IOException {
+        try (EmbeddingStore store = store("model-a")) {
+            store.putAll(List.of(store.key("fintech")), List.of(new float[]{1f, 2f}));
+            store.putAll(List.of(store.key("biotech")), List.of(new float[]{3f}));
+        }
+
+        try (EmbeddingStore reopened = store("model-a")) {
+            assertThat(reopened.size()).isEqualTo(2);
+            assertThat(reopened.get(reopened.key("fintech"))).containsExactly(1f, 2f);
+            assertThat(reopened.get(reopened.key("biotech"))).containsExactly(3f);
+        }
+    }
+
+    @Test
+    void truncatesATornRecordAndKeepsAppending() throws IOException {
+        try (EmbeddingStore store = store("model-a")) {
+            store.putAll(List.of(store.key("fintech")), List.of(new float[]{1f, 2f}));
+        }
+        long complete = Files.size(segment());
+        try (FileChannel channel = FileChannel.open(segment(), StandardOpenOption.APPEND)) {
+            // a header announcing 4 dimensions followed by only one of them
+            ByteBuffer torn = ByteBuffer.allocate(40).order(ByteOrder.LITTLE_ENDIAN);
+            torn.put(new byte[32]).putInt(4).putFloat(9f).flip();
+            channel.write(torn);
+        }
+
+        try (EmbeddingStore reopened = store("model-a")) {
+            assertThat(Files.size(segment())).isEqualTo(complete);
+            assertThat(reopened.size()).isEqualTo(1);
+
+            reopened.putAll(List.of(reopened.key("biotech")), List.of(new float[]{3f}));
+            assertThat(reopened.get(reopened.key("biotech"))).containsExactly(3f);
+        }
+        try (EmbeddingStore again = store("model-a")) {
+            assertThat(again.size()).isEqualTo(2);
+            assertThat(again.get(again.key("fintech"))).containsExactly(1f, 2f);
+        }
+    }
+
+    @Test
+    void neverReturnsAVectorOfAnotherModel() throws IOException {
+        HashCode modelAKey;
+        try (EmbeddingStore store = store("model-a")) {
+            modelAKey = store.key("fintech");
+            store.putAll(List.of(modelAKey), List.of(new float[]{1f}));
+        }
+
+        try (EmbeddingStore other = store("model-b")) {
+            assertThat(other.key("fintech")).isNotEqualTo(modelAKey);
+            assertThat(other.get(other.key("fintech"))).isNull();
+            other.putAll(List.of(other.key("fintech")), List.of(new float[]{2f}));
+            assertThat(other.get(other.key("fintech"))).containsExactly(2f);
+        }
+        try (EmbeddingStore store = store("model-a")) {
+            assertThat(store.get(store.key("fintech"))).containsExactly(1f);
+        }
+    }
+
+    @Test
+    void requiresAModelId() {
+        assertThatThrownBy(() -> store(" ")).isInstanceOf(IllegalStateException.class);
+    }
+
+    private EmbeddingStore store(String modelId) {
+        EmbeddingProperties.StoreProperties properties = new EmbeddingProperties.StoreProperties();
+        properties.setDirectory(directory);
+        properties.setModelId(modelId);
+        return new EmbeddingStore(properties);
+    }
+
+    private Path segment() {
+        return directory.resolve(EmbeddingStore.SEGMENT_FILE);
+    }
+}
@@ -0,0 +1,158 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.BatchSearchResult;
+import com.liashenko.v.hybrid.search.model.Conference;
+import com.liashenko.v.hybrid.search.model.SearchCursor;
+import com.liashenko.v.hybrid.search.model.SearchFilters;
+import com.liashenko.v.hybrid.search.model.SearchPage;
+import com.liashenko.v.hybrid.search.model.SearchQuery;
+import com.liashenko.v.hybrid.search.service.SearchService;
+import com.liashenko.v.hybrid.search.service.indexing.IndexGeneration;
+import com.liashenko.v.hybrid.search.service.indexing.IndexingReport;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CachingSearchServiceTest {
+
+    private final CountingSearchService backend = new CountingSearchService();
+    private final IndexGeneration indexGeneration = new IndexGeneration();
+    private final SearchService service = new CachingSearchService(backend, new SearchProperties.ResultCacheProperties(),
+            indexGeneration, new SimpleMeterRegistry());
+
+    @Test
+    void servesARepeatedSearchFromTheCache() throws Exception {
+        List<Conference> first = service.search(query("Fintech  Summit"));
+        List<Conference> second = service.search(query(" fintech summit "));
+
+        assertThat(second).isSameAs(first);
+        assertThat(backend.searches).isEqualTo(1);
+    }
+
+    @Test
+    void advancingTheGenerationInvalidatesTheEntries() throws Exception {
+        service.search(query("fintech"));
+
+        indexGeneration.advance();
+        service.search(query("fintech"));
+
+        assertThat(backend.searches).isEqualTo(2);
+    }
+
+    @Test
+    void writesThroughTheServiceAdvanceTheGeneration() throws Exception {
+        service.search(query("fintech"));
+        service.index(List.of(Conference.builder().id("c-1").build()));
+        service.search(query("fintech"));
+        service.delete(List.of("c-1"));
+        service.search(query("fintech"));
+
+        assertThat(indexGeneration.current()).isEqualTo(2);
+        assertThat(backend.searches).isEqualTo(3);
+    }
+
+    @Test
+    void separatesSearchTypesFiltersAndPages() throws Exception {
+        SearchQuery query = query("fintech");
+        SearchFilters germany = new SearchFilters(null, null, List.of("Germany"), null, null, null);
+
+        service.search(query);
+        service.search(query.withType("KEYWORD"));
+        service.search(query.withFilters(germany));
+        service.search(query.withOffset(10));
+        service.search(query.withLimit(5));
+        assertThat(backend.searches).isEqualTo(5);
+
+        service.search(query.withFilters(new SearchFilters(null, null, List.of("Germany"), null, null, null)));
+        service.search(query.withType("KEYWORD"));
+        assertThat(backend.searches).isEqualTo(5);
+    }
+
+    @Test
+    void neverCachesCursorPagesOrBlankQueries() throws Exception {
+        SearchQuery cursorPage = query("fintech").withCursor(SearchCursor.start("pit"));
+        service.search(cursorPage);
+        service.search(cursorPage);
+        service.search(query(" "));
+        service.search(query(" "));
+
+        assertThat(backend.searches).isEqualTo(4);
+    }
+
+    @Test
+    void servesButNeverFillsTheCacheFromAsyncSearches() throws Exception {
+        service.searchAsync(query("fintech")).join();
+        service.searchAsync(query("fintech")).join();
+        assertThat(backend.searches).isEqualTo(2);
+
+        List<Conference> cached = service.search(query("fintech"));
+        assertThat(service.searchAsync(query("fintech")).join()).isSameAs(cached);
+        assertThat(backend.searches).isEqualTo(3);
+    }
+
+    private static SearchQuery query(String text) {
+        return SearchQuery.builder()
+                .queryText(text)
+                .type("HYBRID")
+                .offset(0)
+                .limit(20)
+                .build();
+    }
+
+    /**
+     * Answers every search with a fresh one-hit list and counts the searches that reached it.
+     */
+    private static final class CountingSearchService implements SearchService {
+        private int searches;
+
+        @Override
+        public List<Conference> search(SearchQuery query) {
+            searches++;
+            return List.of(Conference.builder().id("c-" + searches).build());
+        }
+
+        @Override
+        public CompletableFuture<List<Conference>> searchAsync(SearchQuery query) {
+            return CompletableFuture.completedFuture(search(query));
+        }
+
+        @Override
+        public IndexingReport index(List<Conference> docs) {
+            return IndexingReport.empty();
+        }
+
+        @Override
+        public IndexingReport index(String targetIndex, List<Conference> docs) {
+            return IndexingReport.empty();
+        }
+
+        @Override
+        public IndexingReport delete(List<String> ids) {
+            return IndexingReport.empty();
+        }
+
+        @Override
+        public BatchSearchResult searchBatch(List<SearchQuery> queries) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public SearchPage searchPage(SearchQuery query) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void deleteData() {
+        }
+
+        @Override
+        public boolean createIndexIfNeeded() {
+            return false;
+        }
+    }
+}
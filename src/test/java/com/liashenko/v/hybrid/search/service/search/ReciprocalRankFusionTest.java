@@ -0,0 +1,86 @@
+package com.liashenko.v.hybrid.search.service.search;
+
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import com.liashenko.v.hybrid.search.model.Conference;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class ReciprocalRankFusionTest {
+    private static final int RANK_CONSTANT = 60;
+
+    private final ReciprocalRankFusion fusion = fusion(1.0, 1.0);
+
+    @Test
+    void scoresEveryLegByTheReciprocalOfRankConstantPlusRank() {
+        List<Conference> fused = fusion.fuse(hits("a", "b"), hits("b", "a"), 0, 10);
+
+        double expected = 1.0 / (RANK_CONSTANT + 1) + 1.0 / (RANK_CONSTANT + 2);
+        assertThat(fused).extracting(Conference::getScore)
+                .allSatisfy(score -> assertThat(score).isCloseTo(expected, offset(1e-12)));
+    }
+
+    @Test
+    void ranksADocumentFoundByBothLegsAboveOneFoundByOnlyOne() {
+        List<Conference> fused = fusion.fuse(hits("a", "b"), hits("c", "b"), 0, 10);
+
+        assertThat(ids(fused)).containsExactly("b", "a", "c");
+        assertThat(fused.get(1).getScore()).isCloseTo(1.0 / (RANK_CONSTANT + 1), offset(1e-12));
+        assertThat(fused.get(2).getScore()).isCloseTo(1.0 / (RANK_CONSTANT + 1), offset(1e-12));
+    }
+
+    @Test
+    void keepsTiesInKeywordThenVectorOrder() {
+        List<Conference> fused = fusion.fuse(hits("a", "b"), hits("c", "d"), 0, 10);
+
+        assertThat(ids(fused)).containsExactly("a", "c", "b", "d");
+    }
+
+    @Test
+    void weightsTheLegs() {
+        List<Conference> fused = fusion(1.0, 2.0).fuse(hits("a"), hits("c"), 0, 10);
+
+        assertThat(ids(fused)).containsExactly("c", "a");
+        assertThat(fused.getFirst().getScore()).isCloseTo(2.0 / (RANK_CONSTANT + 1), offset(1e-12));
+    }
+
+    @Test
+    void returnsEveryDocumentWhenTheWindowIsLargerThanEitherLeg() {
+        List<Conference> fused = fusion.fuse(hits("a", "b", "c"), hits("d", "a"), 0, 100);
+
+        assertThat(ids(fused)).containsExactly("a", "d", "b", "c");
+    }
+
+    @Test
+    void returnsTheRequestedPageOfTheFusedRanking() {
+        List<Conference> keyword = hits("a", "b", "c", "d");
+        List<Conference> vector = hits("e", "f", "g", "h");
+
+        assertThat(ids(fusion.fuse(keyword, vector, 2, 3))).containsExactly("b", "f", "c");
+        assertThat(fusion.fuse(keyword, vector, 8, 3)).isEmpty();
+        assertThat(fusion.fuse(keyword, vector, 0, 0)).isEmpty();
+        assertThat(fusion.fuse(List.of(), List.of(), 0, 10)).isEmpty();
+    }
+
+    private static ReciprocalRankFusion fusion(double keywordWeight, double vectorWeight) {
+        SearchProperties.RrfProperties properties = new SearchProperties.RrfProperties();
+        properties.setRankConstant(RANK_CONSTANT);
+        properties.setKeywordWeight(keywordWeight);
+        properties.setVectorWeight(vectorWeight);
+        return new ReciprocalRankFusion(properties);
+    }
+
+    private static List<Conference> hits(String... ids) {
+        return Arrays.stream(ids)
+                .map(id -> Conference.builder().id(id).build())
+                .toList();
+    }
+
+    private static List<String> ids(List<Conference> conferences) {
+        return conferences.stream().map(Conference::getId).toList();
+    }
+}
@@ -0,0 +1,181 @@
+package com.liashenko.v.hybrid.search.service.vector;
+
+import com.liashenko.v.hybrid.search.config.property.SearchProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class LocalVectorIndexTest {
+    private static final int DIMENSIONS = 32;
+    private static final int DOCUMENTS = 2000;
+
+    private final Random random = new Random(42);
+    private final float[][] vectors = randomVectors(DOCUMENTS);
+
+    @Test
+    void hnswFindsMostOfTheExactNeighbours() {
+        LocalVectorIndex hnsw = filled(index(LocalVectorIndex.HNSW, 0.2));
+        LocalVectorIndex exact = filled(index(LocalVectorIndex.EXACT, 0.2));
+
+        int found = 0;
+        int expected = 0;
+        for (float[] query : randomVectors(50)) {
+            Set<String> exactIds = ids(exact.search(query, 10, 100));
+            Set<String> hnswIds = ids(hnsw.search(query, 10, 100));
+            expected += exactIds.size();
+            hnswIds.retainAll(exactIds);
+            found += hnswIds.size();
+        }
+        assertThat((double) found / expected).isGreaterThan(0.9);
+    }
+
+    @Test
+    void exactScanReturnsNeighboursMostSimilarFirst() {
+        LocalVectorIndex exact = filled(index(LocalVectorIndex.EXACT, 0.2));
+
+        List<LocalVectorIndex.Neighbour> neighbours = exact.search(vectors[7], 10, 10);
+
+        assertThat(neighbours).hasSize(10);
+        assertThat(neighbours.getFirst().id()).isEqualTo("doc-7");
+        assertThat(neighbours.getFirst().similarity()).isCloseTo(1f, offset(0.02f));
+        assertThat(neighbours).extracting(LocalVectorIndex.Neighbour::similarity)
+                .isSortedAccordingTo((a, b) -> Float.compare(b, a));
+    }
+
+    @Test
+    void neverReturnsRemovedOrReplacedVectors() {
+        LocalVectorIndex index = filled(index(LocalVectorIndex.HNSW, 1.0));
+        index.remove("doc-7");
+        index.add("doc-8", vectors[9]);
+
+        List<LocalVectorIndex.Neighbour> nearSeven = index.search(vectors[7], 10, 100);
+        List<LocalVectorIndex.Neighbour> nearEight = index.search(vectors[8], 10, 100);
+
+        assertThat(ids(nearSeven)).doesNotContain("doc-7");
+        assertThat(nearEight.getFirst().id()).isNotEqualTo("doc-8");
+        assertThat(ids(index.search(vectors[9], 2, 100))).containsExactlyInAnyOrder("doc-8", "doc-9");
+        assertThat(index.size()).isEqualTo(DOCUMENTS - 1);
+    }
+
+    @Test
+    void returnsKNeighboursWhenMostVectorsAreTombstoned() {
+        LocalVectorIndex index = filled(index(LocalVectorIndex.HNSW, 1.0));
+        for (int i = 0; i < DOCUMENTS; i++) {
+            if (i % 10 != 0) {
+                index.remove("doc-" + i);
+            }
+        }
+
+        for (float[] query : randomVectors(20)) {
+            List<LocalVectorIndex.Neighbour> neighbours = index.search(query, 10, 10);
+            assertThat(neighbours).hasSize(10);
+            assertThat(neighbours).allMatch(neighbour -> Integer.parseInt(neighbour.id().substring(4)) % 10 == 0);
+        }
+    }
+
+    @Test
+    void compactsOnceTombstonesExceedTheRatio() {
+        LocalVectorIndex index = filled(index(LocalVectorIndex.HNSW, 0.2));
+        for (int i = 0; i < DOCUMENTS / 2; i++) {
+            index.remove("doc-" + i);
+        }
+        index.add("doc-0", vectors[0]);
+
+        assertThat(index.size()).isEqualTo(DOCUMENTS / 2 + 1);
+        assertThat(index.search(vectors[0], 1, 100)).extracting(LocalVectorIndex.Neighbour::id).containsExactly("doc-0");
+        assertThat(index.search(vectors[1500], 1, 100)).extracting(LocalVectorIndex.Neighbour::id).containsExactly("doc-1500");
+        // after compaction the snapshot holds only the live vectors
+        assertThat(restored(index, index(LocalVectorIndex.HNSW, 0.2)).size()).isEqualTo(DOCUMENTS / 2 + 1);
+    }
+
+    @Test
+    void restoresTheSameResultsFromASnapshot() throws IOException {
+        LocalVectorIndex index = filled(index(LocalVectorIndex.HNSW, 1.0));
+        index.remove("doc-3");
+        index.add("doc-4", vectors[5]);
+
+        LocalVectorIndex restored = restored(index, index(LocalVectorIndex.HNSW, 1.0));
+
+        assertThat(restored.size()).isEqualTo(index.size());
+        for (float[] query : randomVectors(20)) {
+            assertThat(restored.search(query, 10, 50)).isEqualTo(index.search(query, 10, 50));
+        }
+        // the restored graph keeps accepting inserts
+        restored.add("doc-new", vectors[3]);
+        assertThat(restored.search(vectors[3], 1, 50)).extracting(LocalVectorIndex.Neighbour::id).containsExactly("doc-new");
+    }
+
+    @Test
+    void rejectsSnapshotOfAnotherConfiguration() throws IOException {
+        byte[] snapshot = snapshot(filled(index(LocalVectorIndex.HNSW, 0.2)));
+
+        SearchProperties.LocalVectorProperties otherM = properties(LocalVectorIndex.HNSW, 0.2);
+        otherM.setM(8);
+        assertThat(new LocalVectorIndex(otherM, new SimpleMeterRegistry()).restore(ByteBuffer.wrap(snapshot))).isFalse();
+        assertThat(index(LocalVectorIndex.EXACT, 0.2).restore(ByteBuffer.wrap(snapshot))).isFalse();
+    }
+
+    private LocalVectorIndex filled(LocalVectorIndex index) {
+        for (int i = 0; i < vectors.length; i++) {
+            index.add("doc-" + i, vectors[i]);
+        }
+        return index;
+    }
+
+    private static LocalVectorIndex restored(LocalVectorIndex index, LocalVectorIndex target) {
+        try {
+            assertThat(target.restore(ByteBuffer.wrap(snapshot(index)))).isTrue();
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+        return target;
+    }
+
+    private static byte[] snapshot(LocalVectorIndex index) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            index.write(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static LocalVectorIndex index(String algorithm, double maxTombstoneRatio) {
+        return new LocalVectorIndex(properties(algorithm, maxTombstoneRatio), new SimpleMeterRegistry());
+    }
+
+    private static SearchProperties.LocalVectorProperties properties(String algorithm, double maxTombstoneRatio) {
+        SearchProperties.LocalVectorProperties properties = new SearchProperties.LocalVectorProperties();
+        properties.setEnabled(true);
+        properties.setAlgorithm(algorithm);
+        properties.setMaxTombstoneRatio(maxTombstoneRatio);
+        properties.setSnapshotFile(null);
+        return properties;
+    }
+
+    private static Set<String> ids(List<LocalVectorIndex.Neighbour> neighbours) {
+        Set<String> ids = new HashSet<>();
+        neighbours.forEach(neighbour -> ids.add(neighbour.id()));
+        return ids;
+    }
+
+    private float[][] randomVectors(int count) {
+        float[][] result = new float[count][DIMENSIONS];
+        for (float[] vector : result) {
+            for (int i = 0; i < DIMENSIONS; i++) {
+                vector[i] = (float) random.nextGaussian();
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,50 @@
+package com.liashenko.v.hybrid.search.service.vector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LongHeapTest {
+
+    @Test
+    void popsInAscendingOrder() {
+        long[] values = new Random(7).longs(1000).toArray();
+        LongHeap heap = new LongHeap(1);
+        for (long value : values) {
+            heap.push(value);
+        }
+
+        long[] popped = new long[values.length];
+        for (int i = 0; i < popped.length; i++) {
+            popped[i] = heap.pop();
+        }
+        assertThat(popped).isSorted().containsExactlyInAnyOrder(values);
+        assertThat(heap.isEmpty()).isTrue();
+    }
+
+    @Test
+    void drainsInDescendingOrder() {
+        LongHeap heap = new LongHeap(4);
+        LongStream.of(5, -3, 9, 0, 9, Long.MIN_VALUE, Long.MAX_VALUE).forEach(heap::push);
+
+        assertThat(heap.peek()).isEqualTo(Long.MIN_VALUE);
+        assertThat(heap.drainDescending()).containsExactly(Long.MAX_VALUE, 9, 9, 5, 0, -3, Long.MIN_VALUE);
+        assertThat(heap.size()).isZero();
+    }
+
+    @Test
+    void ordersEncodedCandidatesByScoreThenOrdinal() {
+        LongHeap heap = new LongHeap(8);
+        heap.push(HnswGraph.encode(-50, 1));
+        heap.push(HnswGraph.encode(120, 2));
+        heap.push(HnswGraph.encode(120, 0));
+        heap.push(HnswGraph.encode(0, 3));
+
+        long[] drained = heap.drainDescending();
+        assertThat(LongStream.of(drained).mapToInt(HnswGraph::score).toArray()).containsExactly(120, 120, 0, -50);
+        assertThat(LongStream.of(drained).mapToInt(HnswGraph::ordinal).toArray()).containsExactly(2, 0, 3, 1);
+    }
+}